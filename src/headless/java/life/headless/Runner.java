@@ -0,0 +1,457 @@
+package life.headless;
+
+import life.distributed.DistributedGame;
+import life.model.BandExecutor;
+import life.model.BitGrid;
+import life.model.Checkpoint;
+import life.model.Engine;
+import life.model.Ensemble;
+import life.model.Game;
+import life.model.Metrics;
+import life.model.OffHeapGame;
+import life.model.OffHeapGrid;
+import life.model.PatternReader;
+import life.model.PatternWriter;
+import life.model.Rule;
+import life.model.Topology;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Runner plays a game from the command line, without a ui, and
+ * prints the number of generations, final population and timing.
+ *
+ * Usage: Runner [options] (pattern.rle | pattern.cells | --random ROWSxCOLS | --resume FILE)
+ *        Runner [options] --runs N --random ROWSxCOLS
+ *
+ * Options:
+ *   --engine NAME        engine to use, STANDARD by default, or PACKED with --workers.
+ *   --topology NAME      board topology, the engine's default if not given.
+ *   --rule RULE          rule in B/S notation, the pattern's or B3/S23 by default.
+ *   --generations N      maximum number of generations, 1000 by default.
+ *   --until-static       stop once a generation doesn't change the board.
+ *   --max-period N       stop once the board is proven to repeat with up to period N.
+ *   --size ROWSxCOLS     board size, a loaded pattern is placed at its center.
+ *   --random ROWSxCOLS   start from a random board of the given size.
+ *   --density D          density of a random board, 0.5 by default.
+ *   --seed S             seed of a random board.
+ *   --output FILE        write the last generation to an .rle or .cells file.
+ *   --resume FILE        continue from a checkpoint, with its topology and rule.
+ *   --save FILE          write a checkpoint of the last generation.
+ *   --save-every N       also write the checkpoint every N generations.
+ *   --metrics            also print the distribution of step times.
+ *   --workers N          split the board between N worker processes.
+ *   --transport NAME     transport of halos between workers, socket or file, socket by default.
+ *   --runs N             run N random boards of seeds S to S + N - 1 concurrently, see Ensemble.
+ *   --results FILE       write the result of every run to a .csv or .jsonl file.
+ */
+public class Runner {
+    private String engine;  // Null to use the default.
+    private String topology;
+    private Rule rule; // Null to use the pattern's rule.
+    private long generations = 1000;
+    private boolean untilStatic;
+    private int maxPeriod;
+
+    private String pattern;  // Path of a pattern file.
+    private String output;   // Path the last generation is written to.
+    private String resume;   // Path of a checkpoint to continue from.
+    private String save;     // Path checkpoints are written to.
+    private long saveEvery;  // Generations between checkpoints, 0 to only save the last.
+    private boolean metrics; // Whether to measure every step.
+    private int workers;     // Number of worker processes, 0 to step in this one.
+    private String transport = "socket";
+    private int runs;        // Number of random boards of an ensemble, 0 to run a single board.
+    private String results;  // Path the results of an ensemble are written to.
+    private int[] size;      // Board size, rows and columns.
+    private int[] random;    // Size of a random board.
+    private double density = 0.5;
+    private long seed = System.nanoTime();
+
+    public static void main(String[] args) {
+        Runner runner = new Runner();
+        try {
+            runner.parse(args);
+            runner.run();
+        }
+        catch (IllegalArgumentException | UnsupportedOperationException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parse command line arguments.
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--engine":
+                    this.engine = value(args, ++i);
+                    break;
+                case "--topology":
+                    this.topology = value(args, ++i);
+                    break;
+                case "--rule":
+                    this.rule = Rule.parse(value(args, ++i));
+                    break;
+                case "--generations":
+                    this.generations = Long.parseLong(value(args, ++i));
+                    break;
+                case "--until-static":
+                    this.untilStatic = true;
+                    break;
+                case "--max-period":
+                    this.maxPeriod = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--size":
+                    this.size = dimensions(value(args, ++i));
+                    break;
+                case "--random":
+                    this.random = dimensions(value(args, ++i));
+                    break;
+                case "--density":
+                    this.density = Double.parseDouble(value(args, ++i));
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value(args, ++i));
+                    break;
+                case "--output":
+                    this.output = value(args, ++i);
+                    break;
+                case "--resume":
+                    this.resume = value(args, ++i);
+                    break;
+                case "--save":
+                    this.save = value(args, ++i);
+                    break;
+                case "--save-every":
+                    this.saveEvery = Long.parseLong(value(args, ++i));
+                    break;
+                case "--metrics":
+                    this.metrics = true;
+                    break;
+                case "--workers":
+                    this.workers = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--transport":
+                    this.transport = value(args, ++i);
+                    break;
+                case "--runs":
+                    this.runs = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--results":
+                    this.results = value(args, ++i);
+                    break;
+                default:
+                    if (args[i].startsWith("--") || this.pattern != null)
+                    {
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                    }
+                    this.pattern = args[i];
+            }
+        }
+
+        int sources = (this.pattern != null ? 1 : 0) + (this.random != null ? 1 : 0) + (this.resume != null ? 1 : 0);
+        if (sources != 1)
+        {
+            throw new IllegalArgumentException("Expected one of a pattern file, --random ROWSxCOLS or --resume FILE.");
+        }
+
+        if (this.resume != null && (this.topology != null || this.rule != null || this.size != null))
+        {
+            throw new IllegalArgumentException("--resume takes the board, topology and rule from the checkpoint.");
+        }
+
+        if (this.runs > 0 && (this.random == null || this.workers > 0 || this.output != null || this.save != null))
+        {
+            throw new IllegalArgumentException("--runs needs --random ROWSxCOLS, and can't be used with --workers, "
+                    + "--output or --save.");
+        }
+
+        if (this.results != null && this.runs == 0)
+        {
+            throw new IllegalArgumentException("--results needs --runs N.");
+        }
+
+        if (this.workers > 0 && (this.resume != null || this.maxPeriod > 0))
+        {
+            throw new IllegalArgumentException("--workers can't be used with --resume or --max-period.");
+        }
+
+        if (this.saveEvery > 0 && this.save == null)
+        {
+            throw new IllegalArgumentException("--save-every needs --save FILE.");
+        }
+    }
+
+    /**
+     * Load the board, play the game and print the results.
+     */
+    private void run() throws IOException {
+        long start = System.nanoTime();
+
+        Engine engine = Engine.byName(this.engine != null ? this.engine
+                                                         : this.workers > 0 || this.runs > 0 ? "packed" : "standard");
+        if (this.runs > 0)
+        {
+            this.runEnsemble(engine);
+            return;
+        }
+
+        Game game;
+        long first = 0; // Generation the run starts from.
+
+        if (this.resume != null)
+        {
+            Checkpoint checkpoint = Checkpoint.load(Paths.get(this.resume));
+            game = checkpoint.restore(engine);
+            first = checkpoint.getGeneration();
+        }
+        else if (engine == Engine.OFFHEAP && this.random != null && this.workers == 0)
+        {
+            // Filled in place, so the board never has to fit on the heap.
+            game = new OffHeapGame(this.randomOffHeapGrid(),
+                    this.topology == null ? Topology.BOUNDED : Topology.valueOf(this.topology.toUpperCase(Locale.ROOT)),
+                    BandExecutor.SEQUENTIAL);
+            game.setRule(this.rule == null ? Rule.CONWAY : this.rule);
+        }
+        else
+        {
+            Rule rule = this.rule;
+            BitGrid grid;
+            if (this.pattern != null)
+            {
+                PatternReader reader = PatternReader.open(Paths.get(this.pattern));
+                grid = this.size == null ? reader.read() : reader.read(this.size[0], this.size[1]);
+
+                if (rule == null)
+                {
+                    rule = reader.getRule();
+                }
+            }
+            else
+            {
+                grid = this.randomGrid();
+            }
+
+            if (this.workers > 0)
+            {
+                Topology topology = this.topology == null ? Topology.BOUNDED
+                                                          : Topology.valueOf(this.topology.toUpperCase(Locale.ROOT));
+                game = DistributedGame.launch(grid, topology, rule == null ? Rule.CONWAY : rule,
+                                              engine, this.transport, this.workers);
+            }
+            else
+            {
+                game = this.topology == null ? engine.create(grid)
+                                             : engine.create(grid, Topology.valueOf(this.topology.toUpperCase(Locale.ROOT)));
+                game.setRule(rule == null ? Rule.CONWAY : rule);
+            }
+        }
+
+        if (this.maxPeriod > 0)
+        {
+            game.setMaxPeriod(this.maxPeriod);
+        }
+
+        Metrics metrics = this.metrics ? Metrics.attach(game) : null;
+
+        long loaded = System.nanoTime();
+
+        long generation = first;
+        while (generation - first < this.generations)
+        {
+            game.step();
+            generation++;
+
+            if ((this.untilStatic && game.isStatic()) || game.getPeriod() != 0)
+            {
+                break;
+            }
+
+            if (this.saveEvery > 0 && (generation - first) % this.saveEvery == 0)
+            {
+                game.save(Paths.get(this.save), generation);
+            }
+        }
+
+        long finished = System.nanoTime();
+        long stepped = generation - first;
+
+        double seconds = (finished - loaded) / 1e9;
+        double cells = (double) game.getRows() * game.getCols();
+
+        System.out.println("engine:      " + engine
+                + (engine == Engine.VECTOR && !Engine.isVectorized() ? " (Vector API unavailable, stepped as PACKED)" : ""));
+        if (this.workers > 0)
+        {
+            System.out.println("workers:     " + this.workers + " over " + this.transport);
+        }
+        System.out.println("rule:        " + game.getRule());
+        System.out.println("board:       " + game.getRows() + "x" + game.getCols());
+        System.out.println("generations: " + generation);
+        System.out.println("static:      " + game.isStatic());
+        System.out.println("period:      " + (game.getPeriod() == 0 ? "none detected" : game.getPeriod()));
+        System.out.println("population:  " + game.getPopulation());
+        System.out.println("bounds:      " + (game.getPopulation() == 0 ? "empty" : game.getBounds()));
+        System.out.printf("load time:   %.1f ms%n", (loaded - start) / 1e6);
+        System.out.printf("run time:    %.1f ms (%.1f generations/s, %.3g cells/s)%n",
+                seconds * 1e3, stepped / seconds, stepped * cells / seconds);
+
+        if (metrics != null)
+        {
+            System.out.printf("step time:   %.1f us mean, %.1f us median, %.1f us p99, %.1f us max%n",
+                    metrics.getMeanStepNanos() / 1e3, metrics.getMedianStepNanos() / 1e3,
+                    metrics.getP99StepNanos() / 1e3, metrics.getMaxStepNanos() / 1e3);
+        }
+
+        if (this.output != null)
+        {
+            PatternWriter.write(game, Paths.get(this.output));
+            System.out.println("written to:  " + this.output);
+        }
+
+        if (this.save != null)
+        {
+            game.save(Paths.get(this.save), generation);
+            System.out.println("checkpoint:  " + this.save);
+        }
+
+        if (game instanceof OffHeapGame)
+        {
+            ((OffHeapGame) game).close();
+        }
+        else if (game instanceof DistributedGame)
+        {
+            ((DistributedGame) game).close();
+        }
+    }
+
+    /**
+     * Run an ensemble of random boards and print a summary of the runs.
+     */
+    private void runEnsemble(Engine engine) throws IOException {
+        Ensemble ensemble = new Ensemble(this.random[0], this.random[1]);
+        ensemble.setEngine(engine);
+        ensemble.setRule(this.rule == null ? Rule.CONWAY : this.rule);
+        ensemble.setDensity(this.density);
+        ensemble.setMaxGenerations(this.generations);
+        ensemble.setMaxPeriod(this.maxPeriod);
+        if (this.topology != null)
+        {
+            ensemble.setTopology(Topology.valueOf(this.topology.toUpperCase(Locale.ROOT)));
+        }
+
+        // Totals of every run, the sink is never called concurrently.
+        long[] totals = new long[4]; // Generations, lifespans, populations and settled runs.
+
+        long start = System.nanoTime();
+        try (Writer writer = this.results == null ? null : Files.newBufferedWriter(Paths.get(this.results))) {
+            Ensemble.Sink sink = writer == null ? result -> {}
+                    : this.results.endsWith(".csv") ? Ensemble.Sink.csv(writer) : Ensemble.Sink.jsonLines(writer);
+
+            ensemble.run(this.seed, this.runs, result -> {
+                totals[0] += result.getGenerations();
+                totals[1] += result.getLifespan();
+                totals[2] += result.getPopulation();
+                totals[3] += result.getPeriod() != 0 ? 1 : 0;
+                sink.accept(result);
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("engine:      " + engine);
+        System.out.println("rule:        " + (this.rule == null ? Rule.CONWAY : this.rule));
+        System.out.println("board:       " + this.random[0] + "x" + this.random[1]);
+        System.out.println("runs:        " + this.runs + " from seed " + this.seed + ", " + totals[3] + " settled");
+        System.out.printf("lifespan:    %.1f generations mean%n", (double) totals[1] / this.runs);
+        System.out.printf("population:  %.1f mean%n", (double) totals[2] / this.runs);
+        System.out.printf("run time:    %.1f ms (%.1f runs/s, %.1f generations/s)%n",
+                seconds * 1e3, this.runs / seconds, totals[0] / seconds);
+
+        if (this.results != null)
+        {
+            System.out.println("written to:  " + this.results);
+        }
+    }
+
+    /**
+     * @return a board with cells alive at the given density.
+     */
+    private BitGrid randomGrid() {
+        Random random = new Random(this.seed);
+
+        BitGrid grid = new BitGrid(this.random[0], this.random[1]);
+        for (int i = 0; i < grid.getRows(); i++)
+        {
+            for (int j = 0; j < grid.getCols(); j++)
+            {
+                grid.set(i, j, random.nextDouble() < this.density);
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * @return a board outside the heap, with cells alive at the given
+     * density, the same as randomGrid's for the same seed.
+     */
+    private OffHeapGrid randomOffHeapGrid() {
+        Random random = new Random(this.seed);
+
+        OffHeapGrid grid = new OffHeapGrid(this.random[0], this.random[1]);
+        for (int i = 0; i < grid.getRows(); i++)
+        {
+            long word = 0;
+            for (int j = 0; j < grid.getCols(); j++)
+            {
+                if (random.nextDouble() < this.density)
+                {
+                    word |= 1L << j;
+                }
+
+                if ((j & 63) == 63 || j == grid.getCols() - 1)
+                {
+                    grid.setWord(i, j >>> 6, word);
+                    word = 0;
+                }
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * @return value of an option.
+     */
+    private static String value(String[] args, int i) {
+        if (i >= args.length)
+        {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+
+        return args[i];
+    }
+
+    /**
+     * @return rows and columns parsed from ROWSxCOLS.
+     */
+    private static int[] dimensions(String value) {
+        String[] parts = value.toLowerCase(Locale.ROOT).split("x");
+        if (parts.length != 2)
+        {
+            throw new IllegalArgumentException("Expected ROWSxCOLS, got " + value);
+        }
+
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
@@ -0,0 +1,140 @@
+package life.bench;
+
+import life.model.Engine;
+import life.model.Game;
+import life.model.OffHeapGame;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generation throughput of the engines. Besides operations
+ * per second, every benchmark reports cells per second through the
+ * cells counter. Allocated bytes per operation are reported by the
+ * gc profiler as gc.alloc.rate.norm.
+ *
+ * step keeps stepping the game created for the trial, during the
+ * first warmup iteration, so its gc.alloc.rate.norm only counts what
+ * a generation allocates. Small boards settle during warmup, though.
+ *
+ * stepFresh and nextConfig step a game created before every iteration
+ * instead, with random fills seeded again, so boards are measured
+ * while they evolve. Their gc.alloc.rate.norm includes creating the
+ * game, spread over the iteration. Small boards can still settle
+ * within an iteration; shorten iterations with -r to measure them
+ * evolving.
+ *
+ * A 8192x8192 STANDARD board needs several GB of heap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Thread)
+public class EngineBenchmark {
+    @Param({"STANDARD", "PACKED", "SPARSE", "VECTOR", "TABLE", "OFFHEAP"})
+    private String engine;
+
+    @Param({"64", "512", "4096", "8192"})
+    private int size;
+
+    @Param({"sparse", "random", "dense", "r-pentomino", "glider-gun", "acorn"})
+    private String fill;
+
+    private Game game; // Game created once per trial, for step and isStatic.
+
+    /**
+     * Counts processed cells, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.cells = 0;
+        }
+    }
+
+    /**
+     * A game started from a newly seeded board before every iteration.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        private int iteration; // Number of boards created so far.
+        private Game game;
+
+        @Setup(Level.Iteration)
+        public void setup(EngineBenchmark benchmark) {
+            this.game = benchmark.create(this.iteration++);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            close(this.game);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.game = this.create(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        close(this.game);
+    }
+
+    @Benchmark
+    public boolean[][] nextConfig(Fresh fresh, Cells counter) {
+        counter.cells += (long) this.size * this.size;
+        return fresh.game.nextConfig();
+    }
+
+    @Benchmark
+    public void step(Cells counter) {
+        counter.cells += (long) this.size * this.size;
+        this.game.step();
+    }
+
+    @Benchmark
+    public void stepFresh(Fresh fresh, Cells counter) {
+        counter.cells += (long) this.size * this.size;
+        fresh.game.step();
+    }
+
+    @Benchmark
+    public boolean isStatic() {
+        return this.game.isStatic();
+    }
+
+    /**
+     * @param iteration number of boards created before, offsetting the seed.
+     * @return a new game of the fill's board.
+     */
+    private Game create(int iteration) {
+        return Engine.byName(this.engine).create(Patterns.create(this.fill, this.size, this.size + iteration));
+    }
+
+    private static void close(Game game) {
+        if (game instanceof OffHeapGame)
+        {
+            ((OffHeapGame) game).close();
+        }
+    }
+}
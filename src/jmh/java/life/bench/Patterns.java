@@ -0,0 +1,109 @@
+package life.bench;
+
+import java.util.Random;
+
+/**
+ * Patterns creates initial boards for benchmarks.
+ */
+final class Patterns {
+    /**
+     * Methuselah that stabilizes after 1103 generations.
+     */
+    private static final String[] R_PENTOMINO = {
+        ".OO",
+        "OO.",
+        ".O."
+    };
+
+    /**
+     * Methuselah that stabilizes after 5206 generations.
+     */
+    private static final String[] ACORN = {
+        ".O.....",
+        "...O...",
+        "OO..OOO"
+    };
+
+    /**
+     * Gosper glider gun, emits a glider every 30 generations.
+     */
+    private static final String[] GLIDER_GUN = {
+        "........................O...........",
+        "......................O.O...........",
+        "............OO......OO............OO",
+        "...........O...O....OO............OO",
+        "OO........O.....O...OO..............",
+        "OO........O...O.OO....O.O...........",
+        "..........O.....O.......O...........",
+        "...........O...O....................",
+        "............OO......................"
+    };
+
+    private Patterns() {
+    }
+
+    /**
+     * Create a board.
+     *
+     * @param fill name of the fill, a density or a pattern.
+     * @param size number of rows and columns.
+     * @param seed seed of random fills, ignored by patterns.
+     * @return a boolean array containing initial states.
+     */
+    static boolean[][] create(String fill, int size, long seed) {
+        switch (fill)
+        {
+            case "sparse":
+                return random(size, 0.05, seed);
+            case "random":
+                return random(size, 0.5, seed);
+            case "dense":
+                return random(size, 0.9, seed);
+            case "r-pentomino":
+                return centred(R_PENTOMINO, size);
+            case "acorn":
+                return centred(ACORN, size);
+            case "glider-gun":
+                return centred(GLIDER_GUN, size);
+            default:
+                throw new IllegalArgumentException("Unknown fill: " + fill);
+        }
+    }
+
+    /**
+     * @return a board with cells alive at the given probability.
+     */
+    private static boolean[][] random(int size, double density, long seed) {
+        Random random = new Random(seed);
+
+        boolean[][] states = new boolean[size][size];
+        for (boolean[] row : states)
+        {
+            for (int j = 0; j < size; j++)
+            {
+                row[j] = random.nextDouble() < density;
+            }
+        }
+
+        return states;
+    }
+
+    /**
+     * @return a board with a pattern, 'O' being alive, at its center.
+     */
+    private static boolean[][] centred(String[] pattern, int size) {
+        boolean[][] states = new boolean[size][size];
+
+        int top = (size - pattern.length) / 2;
+        int left = (size - pattern[0].length()) / 2;
+        for (int i = 0; i < pattern.length; i++)
+        {
+            for (int j = 0; j < pattern[i].length(); j++)
+            {
+                states[top + i][left + j] = pattern[i].charAt(j) == 'O';
+            }
+        }
+
+        return states;
+    }
+}
@@ -1,19 +1,29 @@
 package life.controller;
 
 import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
+import life.model.BitGrid;
+import life.model.PatternReader;
+import life.model.PatternWriter;
+import life.model.Rule;
+import life.view.GridRenderer;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Controller interacts with game Player and ui components
  * to display prompts and updates throughout the game.
  */
 public class Controller {
+    private static final int MAX_SIZE = 2000; // Largest number of rows or columns.
+
     private Player gamePlayer; // Used to play a game and update game board.
 
     @FXML
@@ -23,7 +33,7 @@ public class Controller {
     private StackPane sideInfo; // Side information pane.
 
     @FXML
-    private GridPane gameGrid; // Grid on which the game is displayed.
+    private StackPane gameGrid; // Pane on which the game is displayed.
 
     @FXML
     private TextField rowField; // Used to prompt user for number of rows.
@@ -31,6 +41,9 @@ public class Controller {
     @FXML
     private TextField colField; // Used to prompt user for number of cols.
 
+    @FXML
+    private Button load; // Load pattern button.
+
     @FXML
     private Button start; // Start game button.
 
@@ -44,138 +57,181 @@ public class Controller {
      */
     @FXML
     private void promptHandler(ActionEvent actionEvent) {
-        int rows, cols;
+        int rows = this.fieldSize(this.rowField);
+        int cols = this.fieldSize(this.colField);
+
+        this.showSize(rows, cols);
+        this.initialConfig(new GridRenderer(rows, cols), null);
+    }
+
+    /**
+     * Handles loading an RLE or plaintext pattern, placed at the
+     * center of a board of at least the prompted size.
+     *
+     * @param actionEvent A user event.
+     */
+    @FXML
+    private void loadHandler(ActionEvent actionEvent) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Load pattern");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Patterns", "*.rle", "*.cells"));
+
+        File file = chooser.showOpenDialog(this.gameGrid.getScene().getWindow());
+        if (file == null)
+        {
+            return;
+        }
+
+        try {
+            PatternReader reader = PatternReader.open(file.toPath());
+            if (reader.getRows() > MAX_SIZE || reader.getCols() > MAX_SIZE)
+            {
+                throw new IllegalArgumentException("Patterns can be at most " + MAX_SIZE + "x" + MAX_SIZE + ".");
+            }
+
+            int rows = Math.max(this.fieldSize(this.rowField), reader.getRows());
+            int cols = Math.max(this.fieldSize(this.colField), reader.getCols());
+            BitGrid grid = reader.read(rows, cols);
+
+            this.showSize(rows, cols);
+            this.initialConfig(new GridRenderer(grid), reader.getRule());
+        }
+        catch (IOException | IllegalArgumentException e) {
+            new Alert(Alert.AlertType.ERROR, "Couldn't load pattern: " + e.getMessage()).showAndWait();
+        }
+    }
 
+    /**
+     * @return size entered in a field, 20 if it isn't a number.
+     */
+    private int fieldSize(TextField field) {
         // Check if user entered valid input
         try {
-            rows = Math.min(Integer.parseInt(this.rowField.getText()), 50);
-            cols = Math.min(Integer.parseInt(this.colField.getText()), 50);
+            return Math.max(Math.min(Integer.parseInt(field.getText().trim()), MAX_SIZE), 1);
         }
         catch (NumberFormatException e) {
-            // Set number of rows and columns to default value
-            rows = cols = 20;
+            // Use default size
+            return 20;
         }
+    }
 
-        // Replace Text fields with static labels
+    /**
+     * Replace text fields and load button with static labels.
+     */
+    private void showSize(int rows, int cols) {
         Label rowSize = new Label(Integer.toString(rows));
         Label colSize = new Label(Integer.toString(cols));
 
-        this.promptGrid.getChildren().remove(this.rowField);
-        this.promptGrid.getChildren().remove(this.colField);
+        this.promptGrid.getChildren().removeAll(this.rowField, this.colField, this.load);
 
         this.promptGrid.add(rowSize, 1, 0);
         this.promptGrid.add(colSize, 1, 1);
-
-        this.initialConfig(rows, cols);
     }
 
     /**
      * Prompt user for initial grid configuration.
      *
-     * @param rows number of grid rows.
-     * @param cols number of grid columns.
+     * @param renderer renderer drawing the initial states.
+     * @param patternRule rule of a loaded pattern, null if none.
      */
-    private void initialConfig(int rows, int cols) {
+    private void initialConfig(GridRenderer renderer, Rule patternRule) {
         this.sideInfo.setDisable(false);
         this.gameGrid.setDisable(false);
 
-        this.setConstraints(rows, cols);
+        // Cells are edited by clicking them until the game starts
+        renderer.setEditable(true);
 
-        Pane[][] cells = this.initialGrid(rows, cols);
+        this.gameGrid.getChildren().setAll(renderer.getNode());
 
         start.setOnAction(event -> {
-            // Remove event handlers
-            for (Pane[] row : cells)
-            {
-                for (Pane pane : row)
-                {
-                    pane.setOnMouseClicked(null);
-                }
-            }
+            // A single game is played per board
+            this.start.setDisable(true);
+            renderer.setEditable(false);
 
             gamePlayer = new Player();
-            gamePlayer.playGame(cells, this.infoBox);
+            gamePlayer.playGame(renderer, this.infoBox, patternRule);
+
+            // Save the generation on display
+            Button save = new Button("save");
+            save.setOnAction(saveEvent -> this.savePattern(renderer.getGrid(), gamePlayer.getRule()));
+            this.infoBox.getChildren().add(save);
+
+            this.createControls(gamePlayer);
         });
     }
 
-
     /**
-     * Prompt user for initial game grid.
-     * Set grid panes accordingly.
+     * Add controls for pausing, stepping and skipping generations
+     * to the side info pane.
      *
-     * @param rows number of grid rows.
-     * @param cols number of grid columns.
-     * @return a 2d array of panes representing grid cells.
+     * @param player player of the game to control.
      */
-    private Pane[][] initialGrid(int rows, int cols) {
-        // Create a 2d array of panes to fill the grid
-        final Pane[][] cells = new Pane[rows][cols];
-
-        // Insert dead panes in the grid
-        gameGrid.setId("");
-        for (int i = 0; i < rows; i++)
-        {
-            for (int j = 0; j < cols; j++)
-            {
-                cells[i][j] = new Pane();
-                cells[i][j].setId("dead-cell");
+    private void createControls(Player player) {
+        Button pause = new Button("pause");
+        pause.setOnAction(event -> pause.setText(player.togglePause() ? "resume" : "pause"));
+
+        Button step = new Button("step");
+        step.setOnAction(event -> {
+            player.stepOnce();
+            pause.setText("resume");
+        });
 
-                gameGrid.add(cells[i][j], j, i);
+        // Only draw every given number of generations
+        TextField multiplier = new TextField("1");
+        multiplier.setPrefColumnCount(3);
+        multiplier.setOnAction(event -> {
+            try {
+                player.setMultiplier(Integer.parseInt(multiplier.getText().trim()));
             }
-        }
-
-        // Handle when a pane is clicked
-        EventHandler<MouseEvent> cellClick = event -> {
-            Pane whichPane = (Pane) event.getSource();
+            catch (IllegalArgumentException e) {
+                new Alert(Alert.AlertType.ERROR, "Invalid multiplier: " + multiplier.getText()).showAndWait();
+            }
+        });
 
-            if (whichPane.getId().equals("dead-cell"))
-            {
-                whichPane.setId("live-cell");
+        // Step to a generation without drawing the ones before
+        TextField target = new TextField();
+        target.setPrefColumnCount(6);
+        target.setOnAction(event -> {
+            try {
+                player.runTo(Long.parseLong(target.getText().trim()));
+                pause.setText("resume");
             }
-            else if (whichPane.getId().equals("live-cell"))
-            {
-                whichPane.setId("dead-cell");
+            catch (NumberFormatException e) {
+                new Alert(Alert.AlertType.ERROR, "Invalid generation: " + target.getText()).showAndWait();
             }
-        };
-
-        for (Pane[] row : cells)
-        {
-            for (Pane pane : row)
-            {
-                pane.setOnMouseClicked(cellClick);
+            catch (IllegalArgumentException e) {
+                new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
             }
-        }
+        });
 
-        return cells;
+        this.infoBox.getChildren().addAll(pause, step,
+                                          new Label("Every: "), multiplier,
+                                          new Label("Run to: "), target);
     }
 
     /**
-     * Set gameGrid's constraints.
+     * Prompt user for a file and write a grid to it.
      *
-     * @param rows number of grid rows.
-     * @param cols number of grid columns.
+     * @param grid states to write.
+     * @param rule rule the states evolve by.
      */
-    private void setConstraints(int rows, int cols) {
-        double colPercentage = 100.0 / cols;
-        double rowPercentage = 100.0 / rows;
-
-        // Set column and row constraints.
-        ColumnConstraints[] colCons = new ColumnConstraints[cols];
-        RowConstraints[] rowCons    = new RowConstraints[rows];
-
-        for (int i = 0; i < cols; i++)
+    private void savePattern(BitGrid grid, Rule rule) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save pattern");
+        chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("RLE", "*.rle"),
+                                             new FileChooser.ExtensionFilter("Plaintext", "*.cells"));
+
+        File file = chooser.showSaveDialog(this.gameGrid.getScene().getWindow());
+        if (file == null)
         {
-            colCons[i] = new ColumnConstraints();
-            colCons[i].setPercentWidth(colPercentage);
+            return;
         }
 
-        for (int i = 0; i < rows; i++)
-        {
-            rowCons[i] = new RowConstraints();
-            rowCons[i].setPercentHeight(rowPercentage);
+        try {
+            PatternWriter.write(grid, rule, file.toPath());
+        }
+        catch (IOException e) {
+            new Alert(Alert.AlertType.ERROR, "Couldn't save pattern: " + e.getMessage()).showAndWait();
         }
-
-        this.gameGrid.getColumnConstraints().addAll(colCons);
-        this.gameGrid.getRowConstraints().addAll(rowCons);
     }
 }
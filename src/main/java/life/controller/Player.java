@@ -1,118 +1,234 @@
 package life.controller;
 
-import javafx.application.Platform;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.scene.control.Label;
-import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
+import life.model.Engine;
 import life.model.Game;
-import life.model.GameOfLife;
-import life.view.View;
-
-import java.util.concurrent.TimeUnit;
+import life.model.Metrics;
+import life.model.Rule;
+import life.model.Simulation;
+import life.model.Snapshot;
+import life.model.Topology;
+import life.view.GridRenderer;
 
 /**
  * Player initiates and plays a Game and updates board's
  * state through out the game.
  * Player is invoked by the controller class and doesn't
  * handle any input from the user.
+ *
+ * The game is stepped by a Simulation on its own thread, at the
+ * rate given by the life.rate system property in generations per
+ * second, 0 being as fast as possible. Each display frame draws the
+ * latest generation, skipping the ones stepped in between. The
+ * controller can also pause the game, step it a generation at a time,
+ * run it to a generation, or only show every few generations; the
+ * generations not shown are stepped without being drawn.
+ *
+ * Cells evolve by the rule given by the life.rule system property
+ * in B/S notation, otherwise by the rule of a loaded pattern, or
+ * B3/S23.
+ *
+ * Setting the life.metrics system property measures the game, shows
+ * its rate and population, and publishes the metrics through JMX as
+ * life:type=Metrics,name="player".
  */
 public class Player {
+    private static final int MAX_PERIOD = 100; // Largest period of boards to stop on.
+    private static final double DEFAULT_RATE = 2.5; // Generations per second.
+
     private Game game; // Game of Life object.
+    private Simulation simulation; // Steps the game off the FX thread.
+    private AnimationTimer timer;  // Draws the latest generation every frame.
+    private Metrics metrics; // Null unless measuring the game.
 
     /**
-     * Plays a game using the configuration (extracted from the panes)
+     * Plays a game using the configuration (extracted from the renderer)
      * chosen by the user.
      *
-     * @param cells a 2d array of panes that represent grid cells.
+     * @param renderer renderer drawing the grid.
      * @param infoBox a vertical box that holds side information.
+     * @param patternRule rule of a loaded pattern, null if none.
      */
-    void playGame(Pane[][] cells, VBox infoBox) {
-        game = new GameOfLife(this.extractStates(cells));
+    void playGame(GridRenderer renderer, VBox infoBox, Rule patternRule) {
+        Engine engine = Engine.byName(System.getProperty("life.engine", "standard"));
+        String topology = System.getProperty("life.topology");
+
+        if (topology == null)
+        {
+            game = engine.create(renderer.getGrid());
+        }
+        else
+        {
+            game = engine.create(renderer.getGrid(), Topology.valueOf(topology.trim().toUpperCase()));
+        }
+
+        String rule = System.getProperty("life.rule");
+        if (rule != null)
+        {
+            game.setRule(Rule.parse(rule));
+        }
+        else if (patternRule != null)
+        {
+            game.setRule(patternRule);
+        }
+
+        // Stop on repeating boards, if the engine can detect them
+        try {
+            game.setMaxPeriod(MAX_PERIOD);
+        }
+        catch (UnsupportedOperationException e) {
+            // Only stop on static boards
+        }
 
         // Set up iterations label
-        SimpleIntegerProperty integerProperty = this.createIterationsLabel(infoBox);
+        SimpleLongProperty iterations = this.createIterationsLabel(infoBox);
+
+        // Measure the game, if asked to
+        Label rate = null, population = null;
+        if (System.getProperty("life.metrics") != null)
+        {
+            this.metrics = Metrics.attach(game);
+            this.metrics.register("player");
 
-        // Play a game and update the board through out
-        View.scheduledExecutorService.scheduleWithFixedDelay(() -> {
-            boolean[][] nextConfig = game.nextConfig();
+            rate = this.createMetricLabel(infoBox, "Generations/s: ");
+            population = this.createMetricLabel(infoBox, "Population: ");
+        }
+
+        final Metrics metrics = this.metrics;
+        final Label rateLabel = rate, populationLabel = population;
+
+        simulation = new Simulation(game);
+        simulation.setRate(Double.parseDouble(System.getProperty("life.rate", Double.toString(DEFAULT_RATE))));
 
-            // Show configuration
-            for (int i = 0, rows = nextConfig.length; i < rows; i++)
-            {
-                for (int j = 0, cols = nextConfig[i].length; j < cols; j++)
+        // Draw the latest generation once per frame, on the FX thread
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                Snapshot snapshot = simulation.poll();
+                if (snapshot == null)
                 {
-                    if (nextConfig[i][j])
-                    {
-                        cells[i][j].setId("live-cell");
-                    }
-                    else
-                    {
-                        cells[i][j].setId("dead-cell");
-                    }
+                    return;
                 }
-            }
 
-            // Check if board is static
-            if (game.isStatic())
-            {
-                View.scheduledExecutorService.shutdown();
-            }
-            else
-            {
-                // Update iterations label
-                Platform.runLater(() -> integerProperty.set(integerProperty.getValue() + 1));
+                // A view written over while read is skipped, the next snapshots are copies.
+                if (!renderer.render(snapshot))
+                {
+                    return;
+                }
+                iterations.set(snapshot.getGeneration());
+
+                if (metrics != null)
+                {
+                    rateLabel.setText(String.format("%.1f", metrics.getGenerationsPerSecond()));
+                    populationLabel.setText(Long.toString(metrics.getPopulation()));
+                }
+
+                if (snapshot.isFinished())
+                {
+                    Player.this.stop();
+                }
             }
-        }, 0, 400, TimeUnit.MILLISECONDS);
+        };
+
+        timer.start();
+        simulation.start();
     }
 
     /**
-     * Extract boolean states from the panes that represent
-     * the game grid.
-     *
-     * @param cells a 2d array of panes that represent grid cells.
-     * @return a boolean 2d array containing cell states.
+     * Stop stepping and drawing the game, and unregister its metrics
+     * so another game can publish its own.
      */
-    private boolean[][] extractStates(Pane[][] cells) {
-        // Create a boolean array containing cell states
-        final int ROWS = cells.length;
-        final int COLS = cells[0].length;
+    void stop() {
+        this.timer.stop();
+        this.simulation.stop();
 
-        boolean[][] states = new boolean[ROWS][COLS];
-        for (int i = 0; i < ROWS; i++)
+        if (this.metrics != null)
         {
-            for (int j = 0; j < COLS; j++)
-            {
-                // Check cell's state
-                if (cells[i][j].getId().equals("live-cell"))
-                {
-                    states[i][j] = true;
-                }
-                else if (cells[i][j].getId().equals("dead-cell"))
-                {
-                    states[i][j] = false;
-                }
-            }
+            this.metrics.unregister();
         }
+    }
+
+    /**
+     * Pause the game, or resume it if paused.
+     *
+     * @return true if the game is now paused.
+     */
+    boolean togglePause() {
+        if (this.simulation.isPaused())
+        {
+            this.simulation.resume();
+            return false;
+        }
+
+        this.simulation.pause();
+        return true;
+    }
+
+    /**
+     * Step a single generation and pause.
+     */
+    void stepOnce() {
+        this.simulation.stepOnce();
+    }
+
+    /**
+     * Step to a generation as fast as possible, without drawing the
+     * ones in between, and pause.
+     *
+     * @param generation generation to stop at.
+     * @throws IllegalArgumentException if the generation was already stepped.
+     */
+    void runTo(long generation) {
+        this.simulation.runTo(generation);
+    }
 
-        return states;
+    /**
+     * @param generations generations stepped per generation drawn.
+     * @throws IllegalArgumentException if not positive.
+     */
+    void setMultiplier(int generations) {
+        this.simulation.setMultiplier(generations);
+    }
+
+    /**
+     * @return rule of the game being played.
+     */
+    Rule getRule() {
+        return this.game.getRule();
     }
 
     /**
      * Create number of iterations label in side info pane.
      *
-     * @return an integer property representing the number of iterations.
+     * @return a property representing the number of iterations.
      */
-    private SimpleIntegerProperty createIterationsLabel(VBox infoBox) {
+    private SimpleLongProperty createIterationsLabel(VBox infoBox) {
         final Label name = new Label("Iteration: ");
         final Label number = new Label();
 
-        SimpleIntegerProperty integerProperty = new SimpleIntegerProperty(0);
-        number.textProperty().bind(integerProperty.asString());
+        SimpleLongProperty property = new SimpleLongProperty(0);
+        number.textProperty().bind(property.asString());
 
         infoBox.getChildren().clear();
         infoBox.getChildren().addAll(name, number);
 
-        return integerProperty;
+        return property;
+    }
+
+    /**
+     * Create a label showing a metric in side info pane.
+     *
+     * @return the label holding the metric's value.
+     */
+    private Label createMetricLabel(VBox infoBox, String text) {
+        final Label name = new Label(text);
+        final Label value = new Label();
+
+        infoBox.getChildren().addAll(name, value);
+
+        return value;
     }
 }
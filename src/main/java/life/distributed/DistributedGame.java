@@ -0,0 +1,470 @@
+package life.distributed;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.Rule;
+import life.model.StepListener;
+import life.model.Topology;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributedGame implements Game interface by splitting a BOUNDED
+ * or TORUS board into horizontal bands of rows, each stepped by a
+ * Worker in its own process. Workers trade halo rows with their
+ * neighbours through a Transport, while this game coordinates them:
+ * every step tells all workers to step a generation and waits for all
+ * of them to finish, so no worker starts a generation before every
+ * worker finished the previous one.
+ *
+ * States are gathered from the workers when read, and kept until the
+ * next step. Cycle detection and change reporting aren't supported.
+ */
+public final class DistributedGame implements Game, AutoCloseable {
+    private static final Set<Engine> ENGINES = EnumSet.of(Engine.PACKED, Engine.PARALLEL, Engine.VECTOR); // Engines stepping a band.
+
+    private static final int ACCEPT_TIMEOUT = 60_000; // Milliseconds to wait for each worker to connect.
+
+    private final int rows;
+    private final int cols;
+    private final Topology topology;
+    private Rule rule;
+
+    private final ServerSocket server;      // Socket workers connect to.
+    private final List<Process> processes;  // Workers launched by this game, empty if started elsewhere.
+    private final List<Connection> workers = new ArrayList<>();
+
+    private long changedCells; // Number of cells changed by previous step.
+    private BitGrid states;    // States gathered since the previous step, null if not gathered.
+    private boolean[][] config; // Created on first call to nextConfig.
+
+    private StepListener stepListener; // Null unless told about steps.
+
+    /**
+     * A worker's connection and band.
+     */
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final int from; // First row of the band, inclusive.
+        final int to;   // Last row of the band, exclusive.
+
+        Connection(Socket socket, int from, int to) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private DistributedGame(BitGrid grid, Topology topology, Rule rule, Engine engine, String transport,
+                            int workers, ServerSocket server, List<Process> processes) throws IOException {
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.topology = topology;
+        this.rule = rule;
+        this.server = server;
+        this.processes = processes;
+
+        try {
+            this.connect(grid, engine, transport, workers);
+        }
+        catch (IOException | RuntimeException e) {
+            this.close();
+            throw e;
+        }
+
+        // Compare against an empty board, as GameOfLife does.
+        this.changedCells = grid.population();
+    }
+
+    /**
+     * Create a game stepped by worker processes launched on this machine.
+     *
+     * @param grid A grid containing initial states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param rule Rule cells evolve by.
+     * @param engine Engine workers step their bands with, PACKED, PARALLEL or VECTOR.
+     * @param transport Name of the transport carrying halos, see Transport.byName.
+     * @param workers Number of workers, at most one per row.
+     * @return a new game.
+     * @throws IOException if the workers can't be launched or linked.
+     */
+    public static DistributedGame launch(BitGrid grid, Topology topology, Rule rule, Engine engine,
+                                         String transport, int workers) throws IOException {
+        check(grid, topology, engine, workers);
+
+        ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress());
+        String address = server.getInetAddress().getHostAddress() + ":" + server.getLocalPort();
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < workers; i++)
+            {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                                 Worker.class.getName(), address).inheritIO().start());
+            }
+        }
+        catch (IOException e) {
+            processes.forEach(Process::destroy);
+            server.close();
+            throw e;
+        }
+
+        return new DistributedGame(grid, topology, rule, engine, transport, workers, server, processes);
+    }
+
+    /**
+     * Create a game stepped by workers started separately, on any
+     * machine, as "Worker HOST:PORT".
+     *
+     * @param grid A grid containing initial states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param rule Rule cells evolve by.
+     * @param engine Engine workers step their bands with, PACKED, PARALLEL or VECTOR.
+     * @param transport Name of the transport carrying halos, see Transport.byName.
+     * @param workers Number of workers, at most one per row.
+     * @param port Port workers connect to.
+     * @return a new game, once every worker connected.
+     * @throws IOException if the workers don't connect or can't be linked.
+     */
+    public static DistributedGame accept(BitGrid grid, Topology topology, Rule rule, Engine engine,
+                                         String transport, int workers, int port) throws IOException {
+        check(grid, topology, engine, workers);
+
+        ServerSocket server = new ServerSocket();
+        server.bind(new InetSocketAddress(port), workers);
+
+        return new DistributedGame(grid, topology, rule, engine, transport, workers, server, new ArrayList<>());
+    }
+
+    /**
+     * @return true if no cell changed during previous step.
+     */
+    @Override
+    public boolean isStatic() {
+        return this.changedCells == 0;
+    }
+
+    /**
+     * Find new game configuration and copy it to a boolean array.
+     * The array is reused between calls.
+     *
+     * @return a boolean array containing new states.
+     */
+    @Override
+    public boolean[][] nextConfig() {
+        this.step();
+
+        if (this.config == null)
+        {
+            this.config = new boolean[this.rows][this.cols];
+        }
+
+        this.gathered().copyTo(this.config);
+        return this.config;
+    }
+
+    /**
+     * Step every worker a generation, returning once all of them did.
+     */
+    @Override
+    public void step() {
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        try {
+            for (Connection worker : this.workers)
+            {
+                worker.out.writeInt(Worker.STEP);
+                worker.out.flush();
+            }
+
+            long changed = 0;
+            for (Connection worker : this.workers)
+            {
+                changed += worker.in.readLong();
+            }
+
+            this.changedCells = changed;
+            this.states = null;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("A worker failed during a step.", e);
+        }
+
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, 1);
+        }
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    @Override
+    public void setRule(Rule rule) {
+        try {
+            for (Connection worker : this.workers)
+            {
+                worker.out.writeInt(Worker.RULE);
+                worker.out.writeUTF(rule.toString());
+                worker.out.flush();
+            }
+
+            for (Connection worker : this.workers)
+            {
+                worker.in.readInt();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("A worker failed to set the rule.", e);
+        }
+
+        this.rule = rule;
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.gathered().get(row, col);
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    @Override
+    public long getPopulation() {
+        try {
+            for (Connection worker : this.workers)
+            {
+                worker.out.writeInt(Worker.POPULATION);
+                worker.out.flush();
+            }
+
+            long population = 0;
+            for (Connection worker : this.workers)
+            {
+                population += worker.in.readLong();
+            }
+
+            return population;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("A worker failed to count its cells.", e);
+        }
+    }
+
+    @Override
+    public long getChangedCells() {
+        return this.changedCells;
+    }
+
+    /**
+     * @return number of workers stepping the board.
+     */
+    public int getWorkerCount() {
+        return this.workers.size();
+    }
+
+    /**
+     * Collect the bands of every worker.
+     *
+     * @return a new grid holding the current generation.
+     */
+    public BitGrid gather() {
+        return this.gathered().copy();
+    }
+
+    /**
+     * Stop the workers and wait for launched ones to exit.
+     */
+    @Override
+    public void close() {
+        for (Connection worker : this.workers)
+        {
+            try {
+                worker.out.writeInt(Worker.STOP);
+                worker.out.flush();
+                worker.socket.close();
+            }
+            catch (IOException e) {
+                // Already gone
+            }
+        }
+
+        try {
+            this.server.close();
+        }
+        catch (IOException e) {
+            // Already closed
+        }
+
+        for (Process process : this.processes)
+        {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS))
+                {
+                    process.destroyForcibly();
+                }
+            }
+            catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return states of the current generation, gathered once per step.
+     */
+    private BitGrid gathered() {
+        if (this.states != null)
+        {
+            return this.states;
+        }
+
+        BitGrid grid = new BitGrid(this.rows, this.cols);
+        try {
+            for (Connection worker : this.workers)
+            {
+                worker.out.writeInt(Worker.GATHER);
+                worker.out.flush();
+            }
+
+            for (Connection worker : this.workers)
+            {
+                for (int r = worker.from; r < worker.to; r++)
+                {
+                    for (int i = 0; i < grid.getWordsPerRow(); i++)
+                    {
+                        grid.setWord(r, i, worker.in.readLong());
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("A worker failed to send its band.", e);
+        }
+
+        this.states = grid;
+        return grid;
+    }
+
+    /**
+     * Accept every worker, hand it a band and link it to its neighbours.
+     */
+    private void connect(BitGrid grid, Engine engine, String transport, int workers) throws IOException {
+        this.server.setSoTimeout(ACCEPT_TIMEOUT);
+
+        for (int i = 0; i < workers; i++)
+        {
+            Socket socket = this.server.accept();
+            socket.setTcpNoDelay(true);
+
+            int from = (int) ((long) i * this.rows / workers);
+            int to = (int) ((long) (i + 1) * this.rows / workers);
+            Connection worker = new Connection(socket, from, to);
+            this.workers.add(worker);
+
+            worker.out.writeUTF(transport);
+            worker.out.writeUTF(engine.name());
+            worker.out.writeInt(i);
+            worker.out.writeInt(workers);
+            worker.out.writeInt(this.cols);
+            worker.out.writeInt(to - from);
+            worker.out.writeBoolean(this.topology == Topology.TORUS);
+            worker.out.writeUTF(this.rule.toString());
+            for (int r = from; r < to; r++)
+            {
+                for (int j = 0; j < grid.getWordsPerRow(); j++)
+                {
+                    worker.out.writeLong(grid.getWord(r, j));
+                }
+            }
+            worker.out.flush();
+        }
+
+        // Each worker listens for the one above and connects to the one below.
+        List<String> addresses = new ArrayList<>();
+        for (Connection worker : this.workers)
+        {
+            addresses.add(worker.in.readUTF());
+        }
+
+        for (int i = 0; i < workers; i++)
+        {
+            Connection worker = this.workers.get(i);
+            worker.out.writeUTF(addresses.get((i + 1) % workers));
+            worker.out.flush();
+        }
+
+        for (Connection worker : this.workers)
+        {
+            if (worker.in.readInt() != Worker.READY)
+            {
+                throw new IOException("Worker failed to link to its neighbours.");
+            }
+        }
+    }
+
+    /**
+     * Reject boards that can't be split.
+     */
+    private static void check(BitGrid grid, Topology topology, Engine engine, int workers) {
+        if (topology == Topology.UNBOUNDED)
+        {
+            throw new IllegalArgumentException("DistributedGame doesn't support " + topology + " boards.");
+        }
+
+        if (!ENGINES.contains(engine))
+        {
+            throw new IllegalArgumentException(engine + " engine can't step a band, use PACKED, PARALLEL or VECTOR.");
+        }
+
+        if (workers <= 0 || workers > grid.getRows())
+        {
+            throw new IllegalArgumentException("Expected 1 to " + grid.getRows() + " workers, got " + workers + ".");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package life.distributed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FileTransport links workers on the same machine through memory
+ * mapped files, shared memory when kept in /dev/shm. Addresses are
+ * paths of the files.
+ *
+ * A file holds a slot for each direction. The sender waits until the
+ * previous row was read, writes the row and then increments the slot's
+ * written count; the receiver waits for that count to pass its read
+ * count, reads the row and increments the read count. The counts are
+ * written with volatile semantics, so rows are seen whole.
+ */
+public final class FileTransport implements Transport {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int CONNECTED = 0; // Set once the connecting worker mapped the file.
+    private static final int CLOSED = 8;    // Set once either side closed its link.
+    private static final int SLOTS = 64;    // Offset of the first slot.
+
+    private static final int WRITTEN = 0;   // Offset of a slot's count of rows written.
+    private static final int READ = 64;     // Offset of its count of rows read, on another cache line.
+    private static final int ROW = 128;     // Offset of its row.
+
+    private static final long TIMEOUT = TimeUnit.MINUTES.toNanos(5); // Longest wait for the other worker.
+    private static final int SPINS = 10_000;                          // Busy waits before parking.
+
+    private final Path directory; // Directory files are created in.
+
+    /**
+     * FileTransport constructor.
+     *
+     * @param directory directory files are created in, or null for
+     *                  /dev/shm if it exists, or the temporary directory.
+     */
+    public FileTransport(String directory) {
+        if (directory != null)
+        {
+            this.directory = Paths.get(directory);
+        }
+        else if (Files.isDirectory(Paths.get("/dev/shm")))
+        {
+            this.directory = Paths.get("/dev/shm");
+        }
+        else
+        {
+            this.directory = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+    }
+
+    @Override
+    public Listener listen(int rowWords) throws IOException {
+        final Path path = Files.createTempFile(this.directory, "life-halo-", ".link");
+        final MappedByteBuffer buffer = map(path, rowWords, true);
+
+        return new Listener() {
+            @Override
+            public String getAddress() {
+                return path.toAbsolutePath().toString();
+            }
+
+            @Override
+            public Link accept() throws IOException {
+                await(buffer, CONNECTED, 1);
+
+                // Both sides mapped the file, so it's no longer needed.
+                Files.deleteIfExists(path);
+                return new FileLink(buffer, rowWords, 0);
+            }
+
+            @Override
+            public void close() throws IOException {
+                Files.deleteIfExists(path);
+            }
+        };
+    }
+
+    @Override
+    public Link connect(String address, int rowWords) throws IOException {
+        MappedByteBuffer buffer = map(Paths.get(address), rowWords, false);
+        LONGS.setVolatile(buffer, CONNECTED, 1L);
+
+        return new FileLink(buffer, rowWords, 1);
+    }
+
+    /**
+     * Map a link's file.
+     */
+    private static MappedByteBuffer map(Path path, int rowWords, boolean create) throws IOException {
+        long size = SLOTS + 2 * slotSize(rowWords);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (!create && channel.size() != size)
+            {
+                throw new IOException("Link file " + path + " doesn't hold rows of " + rowWords + " words.");
+            }
+
+            // Mapping past the end of a new file extends it with zeros.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * @return bytes used by a slot, whole cache lines.
+     */
+    private static int slotSize(int rowWords) {
+        return ROW + ((rowWords * 8 + 63) & ~63);
+    }
+
+    /**
+     * Wait until a count reaches a value.
+     *
+     * @throws EOFException if the link was closed.
+     */
+    private static void await(MappedByteBuffer buffer, int offset, long value) throws IOException {
+        long deadline = System.nanoTime() + TIMEOUT;
+        for (int spins = 0; (long) LONGS.getVolatile(buffer, offset) < value; spins++)
+        {
+            // Rows sent before closing are still read.
+            if ((long) LONGS.getVolatile(buffer, CLOSED) != 0 && (long) LONGS.getVolatile(buffer, offset) < value)
+            {
+                throw new EOFException("Link closed by the other worker.");
+            }
+
+            if (spins < SPINS)
+            {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (System.nanoTime() > deadline)
+            {
+                throw new IOException("Timed out waiting for the other worker.");
+            }
+            if (Thread.interrupted())
+            {
+                throw new InterruptedIOException();
+            }
+            LockSupport.parkNanos(20_000);
+        }
+    }
+
+    /**
+     * One side of a link, sending through one slot and receiving
+     * through the other.
+     */
+    private static final class FileLink implements Link {
+        private final MappedByteBuffer buffer;
+
+        private final int sendSlot;         // Offset of the slot rows are sent through.
+        private final LongBuffer sendRow;
+        private final int receiveSlot;      // Offset of the slot rows are received through.
+        private final LongBuffer receiveRow;
+
+        private long sent;     // Rows sent so far.
+        private long received; // Rows received so far.
+
+        FileLink(MappedByteBuffer buffer, int rowWords, int side) {
+            this.buffer = buffer;
+
+            int size = slotSize(rowWords);
+            this.sendSlot = SLOTS + side * size;
+            this.receiveSlot = SLOTS + (1 - side) * size;
+            this.sendRow = row(buffer, this.sendSlot, rowWords);
+            this.receiveRow = row(buffer, this.receiveSlot, rowWords);
+        }
+
+        @Override
+        public void send(long[] words) throws IOException {
+            // The previous row must have been read before it's replaced.
+            await(this.buffer, this.sendSlot + READ, this.sent);
+
+            this.sendRow.clear();
+            this.sendRow.put(words);
+            LONGS.setVolatile(this.buffer, this.sendSlot + WRITTEN, ++this.sent);
+        }
+
+        @Override
+        public void receive(long[] words) throws IOException {
+            await(this.buffer, this.receiveSlot + WRITTEN, this.received + 1);
+
+            this.receiveRow.clear();
+            this.receiveRow.get(words);
+            LONGS.setVolatile(this.buffer, this.receiveSlot + READ, ++this.received);
+        }
+
+        @Override
+        public void close() {
+            LONGS.setVolatile(this.buffer, CLOSED, 1L);
+        }
+
+        /**
+         * @return words of a slot's row.
+         */
+        private static LongBuffer row(MappedByteBuffer buffer, int slot, int rowWords) {
+            return buffer.duplicate().position(slot + ROW).limit(slot + ROW + rowWords * 8)
+                         .slice().order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package life.distributed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * SocketTransport links workers through TCP connections, so they may
+ * run on different machines. Addresses are host:port.
+ */
+public final class SocketTransport implements Transport {
+    private final String host; // Host listeners bind to and advertise, null for every interface.
+
+    /**
+     * SocketTransport constructor.
+     *
+     * @param host host listeners bind to, null for the loopback address,
+     *             or "*" for every interface, advertising this machine's address.
+     */
+    public SocketTransport(String host) {
+        if (host == null)
+        {
+            this.host = InetAddress.getLoopbackAddress().getHostAddress();
+        }
+        else
+        {
+            this.host = host.equals("*") ? null : host;
+        }
+    }
+
+    @Override
+    public Listener listen(int rowWords) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(this.host == null ? new InetSocketAddress(0) : new InetSocketAddress(this.host, 0), 1);
+
+        String host = this.host == null ? InetAddress.getLocalHost().getHostAddress() : this.host;
+        final String address = host + ":" + server.socket().getLocalPort();
+        return new Listener() {
+            @Override
+            public String getAddress() {
+                return address;
+            }
+
+            @Override
+            public Link accept() throws IOException {
+                return new SocketLink(server.accept(), rowWords);
+            }
+
+            @Override
+            public void close() throws IOException {
+                server.close();
+            }
+        };
+    }
+
+    @Override
+    public Link connect(String address, int rowWords) throws IOException {
+        return new SocketLink(SocketChannel.open(parse(address)), rowWords);
+    }
+
+    /**
+     * @return socket address of a host:port address.
+     */
+    static InetSocketAddress parse(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0)
+        {
+            throw new IllegalArgumentException("Expected host:port, got " + address);
+        }
+
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * A connection carrying rows both ways, through a buffer for each
+     * direction so neither allocates per row.
+     */
+    private static final class SocketLink implements Link {
+        private final SocketChannel channel;
+
+        private final ByteBuffer out;
+        private final LongBuffer outWords;
+        private final ByteBuffer in;
+        private final LongBuffer inWords;
+
+        SocketLink(SocketChannel channel, int rowWords) throws IOException {
+            this.channel = channel;
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            this.out = ByteBuffer.allocateDirect(rowWords * 8).order(ByteOrder.LITTLE_ENDIAN);
+            this.outWords = this.out.asLongBuffer();
+            this.in = ByteBuffer.allocateDirect(rowWords * 8).order(ByteOrder.LITTLE_ENDIAN);
+            this.inWords = this.in.asLongBuffer();
+        }
+
+        @Override
+        public void send(long[] words) throws IOException {
+            this.outWords.clear();
+            this.outWords.put(words);
+
+            this.out.clear();
+            while (this.out.hasRemaining())
+            {
+                this.channel.write(this.out);
+            }
+        }
+
+        @Override
+        public void receive(long[] words) throws IOException {
+            this.in.clear();
+            while (this.in.hasRemaining())
+            {
+                if (this.channel.read(this.in) < 0)
+                {
+                    throw new EOFException("Link closed by the other worker.");
+                }
+            }
+
+            this.inWords.clear();
+            this.inWords.get(words);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
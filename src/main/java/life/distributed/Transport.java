@@ -0,0 +1,93 @@
+package life.distributed;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Transport carries halo rows between workers stepping neighbouring
+ * bands of a board, see DistributedGame. Every pair of neighbours is
+ * joined by a Link: one worker listens, the other connects to the
+ * address it was given.
+ */
+public interface Transport {
+    /**
+     * Start accepting a link.
+     *
+     * @param rowWords number of words in a row.
+     * @return a listener holding the address to connect to.
+     * @throws IOException if the listener can't be created.
+     */
+    Listener listen(int rowWords) throws IOException;
+
+    /**
+     * Connect to a listening worker.
+     *
+     * @param address address of the listener.
+     * @param rowWords number of words in a row.
+     * @return a link to the worker.
+     * @throws IOException if the listener can't be reached.
+     */
+    Link connect(String address, int rowWords) throws IOException;
+
+    /**
+     * Find a transport by name: "socket" for TCP, on the loopback
+     * address unless followed by ":host", or ":*" for every interface,
+     * or "file" for memory mapped files, in /dev/shm or the temporary
+     * directory unless followed by ":directory".
+     *
+     * @param name name of the transport.
+     * @return the transport.
+     */
+    static Transport byName(String name) {
+        int colon = name.indexOf(':');
+        String type = colon < 0 ? name : name.substring(0, colon);
+        String argument = colon < 0 ? null : name.substring(colon + 1);
+
+        switch (type.trim().toLowerCase(Locale.ROOT))
+        {
+            case "socket":
+                return new SocketTransport(argument);
+            case "file":
+                return new FileTransport(argument);
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + name);
+        }
+    }
+
+    /**
+     * Accepts a single link.
+     */
+    interface Listener extends Closeable {
+        /**
+         * @return address the other worker connects to.
+         */
+        String getAddress();
+
+        /**
+         * Wait for the other worker to connect.
+         *
+         * @return a link to the worker.
+         * @throws IOException if it doesn't connect.
+         */
+        Link accept() throws IOException;
+    }
+
+    /**
+     * Sends and receives rows of a fixed number of words, in order.
+     * Sending and receiving may happen on different threads.
+     */
+    interface Link extends Closeable {
+        /**
+         * @param words words of a row, copied before returning.
+         * @throws IOException if the row can't be sent.
+         */
+        void send(long[] words) throws IOException;
+
+        /**
+         * @param words array the next row is written to.
+         * @throws IOException if no row can be received.
+         */
+        void receive(long[] words) throws IOException;
+    }
+}
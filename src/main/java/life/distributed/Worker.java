@@ -0,0 +1,333 @@
+package life.distributed;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.PackedGame;
+import life.model.Rule;
+import life.model.Topology;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Worker steps one band of rows of a DistributedGame, in its own
+ * process. The band is held by a local game with a halo row above
+ * and below it. Every generation, the worker sends its first and last
+ * rows to the workers above and below, receives their edge rows into
+ * its halos and steps the local game. Columns wrap inside the band,
+ * so the halo rows are all it needs from other workers.
+ *
+ * Usage: Worker HOST:PORT, the address of the coordinating DistributedGame.
+ */
+public final class Worker implements AutoCloseable {
+    // Commands sent by the coordinator.
+    static final int STEP = 1;       // Step a generation, replying with the number of changed cells.
+    static final int RULE = 2;       // Set the rule, replying once set.
+    static final int POPULATION = 3; // Reply with the band's number of live cells.
+    static final int GATHER = 4;     // Reply with the band's words.
+    static final int STOP = 5;       // Close the links and exit.
+
+    static final int READY = 0; // Reply once assigned a band and linked to neighbours.
+
+    private final Socket socket; // Connection to the coordinator.
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private PackedGame game; // Band with a halo row above and below.
+    private int bandRows;    // Rows of the band, without halos.
+    private int wordsPerRow;
+    private boolean wrap;    // Whether the board is a torus.
+
+    private Transport.Link up;   // Link to the worker above, null if there's none.
+    private Transport.Link down; // Link to the worker below.
+
+    private long[] firstRow; // Rows sent to neighbours.
+    private long[] lastRow;
+    private long[] upHalo;   // Rows received from neighbours.
+    private long[] downHalo;
+
+    private final ExecutorService senders = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "halo-sender");
+        thread.setDaemon(true);
+        return thread;
+    }); // Sends both edge rows while halos are received, so a full link can't block a worker.
+
+    /**
+     * Worker constructor, connecting to the coordinator.
+     *
+     * @param address host:port of the coordinator.
+     * @throws IOException if it can't be reached.
+     */
+    public Worker(String address) throws IOException {
+        this.socket = new Socket();
+        this.socket.connect(SocketTransport.parse(address));
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: Worker HOST:PORT");
+            System.exit(2);
+        }
+
+        try (Worker worker = new Worker(args[0])) {
+            worker.run();
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println("Worker failed: " + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Receive a band, link to the neighbouring workers and run the
+     * coordinator's commands until told to stop.
+     *
+     * @throws IOException if the coordinator or a neighbour fails.
+     */
+    public void run() throws IOException {
+        this.assign();
+
+        while (true)
+        {
+            int command = this.in.readInt();
+            switch (command)
+            {
+                case STEP:
+                    this.out.writeLong(this.step());
+                    break;
+                case RULE:
+                    this.game.setRule(Rule.parse(this.in.readUTF()));
+                    this.out.writeInt(READY);
+                    break;
+                case POPULATION:
+                    this.out.writeLong(this.population());
+                    break;
+                case GATHER:
+                    for (int r = 1; r <= this.bandRows; r++)
+                    {
+                        for (int i = 0; i < this.wordsPerRow; i++)
+                        {
+                            this.out.writeLong(this.game.getGrid().getWord(r, i));
+                        }
+                    }
+                    break;
+                case STOP:
+                    return;
+                default:
+                    throw new IOException("Unknown command " + command + ".");
+            }
+
+            this.out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.senders.shutdownNow();
+
+        if (this.up != null)
+        {
+            this.up.close();
+        }
+        if (this.down != null)
+        {
+            this.down.close();
+        }
+
+        this.socket.close();
+    }
+
+    /**
+     * Read the band and link to the neighbours. The worker below is
+     * connected to, and the worker above connects to this one, so
+     * every link has a listening and a connecting side.
+     */
+    private void assign() throws IOException {
+        Transport transport = Transport.byName(this.in.readUTF());
+        Engine engine = Engine.byName(this.in.readUTF());
+        int index = this.in.readInt();
+        int workers = this.in.readInt();
+        int cols = this.in.readInt();
+        this.bandRows = this.in.readInt();
+        this.wrap = this.in.readBoolean();
+        Rule rule = Rule.parse(this.in.readUTF());
+
+        BitGrid grid = new BitGrid(this.bandRows + 2, cols);
+        this.wordsPerRow = grid.getWordsPerRow();
+        for (int r = 1; r <= this.bandRows; r++)
+        {
+            for (int i = 0; i < this.wordsPerRow; i++)
+            {
+                grid.setWord(r, i, this.in.readLong());
+            }
+        }
+
+        // On a torus the local game also wraps rows, which only changes the halos.
+        Game game = engine.create(grid, this.wrap ? Topology.TORUS : Topology.BOUNDED, rule);
+        if (!(game instanceof PackedGame) || ((PackedGame) game).getTileCount() >= 0)
+        {
+            throw new IllegalArgumentException(engine + " engine can't step a band, use PACKED, PARALLEL or VECTOR.");
+        }
+        this.game = (PackedGame) game;
+
+        this.firstRow = new long[this.wordsPerRow];
+        this.lastRow = new long[this.wordsPerRow];
+        this.upHalo = new long[this.wordsPerRow];
+        this.downHalo = new long[this.wordsPerRow];
+
+        // A single worker of a torus is its own neighbour, without links.
+        boolean linked = workers > 1;
+        boolean hasUp = linked && (this.wrap || index > 0);
+        boolean hasDown = linked && (this.wrap || index < workers - 1);
+
+        Transport.Listener listener = hasUp ? transport.listen(this.wordsPerRow) : null;
+        try {
+            this.out.writeUTF(listener == null ? "" : listener.getAddress());
+            this.out.flush();
+
+            String below = this.in.readUTF();
+            if (hasDown)
+            {
+                this.down = transport.connect(below, this.wordsPerRow);
+            }
+            if (listener != null)
+            {
+                this.up = listener.accept();
+            }
+        }
+        finally {
+            if (listener != null)
+            {
+                listener.close();
+            }
+        }
+
+        this.out.writeInt(READY);
+        this.out.flush();
+    }
+
+    /**
+     * Exchange edge rows with the neighbours and step the band.
+     *
+     * @return number of cells of the band that changed.
+     */
+    private long step() throws IOException {
+        BitGrid grid = this.game.getGrid();
+        copyRow(grid, 1, this.firstRow);
+        copyRow(grid, this.bandRows, this.lastRow);
+
+        Future<?> sentUp = this.up == null ? null : this.senders.submit(() -> {
+            this.up.send(this.firstRow);
+            return null;
+        });
+        Future<?> sentDown = this.down == null ? null : this.senders.submit(() -> {
+            this.down.send(this.lastRow);
+            return null;
+        });
+
+        if (this.up != null)
+        {
+            this.up.receive(this.upHalo);
+        }
+        else if (this.wrap && this.down == null)
+        {
+            System.arraycopy(this.lastRow, 0, this.upHalo, 0, this.wordsPerRow);
+        }
+
+        if (this.down != null)
+        {
+            this.down.receive(this.downHalo);
+        }
+        else if (this.wrap && this.up == null)
+        {
+            System.arraycopy(this.firstRow, 0, this.downHalo, 0, this.wordsPerRow);
+        }
+
+        await(sentUp);
+        await(sentDown);
+
+        // Past a bounded edge the halos stay dead, as they were received.
+        final int bottom = this.bandRows + 1;
+        for (int i = 0; i < this.wordsPerRow; i++)
+        {
+            grid.setWord(0, i, this.upHalo[i]);
+            grid.setWord(bottom, i, this.downHalo[i]);
+        }
+
+        this.game.step();
+
+        // Halos are stepped too, their changes aren't the band's.
+        grid = this.game.getGrid();
+        long haloChanges = 0;
+        for (int i = 0; i < this.wordsPerRow; i++)
+        {
+            haloChanges += Long.bitCount(grid.getWord(0, i) ^ this.upHalo[i])
+                         + Long.bitCount(grid.getWord(bottom, i) ^ this.downHalo[i]);
+        }
+
+        return this.game.getChangedCells() - haloChanges;
+    }
+
+    /**
+     * @return number of live cells of the band, from the counts the
+     * local game keeps of its rows. Halos are written between steps,
+     * so only their counts and the game's total are off.
+     */
+    private long population() {
+        long count = 0;
+        for (int r = 1; r <= this.bandRows; r++)
+        {
+            count += this.game.getRowPopulation(r);
+        }
+
+        return count;
+    }
+
+    /**
+     * Copy the words of a row.
+     */
+    private static void copyRow(BitGrid grid, int row, long[] words) {
+        for (int i = 0; i < words.length; i++)
+        {
+            words[i] = grid.getWord(row, i);
+        }
+    }
+
+    /**
+     * Wait for a row to be sent.
+     */
+    private static void await(Future<?> sent) throws IOException {
+        if (sent == null)
+        {
+            return;
+        }
+
+        try {
+            sent.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending a halo.", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package life.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BandExecutor splits a grid into horizontal bands of rows and
+ * steps them on a fork-join pool. Engines read only the current
+ * generation while writing their own band, so rows bordering a
+ * band are shared as read-only halos and the result doesn't depend
+ * on how the grid was split.
+ */
+public final class BandExecutor {
+    /**
+     * Steps the whole grid on the calling thread.
+     */
+    public static final BandExecutor SEQUENTIAL = new BandExecutor(null, Integer.MAX_VALUE);
+
+    public static final int DEFAULT_BAND_SIZE = 256; // Rows per band, unless set otherwise.
+
+    private static BandExecutor common; // Shared executor configured by system properties.
+
+    private final ForkJoinPool pool; // Pool running the bands, null if sequential.
+    private final int bandSize;      // Maximum number of rows in a band.
+
+    /**
+     * Steps a band of rows.
+     */
+    interface Band {
+        /**
+         * @param from first row, inclusive.
+         * @param to last row, exclusive.
+         * @return a count to be summed over all bands.
+         */
+        long run(int from, int to);
+    }
+
+    /**
+     * BandExecutor constructor.
+     *
+     * @param pool pool to run bands on, or null to run them on the calling thread.
+     * @param bandSize maximum number of rows in a band.
+     */
+    public BandExecutor(ForkJoinPool pool, int bandSize) {
+        if (bandSize <= 0)
+        {
+            throw new IllegalArgumentException("Band size must be positive: " + bandSize);
+        }
+
+        this.pool = pool;
+        this.bandSize = bandSize;
+    }
+
+    /**
+     * Create an executor with its own pool.
+     *
+     * @param parallelism number of threads.
+     * @param bandSize maximum number of rows in a band.
+     * @return a new executor.
+     */
+    public static BandExecutor parallel(int parallelism, int bandSize) {
+        return new BandExecutor(new ForkJoinPool(parallelism), bandSize);
+    }
+
+    /**
+     * Get the shared executor. Its parallelism and band size are read
+     * from the life.parallelism and life.bandSize system properties,
+     * defaulting to the common fork-join pool and DEFAULT_BAND_SIZE.
+     *
+     * @return the shared executor.
+     */
+    public static synchronized BandExecutor common() {
+        if (common == null)
+        {
+            int bandSize = Integer.getInteger("life.bandSize", DEFAULT_BAND_SIZE);
+            Integer parallelism = Integer.getInteger("life.parallelism");
+
+            common = new BandExecutor(parallelism == null ? ForkJoinPool.commonPool()
+                                                          : new ForkJoinPool(parallelism), bandSize);
+        }
+
+        return common;
+    }
+
+    public int getBandSize() {
+        return this.bandSize;
+    }
+
+    /**
+     * @return number of threads bands run on.
+     */
+    public int getParallelism() {
+        return this.pool == null ? 1 : this.pool.getParallelism();
+    }
+
+    /**
+     * Run a band over every row, returning once all bands are done.
+     *
+     * @param rows number of rows.
+     * @param band band to run.
+     * @return sum of the counts returned by each band.
+     */
+    long run(int rows, Band band) {
+        if (this.pool == null || rows <= this.bandSize)
+        {
+            return band.run(0, rows);
+        }
+
+        int bands = (rows + this.bandSize - 1) / this.bandSize;
+        return this.pool.invoke(new BandTask(band, rows, 0, bands));
+    }
+
+    /**
+     * Stop the pool's threads, unless it's the common pool.
+     */
+    public void shutdown() {
+        if (this.pool != null && this.pool != ForkJoinPool.commonPool())
+        {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits a range of bands in halves until a single band is left.
+     */
+    private final class BandTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Band band;
+        private final int rows;
+
+        private final int first; // First band, inclusive.
+        private final int last;  // Last band, exclusive.
+
+        BandTask(Band band, int rows, int first, int last) {
+            this.band = band;
+            this.rows = rows;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.last - this.first == 1)
+            {
+                int from = this.first * bandSize;
+                return this.band.run(from, Math.min(from + bandSize, this.rows));
+            }
+
+            int middle = (this.first + this.last) >>> 1;
+            BandTask right = new BandTask(this.band, this.rows, middle, this.last);
+            right.fork();
+
+            long left = new BandTask(this.band, this.rows, this.first, middle).compute();
+            return left + right.join();
+        }
+    }
+}
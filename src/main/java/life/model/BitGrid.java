@@ -0,0 +1,183 @@
+package life.model;
+
+/**
+ * BitGrid stores cell states as packed bits, 64 cells per
+ * long word. Every row starts on a new word, and bits past
+ * the last column of a row are always zero.
+ */
+public final class BitGrid implements GridView {
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+
+    private final long[] words; // Row-major words, wordsPerRow words per row.
+
+    /**
+     * BitGrid constructor, all cells are initially dead.
+     *
+     * @param rows number of rows.
+     * @param cols number of columns.
+     */
+    public BitGrid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0)
+        {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        this.words = new long[Math.multiplyExact(rows, this.wordsPerRow)];
+    }
+
+    /**
+     * Create a BitGrid holding the given states.
+     *
+     * @param states a boolean array containing cell states.
+     * @return a new BitGrid.
+     */
+    public static BitGrid of(boolean[][] states) {
+        BitGrid grid = new BitGrid(states.length, states[0].length);
+        for (int i = 0; i < grid.rows; i++)
+        {
+            for (int j = 0; j < grid.cols; j++)
+            {
+                if (states[i][j])
+                {
+                    grid.set(i, j, true);
+                }
+            }
+        }
+
+        return grid;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * @return number of words used to store a single row.
+     */
+    @Override
+    public int getWordsPerRow() {
+        return this.wordsPerRow;
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @return true if the cell is alive.
+     */
+    public boolean get(int row, int col) {
+        return (this.words[row * this.wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Same as get, as a GridView.
+     */
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.get(row, col);
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @param alive new state of the cell.
+     */
+    public void set(int row, int col, boolean alive) {
+        int index = row * this.wordsPerRow + (col >>> 6);
+        if (alive)
+        {
+            this.words[index] |= 1L << col;
+        }
+        else
+        {
+            this.words[index] &= ~(1L << col);
+        }
+    }
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @return a word holding 64 cells, column word * 64 + k at bit k.
+     */
+    @Override
+    public long getWord(int row, int word) {
+        return this.words[row * this.wordsPerRow + word];
+    }
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @param value new value, bits past the last column are dropped.
+     */
+    public void setWord(int row, int word, long value) {
+        if (word == this.wordsPerRow - 1)
+        {
+            value &= this.lastWordMask();
+        }
+
+        this.words[row * this.wordsPerRow + word] = value;
+    }
+
+    /**
+     * @return a mask of the valid bits in the last word of a row.
+     */
+    public long lastWordMask() {
+        return -1L >>> (-this.cols & 63);
+    }
+
+    /**
+     * @return number of live cells.
+     */
+    public long population() {
+        long count = 0;
+        for (long word : this.words)
+        {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return a new grid holding the same states.
+     */
+    public BitGrid copy() {
+        BitGrid copy = new BitGrid(this.rows, this.cols);
+        System.arraycopy(this.words, 0, copy.words, 0, this.words.length);
+
+        return copy;
+    }
+
+    /**
+     * Write cell states to the given array.
+     *
+     * @param states an array of at least rows x cols.
+     */
+    public void copyTo(boolean[][] states) {
+        for (int i = 0; i < this.rows; i++)
+        {
+            boolean[] row = states[i];
+            for (int j = 0; j < this.cols; j++)
+            {
+                row[j] = this.get(i, j);
+            }
+        }
+    }
+
+    /**
+     * @return backing array, shared with engines stepping this grid.
+     */
+    long[] words() {
+        return this.words;
+    }
+}
@@ -0,0 +1,103 @@
+package life.model;
+
+/**
+ * Bounds is a rectangle of cells, given by its first and last rows
+ * and columns, inclusive. Game.getBounds returns the smallest one
+ * holding every live cell.
+ */
+public final class Bounds {
+    private final int top;
+    private final int left;
+    private final int bottom;
+    private final int right;
+
+    /**
+     * Bounds constructor.
+     *
+     * @param top first row.
+     * @param left first column.
+     * @param bottom last row.
+     * @param right last column.
+     */
+    public Bounds(int top, int left, int bottom, int right) {
+        if (top > bottom || left > right)
+        {
+            throw new IllegalArgumentException("Empty bounds: rows " + top + ".." + bottom + ", columns " + left + ".." + right);
+        }
+
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+    }
+
+    /**
+     * @return first row.
+     */
+    public int getTop() {
+        return this.top;
+    }
+
+    /**
+     * @return first column.
+     */
+    public int getLeft() {
+        return this.left;
+    }
+
+    /**
+     * @return last row.
+     */
+    public int getBottom() {
+        return this.bottom;
+    }
+
+    /**
+     * @return last column.
+     */
+    public int getRight() {
+        return this.right;
+    }
+
+    /**
+     * @return number of rows covered.
+     */
+    public long getRows() {
+        return (long) this.bottom - this.top + 1;
+    }
+
+    /**
+     * @return number of columns covered.
+     */
+    public long getCols() {
+        return (long) this.right - this.left + 1;
+    }
+
+    /**
+     * @return true if the cell lies inside the bounds.
+     */
+    public boolean contains(int row, int col) {
+        return row >= this.top && row <= this.bottom && col >= this.left && col <= this.right;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Bounds))
+        {
+            return false;
+        }
+
+        Bounds b = (Bounds) o;
+        return this.top == b.top && this.left == b.left && this.bottom == b.bottom && this.right == b.right;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((this.top * 31 + this.left) * 31 + this.bottom) * 31 + this.right;
+    }
+
+    @Override
+    public String toString() {
+        return "rows " + this.top + ".." + this.bottom + ", columns " + this.left + ".." + this.right;
+    }
+}
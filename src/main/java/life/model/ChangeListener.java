@@ -0,0 +1,23 @@
+package life.model;
+
+/**
+ * ChangeListener receives the cells changed by each step of a
+ * game, see Game.setChangeListener. Changes are reported on the
+ * thread stepping the game, after the step.
+ */
+public interface ChangeListener {
+    /**
+     * Called for every word of a row holding changed cells, in
+     * row-major order.
+     *
+     * @param row row of the cells.
+     * @param word index of the word in the row, bit j being column 64 * word + j.
+     * @param flipped bits of the cells that changed.
+     */
+    void cellsChanged(int row, int word, long flipped);
+
+    /**
+     * Called once every change of a step was reported.
+     */
+    void generationEnded();
+}
@@ -0,0 +1,336 @@
+package life.model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Checkpoint saves and restores a board in a compact binary
+ * format, so long runs can be resumed. Files are written and read
+ * through memory mapped windows of at most 1 GB, words going
+ * straight between the mapping and the game's grid. Loading only
+ * reads the header, the board is read once restored into a game.
+ *
+ * A file is a 64 byte header followed by the bit-packed rows,
+ * every row starting on a new word, as in BitGrid:
+ *
+ *   offset  0  magic "LIFE"
+ *           4  format version
+ *           8  rows
+ *          12  columns
+ *          16  generation
+ *          24  topology, 0 for BOUNDED and 1 for TORUS
+ *          32  rule in B/S notation, ASCII padded with zeros
+ *          64  words, little-endian
+ */
+public final class Checkpoint {
+    private static final int MAGIC = 0x4546494C; // "LIFE" read as a little-endian int.
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RULE_OFFSET = 32;
+
+    private static final long WINDOW_SIZE = 1L << 30; // Largest mapping, in bytes.
+
+    private final Path path;
+    private final int rows;
+    private final int cols;
+    private final long generation;
+    private final Topology topology;
+    private final Rule rule;
+
+    private Checkpoint(Path path, int rows, int cols, long generation, Topology topology, Rule rule) {
+        this.path = path;
+        this.rows = rows;
+        this.cols = cols;
+        this.generation = generation;
+        this.topology = topology;
+        this.rule = rule;
+    }
+
+    /**
+     * Write the current generation of a game to a file. The board is
+     * written to a temporary file next to it, which then replaces the
+     * file at once, so a save that fails or is killed midway leaves
+     * the previous checkpoint intact.
+     *
+     * @param game game to save.
+     * @param generation number of the current generation.
+     * @param path path of the file, replaced if it exists.
+     * @throws IOException if the file can't be written.
+     * @throws UnsupportedOperationException if the board is unbounded.
+     */
+    public static void save(Game game, long generation, Path path) throws IOException {
+        if (game.getTopology() == Topology.UNBOUNDED)
+        {
+            throw new UnsupportedOperationException("Checkpoints only hold bounded boards, not " + game.getTopology() + ".");
+        }
+
+        Path absolute = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            write(game, generation, temporary);
+            Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write a checkpoint file, forcing it to storage.
+     */
+    private static void write(Game game, long generation, Path path) throws IOException {
+        final int rows = game.getRows();
+        final int cols = game.getCols();
+        final int wordsPerRow = (cols + 63) >>> 6;
+
+        // Packed grids are copied as they are, off-heap grids a word at a time, other games a cell at a time.
+        final long[] words = game instanceof PackedGame ? ((PackedGame) game).getGrid().words() : null;
+        final OffHeapGrid offHeap = game instanceof OffHeapGame ? ((OffHeapGame) game).getGrid() : null;
+        final long total = (long) rows * wordsPerRow;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putLong(generation);
+            header.put((byte) game.getTopology().ordinal());
+            header.position(RULE_OFFSET);
+            header.put(game.getRule().toString().getBytes(StandardCharsets.US_ASCII));
+            header.force();
+
+            for (long start = 0; start < total; start += WINDOW_SIZE / 8)
+            {
+                int count = (int) Math.min(total - start, WINDOW_SIZE / 8);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + start * 8, (long) count * 8);
+                LongBuffer buffer = window.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+                if (words != null)
+                {
+                    buffer.put(words, (int) start, count);
+                }
+                else if (offHeap != null)
+                {
+                    for (long w = start; w < start + count; w++)
+                    {
+                        buffer.put(offHeap.getWord((int) (w / wordsPerRow), (int) (w % wordsPerRow)));
+                    }
+                }
+                else
+                {
+                    for (long w = start; w < start + count; w++)
+                    {
+                        buffer.put(word(game, (int) (w / wordsPerRow), (int) (w % wordsPerRow)));
+                    }
+                }
+
+                window.force();
+            }
+        }
+    }
+
+    /**
+     * Read the header of a checkpoint file, and check the file holds
+     * the whole board. The board itself is read by restore or getGrid.
+     *
+     * @param path path of the file.
+     * @return the saved board.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file isn't a valid checkpoint.
+     */
+    public static Checkpoint load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+            {
+                throw new IllegalArgumentException("Not a checkpoint: " + path);
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC)
+            {
+                throw new IllegalArgumentException("Not a checkpoint: " + path);
+            }
+
+            int version = header.getInt();
+            if (version != VERSION)
+            {
+                throw new IllegalArgumentException("Unsupported checkpoint version " + version + ": " + path);
+            }
+
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long generation = header.getLong();
+            if (rows <= 0 || cols <= 0)
+            {
+                throw new IllegalArgumentException("Invalid size " + rows + "x" + cols + " in checkpoint: " + path);
+            }
+
+            int topology = header.get();
+            if (topology != Topology.BOUNDED.ordinal() && topology != Topology.TORUS.ordinal())
+            {
+                throw new IllegalArgumentException("Invalid topology " + topology + " in checkpoint: " + path);
+            }
+
+            byte[] notation = new byte[HEADER_SIZE - RULE_OFFSET];
+            header.position(RULE_OFFSET);
+            header.get(notation);
+            Rule rule = Rule.parse(new String(notation, StandardCharsets.US_ASCII).trim());
+
+            Checkpoint checkpoint = new Checkpoint(path, rows, cols, generation, Topology.values()[topology], rule);
+            checkpoint.checkSize(channel);
+
+            return checkpoint;
+        }
+    }
+
+    /**
+     * Create a game continuing from the checkpoint, reading the board
+     * from the file straight into the grid the game steps. OFFHEAP
+     * games are read into direct memory, without copying the board
+     * through the heap.
+     *
+     * @param engine engine of the game, which must support the saved topology.
+     * @return a new game.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file changed since it was loaded, or is corrupt.
+     */
+    public Game restore(Engine engine) throws IOException {
+        if (engine == Engine.OFFHEAP)
+        {
+            Game game = new OffHeapGame(this.getOffHeapGrid(), this.topology, BandExecutor.SEQUENTIAL);
+            game.setRule(this.rule);
+
+            return game;
+        }
+
+        return engine.create(this.getGrid(), this.topology, this.rule);
+    }
+
+    /**
+     * Read the saved states from the file.
+     *
+     * @return a new grid holding the saved states.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file changed since it was loaded, or is corrupt.
+     */
+    public BitGrid getGrid() throws IOException {
+        BitGrid grid = new BitGrid(this.rows, this.cols);
+        long[] words = grid.words();
+
+        this.read((buffer, start) -> buffer.get(words, (int) start, buffer.remaining()));
+        this.checkRows(grid);
+
+        return grid;
+    }
+
+    /**
+     * Read the saved states from the file into direct memory, each
+     * mapped window being copied straight into the grid's chunks.
+     *
+     * @return a new grid holding the saved states, to be closed by the caller.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file changed since it was loaded, or is corrupt.
+     */
+    public OffHeapGrid getOffHeapGrid() throws IOException {
+        OffHeapGrid grid = new OffHeapGrid(this.rows, this.cols);
+        try {
+            this.read((buffer, start) -> grid.putWords(start, buffer));
+            this.checkRows(grid);
+        }
+        catch (IOException | RuntimeException e) {
+            grid.close();
+            throw e;
+        }
+
+        return grid;
+    }
+
+    /**
+     * @return number of the saved generation.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Hand every word of the board to a consumer, a mapped window at a
+     * time, along with the index of the window's first word.
+     */
+    private void read(ObjLongConsumer<LongBuffer> consumer) throws IOException {
+        final long total = (long) this.rows * ((this.cols + 63) >>> 6);
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            this.checkSize(channel);
+
+            for (long start = 0; start < total; start += WINDOW_SIZE / 8)
+            {
+                int count = (int) Math.min(total - start, WINDOW_SIZE / 8);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + start * 8, (long) count * 8);
+                consumer.accept(window.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer(), start);
+            }
+        }
+    }
+
+    /**
+     * Check a file is the size of the board.
+     */
+    private void checkSize(FileChannel channel) throws IOException {
+        long words = (long) this.rows * ((this.cols + 63) >>> 6);
+        if (channel.size() != HEADER_SIZE + words * 8)
+        {
+            throw new IllegalArgumentException("Checkpoint of " + this.rows + "x" + this.cols
+                    + " has the wrong size: " + this.path);
+        }
+    }
+
+    /**
+     * Check that no bit past the last column is set, as read in a grid.
+     */
+    private void checkRows(GridView grid) {
+        final int last = grid.getWordsPerRow() - 1;
+        final long mask = -1L >>> (-this.cols & 63);
+
+        for (int r = 0; r < this.rows; r++)
+        {
+            if ((grid.getWord(r, last) & ~mask) != 0)
+            {
+                throw new IllegalArgumentException("Corrupt row " + r + " in checkpoint: " + this.path);
+            }
+        }
+    }
+
+    /**
+     * @return a word of a game's current generation, bit j being column 64 * word + j.
+     */
+    private static long word(Game game, int row, int word) {
+        long value = 0;
+        for (int j = word << 6, end = Math.min(j + 64, game.getCols()); j < end; j++)
+        {
+            if (game.isAlive(row, j))
+            {
+                value |= 1L << j;
+            }
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,145 @@
+package life.model;
+
+/**
+ * CycleDetector finds boards that repeat with a period of up to
+ * a given bound. Engines keep a 64-bit hash of the board, the XOR
+ * of a mix of every non-empty word or cell, updated only where cells
+ * changed. A generation hashing the same as one k generations ago
+ * is a candidate period, which is only reported once the board is
+ * seen to repeat exactly k generations later.
+ */
+final class CycleDetector {
+    /**
+     * Access to the states of the board being watched.
+     */
+    interface Board {
+        /**
+         * @return a copy of the current states.
+         */
+        Object snapshot();
+
+        /**
+         * @param snapshot a copy returned by snapshot.
+         * @return true if the current states equal the copy.
+         */
+        boolean matches(Object snapshot);
+    }
+
+    private final Board board;
+    private final int maxPeriod;
+
+    private final long[] history; // Hashes of the last maxPeriod + 1 generations.
+    private long hash;            // Hash of the current generation.
+    private long generation;
+
+    private int candidate;      // Period being verified, 0 if none.
+    private long verifyAt;      // Generation the candidate is verified at.
+    private Object snapshot;    // States the board should repeat.
+
+    private int period; // Verified period, 0 if none.
+
+    /**
+     * CycleDetector constructor.
+     *
+     * @param board board being watched.
+     * @param maxPeriod largest period to detect.
+     * @param hash hash of the current states.
+     */
+    CycleDetector(Board board, int maxPeriod, long hash) {
+        if (maxPeriod <= 0)
+        {
+            throw new IllegalArgumentException("Maximum period must be positive: " + maxPeriod);
+        }
+
+        this.board = board;
+        this.maxPeriod = maxPeriod;
+        this.history = new long[maxPeriod + 1];
+        this.hash = hash;
+        this.history[0] = hash;
+    }
+
+    /**
+     * Record a step.
+     *
+     * @param delta XOR of the mixes of every word or cell before and after the step.
+     */
+    void step(long delta) {
+        this.hash ^= delta;
+        this.generation++;
+        this.history[(int) (this.generation % this.history.length)] = this.hash;
+
+        // Once a board repeats, it repeats forever.
+        if (this.period != 0)
+        {
+            return;
+        }
+
+        if (this.candidate != 0)
+        {
+            if (this.generation < this.verifyAt)
+            {
+                return;
+            }
+
+            if (this.board.matches(this.snapshot))
+            {
+                this.period = this.candidate;
+                this.snapshot = null;
+                return;
+            }
+
+            // The hashes collided.
+            this.candidate = 0;
+            this.snapshot = null;
+        }
+
+        for (int k = 1, last = (int) Math.min(this.maxPeriod, this.generation); k <= last; k++)
+        {
+            if (this.history[(int) ((this.generation - k) % this.history.length)] == this.hash)
+            {
+                this.candidate = k;
+                this.verifyAt = this.generation + k;
+                this.snapshot = this.board.snapshot();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return largest period detected.
+     */
+    int getMaxPeriod() {
+        return this.maxPeriod;
+    }
+
+    /**
+     * @return verified period, 0 if the board isn't known to repeat.
+     */
+    int getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * Mix a word or a cell into a hash contribution. Empty words
+     * contribute nothing, so only live areas need to be hashed.
+     *
+     * @param index position of the word or cell.
+     * @param word states of the word, 1 for a live cell.
+     * @return the contribution of the word to the hash.
+     */
+    static long mix(long index, long word) {
+        if (word == 0)
+        {
+            return 0;
+        }
+
+        long h = word * 0x9E3779B97F4A7C15L ^ (index + 1) * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+}
@@ -0,0 +1,255 @@
+package life.model;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Engine lists the available Game implementations, so
+ * one can be selected in place of another.
+ */
+public enum Engine {
+    /**
+     * One Square object per cell, see GameOfLife.
+     */
+    STANDARD(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new GameOfLife(grid, topology, BandExecutor.SEQUENTIAL);
+        }
+    },
+
+    /**
+     * Bit-packed rows stepped 64 cells at a time, see PackedGame.
+     */
+    PACKED(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new PackedGame(grid, topology, BandExecutor.SEQUENTIAL, false);
+        }
+    },
+
+    /**
+     * PACKED stepped in bands of rows on the shared BandExecutor.
+     */
+    PARALLEL(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new PackedGame(grid, topology, BandExecutor.common(), false);
+        }
+    },
+
+    /**
+     * PACKED recomputing only tiles near cells that changed.
+     */
+    SPARSE(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new PackedGame(grid, topology, BandExecutor.SEQUENTIAL, true);
+        }
+    },
+
+    /**
+     * PACKED stepped a SIMD register of words at a time, see
+     * VectorGame. Falls back to PACKED when the Vector API isn't
+     * available, see isVectorized.
+     */
+    VECTOR(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            if (VectorSupport.CONSTRUCTOR == null)
+            {
+                return PACKED.construct(grid, topology);
+            }
+
+            try {
+                return (Game) VectorSupport.CONSTRUCTOR.newInstance(grid, topology);
+            }
+            catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException)
+                {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    },
+
+    /**
+     * PACKED stepped a 2x2 block at a time through a table of every
+     * 4x4 neighbourhood, see TableGame.
+     */
+    TABLE(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new TableGame(grid, topology, BandExecutor.SEQUENTIAL);
+        }
+    },
+
+    /**
+     * PACKED with both grids stored outside the heap, see OffHeapGame.
+     */
+    OFFHEAP(Topology.BOUNDED, Topology.TORUS) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new OffHeapGame(OffHeapGrid.of(grid), topology, BandExecutor.SEQUENTIAL);
+        }
+    },
+
+    /**
+     * Map of packed chunks holding live cells, see UnboundedGame.
+     */
+    CHUNKED(Topology.UNBOUNDED) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new UnboundedGame(grid);
+        }
+    },
+
+    /**
+     * Memoized quadtree, see HashLife.
+     */
+    HASHLIFE(Topology.UNBOUNDED) {
+        @Override
+        Game construct(BitGrid grid, Topology topology) {
+            return new HashLife(grid, HashLife.DEFAULT_MAX_NODES);
+        }
+    };
+
+    private final List<Topology> topologies; // Supported topologies, the first being the default.
+
+    Engine(Topology... topologies) {
+        this.topologies = Arrays.asList(topologies);
+    }
+
+    /**
+     * Create a game using this engine and its default topology.
+     *
+     * @param states An array containing initial square states.
+     * @return a new game.
+     */
+    public Game create(boolean[][] states) {
+        return this.create(BitGrid.of(states));
+    }
+
+    /**
+     * Create a game using this engine and its default topology.
+     *
+     * @param grid A grid containing initial square states, owned by the game afterwards.
+     * @return a new game.
+     */
+    public Game create(BitGrid grid) {
+        return this.construct(grid, this.topologies.get(0));
+    }
+
+    /**
+     * Create a game using this engine.
+     *
+     * @param states An array containing initial square states.
+     * @param topology Topology of the board.
+     * @return a new game.
+     */
+    public Game create(boolean[][] states, Topology topology) {
+        return this.create(BitGrid.of(states), topology);
+    }
+
+    /**
+     * Create a game using this engine.
+     *
+     * @param grid A grid containing initial square states, owned by the game afterwards.
+     * @param topology Topology of the board.
+     * @return a new game.
+     */
+    public Game create(BitGrid grid, Topology topology) {
+        if (!this.supports(topology))
+        {
+            throw new IllegalArgumentException(this + " engine doesn't support " + topology + " boards.");
+        }
+
+        return this.construct(grid, topology);
+    }
+
+    /**
+     * Create a game using this engine and a rule other than B3/S23.
+     *
+     * @param states An array containing initial square states.
+     * @param topology Topology of the board.
+     * @param rule Rule cells evolve by.
+     * @return a new game.
+     */
+    public Game create(boolean[][] states, Topology topology, Rule rule) {
+        return this.create(BitGrid.of(states), topology, rule);
+    }
+
+    /**
+     * Create a game using this engine and a rule other than B3/S23.
+     *
+     * @param grid A grid containing initial square states, owned by the game afterwards.
+     * @param topology Topology of the board.
+     * @param rule Rule cells evolve by.
+     * @return a new game.
+     */
+    public Game create(BitGrid grid, Topology topology, Rule rule) {
+        Game game = this.create(grid, topology);
+        game.setRule(rule);
+
+        return game;
+    }
+
+    /**
+     * @return true if the engine supports the given topology.
+     */
+    public boolean supports(Topology topology) {
+        return this.topologies.contains(topology);
+    }
+
+    /**
+     * @return true if VECTOR games use the Vector API, false if they
+     * fall back to PACKED.
+     */
+    public static boolean isVectorized() {
+        return VectorSupport.CONSTRUCTOR != null;
+    }
+
+    /**
+     * Find an engine by name, ignoring case.
+     *
+     * @param name name of the engine.
+     * @return the engine with the given name.
+     */
+    public static Engine byName(String name) {
+        return Engine.valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Create a game of a supported topology.
+     */
+    abstract Game construct(BitGrid grid, Topology topology);
+
+    /**
+     * Loads VectorGame on first use. It's compiled separately, against
+     * a newer JDK, and needs the jdk.incubator.vector module, so it's
+     * missing or fails to link on most runtimes.
+     */
+    private static final class VectorSupport {
+        static final Constructor<?> CONSTRUCTOR = find(); // Null if the Vector API isn't available.
+
+        private static Constructor<?> find() {
+            try {
+                Constructor<?> constructor = Class.forName("life.model.VectorGame")
+                                                  .getConstructor(BitGrid.class, Topology.class);
+
+                // Linking the Vector API fails on the first game, rather than the next.
+                constructor.newInstance(new BitGrid(1, 1), Topology.BOUNDED);
+                return constructor;
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
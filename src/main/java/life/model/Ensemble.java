@@ -0,0 +1,440 @@
+package life.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ensemble runs many independent random boards, each until it's
+ * static, proven to repeat or reaches a generation cap, and streams
+ * the result of every run to a Sink.
+ *
+ * Runs are shared between as many tasks as the pool has threads, each
+ * taking the next run when done with its last, so the pool stays busy
+ * without a task per run. A task keeps its game between runs: packed
+ * engines are refilled in place and restarted, other engines are
+ * created again for every run.
+ *
+ * Run i starts from the board Runner's --random option creates for the
+ * seed firstSeed + i, so any run can be reproduced on its own.
+ */
+public final class Ensemble {
+    private final int rows;
+    private final int cols;
+
+    private Engine engine = Engine.PACKED;
+    private Topology topology = Topology.BOUNDED;
+    private Rule rule = Rule.CONWAY;
+    private double density = 0.5;
+    private long maxGenerations = 1000;
+    private int maxPeriod;
+    private int parallelism = Integer.getInteger("life.parallelism", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The outcome of a single run.
+     */
+    public static final class Result {
+        private final int run;
+        private final long seed;
+        private final long generations;
+        private final int period;
+        private final long population;
+
+        Result(int run, long seed, long generations, int period, long population) {
+            this.run = run;
+            this.seed = seed;
+            this.generations = generations;
+            this.period = period;
+            this.population = population;
+        }
+
+        /**
+         * @return index of the run, from 0.
+         */
+        public int getRun() {
+            return this.run;
+        }
+
+        /**
+         * @return seed the board was filled with.
+         */
+        public long getSeed() {
+            return this.seed;
+        }
+
+        /**
+         * @return number of generations stepped.
+         */
+        public long getGenerations() {
+            return this.generations;
+        }
+
+        /**
+         * @return period the board settled into, 1 if static, or 0
+         * if it reached the cap without settling.
+         */
+        public int getPeriod() {
+            return this.period;
+        }
+
+        /**
+         * @return generation the board settled at, or the number of
+         * generations stepped if it didn't.
+         */
+        public long getLifespan() {
+            return this.generations - this.period;
+        }
+
+        /**
+         * @return number of live cells of the last generation.
+         */
+        public long getPopulation() {
+            return this.population;
+        }
+    }
+
+    /**
+     * Receives the result of every run, in the order runs finish.
+     * Calls are never concurrent.
+     */
+    public interface Sink {
+        /**
+         * @param result result of a run.
+         * @throws IOException if the result can't be written, stopping the ensemble.
+         */
+        void accept(Result result) throws IOException;
+
+        /**
+         * Write results as CSV, with a header line.
+         *
+         * @param writer writer to append to, left open.
+         * @return a new sink.
+         */
+        static Sink csv(Writer writer) {
+            return new Sink() {
+                private boolean header = true;
+
+                @Override
+                public void accept(Result result) throws IOException {
+                    if (this.header)
+                    {
+                        writer.write("run,seed,generations,lifespan,period,population\n");
+                        this.header = false;
+                    }
+
+                    writer.write(result.getRun() + "," + result.getSeed() + "," + result.getGenerations() + ","
+                            + result.getLifespan() + "," + result.getPeriod() + "," + result.getPopulation() + "\n");
+                }
+            };
+        }
+
+        /**
+         * Write results as JSON lines, an object per line.
+         *
+         * @param writer writer to append to, left open.
+         * @return a new sink.
+         */
+        static Sink jsonLines(Writer writer) {
+            return result -> writer.write("{\"run\":" + result.getRun() + ",\"seed\":" + result.getSeed()
+                    + ",\"generations\":" + result.getGenerations() + ",\"lifespan\":" + result.getLifespan()
+                    + ",\"period\":" + result.getPeriod() + ",\"population\":" + result.getPopulation() + "}\n");
+        }
+    }
+
+    /**
+     * Ensemble constructor.
+     *
+     * @param rows number of rows of every board.
+     * @param cols number of columns of every board.
+     */
+    public Ensemble(int rows, int cols) {
+        if (rows <= 0 || cols <= 0)
+        {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * @param engine engine stepping the boards, PACKED by default.
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * @param topology topology of the boards, BOUNDED by default.
+     */
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * @param rule rule cells evolve by, B3/S23 by default.
+     */
+    public void setRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * @param density fraction of cells initially alive, 0.5 by default.
+     */
+    public void setDensity(double density) {
+        if (density < 0 || density > 1)
+        {
+            throw new IllegalArgumentException("Density must be between 0 and 1: " + density);
+        }
+
+        this.density = density;
+    }
+
+    /**
+     * @param maxGenerations generations a run stops at if it doesn't settle, 1000 by default.
+     */
+    public void setMaxGenerations(long maxGenerations) {
+        if (maxGenerations < 0)
+        {
+            throw new IllegalArgumentException("Negative number of generations: " + maxGenerations);
+        }
+
+        this.maxGenerations = maxGenerations;
+    }
+
+    /**
+     * @param maxPeriod largest period a run is stopped at once its board
+     *                  repeats, or 0 to only stop static boards, the default.
+     */
+    public void setMaxPeriod(int maxPeriod) {
+        if (maxPeriod < 0)
+        {
+            throw new IllegalArgumentException("Negative period: " + maxPeriod);
+        }
+
+        this.maxPeriod = maxPeriod;
+    }
+
+    /**
+     * @param parallelism number of runs stepped at once, life.parallelism
+     *                    or the number of processors by default.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0)
+        {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Run boards filled from consecutive seeds, returning once all
+     * of them finished.
+     *
+     * @param firstSeed seed of the first run, run i using firstSeed + i.
+     * @param runs number of runs.
+     * @param sink sink receiving every result.
+     * @throws IOException if the sink fails.
+     * @throws UnsupportedOperationException if the engine can't detect cycles.
+     */
+    public void run(long firstSeed, int runs, Sink sink) throws IOException {
+        if (!this.engine.supports(this.topology))
+        {
+            throw new IllegalArgumentException(this.engine + " engine doesn't support " + this.topology + " boards.");
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<Exception> failure = new AtomicReference<>(); // First exception of a task.
+        final int tasks = Math.min(this.parallelism, runs);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(tasks, 1));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < tasks; t++)
+            {
+                futures.add(pool.submit(() -> {
+                    try {
+                        this.runTask(firstSeed, runs, next, sink);
+                    }
+                    catch (IOException | RuntimeException e) {
+                        // Stop the other tasks after their current run.
+                        failure.compareAndSet(null, e);
+                        next.set(runs);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the ensemble.", e);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        if (failure.get() instanceof IOException)
+        {
+            throw (IOException) failure.get();
+        }
+        else if (failure.get() != null)
+        {
+            throw (RuntimeException) failure.get();
+        }
+    }
+
+    /**
+     * Take runs until there are none left, reusing a game between them.
+     * Games that can't be refilled are closed before being replaced, and
+     * the last one once the runs are over.
+     */
+    private void runTask(long firstSeed, int runs, AtomicInteger next, Sink sink) throws IOException {
+        Game game = null;
+        try {
+            for (int run = next.getAndIncrement(); run < runs; run = next.getAndIncrement())
+            {
+                final long seed = firstSeed + run;
+                game = this.prepare(game, seed);
+                this.play(game, run, seed, sink);
+            }
+        }
+        finally {
+            close(game);
+        }
+    }
+
+    /**
+     * Fill a game with the board of a seed, refilling the previous
+     * game's grid in place when possible.
+     *
+     * @param game game of the previous run, null for the first run.
+     * @param seed seed of the board.
+     * @return the game to play.
+     */
+    private Game prepare(Game game, long seed) {
+        if (game instanceof PackedGame)
+        {
+            PackedGame packed = (PackedGame) game;
+            this.fill(packed.getGrid()::setWord, seed);
+            packed.restart();
+
+            return packed;
+        }
+        else if (game instanceof OffHeapGame)
+        {
+            OffHeapGame offHeap = (OffHeapGame) game;
+            this.fill(offHeap.getGrid()::setWord, seed);
+            offHeap.restart();
+
+            return offHeap;
+        }
+
+        close(game);
+
+        BitGrid grid = new BitGrid(this.rows, this.cols);
+        this.fill(grid::setWord, seed);
+
+        game = this.engine.create(grid, this.topology, this.rule);
+        if (this.maxPeriod > 0)
+        {
+            game.setMaxPeriod(this.maxPeriod);
+        }
+
+        return game;
+    }
+
+    /**
+     * Step a game until it settles or runs out of generations, and
+     * hand its result to the sink.
+     */
+    private void play(Game game, int run, long seed, Sink sink) throws IOException {
+        long generations = 0;
+        int period = 0;
+        while (generations < this.maxGenerations)
+        {
+            game.step();
+            generations++;
+
+            if (game.isStatic())
+            {
+                period = 1;
+                break;
+            }
+            if (game.getPeriod() != 0)
+            {
+                period = game.getPeriod();
+                break;
+            }
+        }
+
+        Result result = new Result(run, seed, generations, period, game.getPopulation());
+        synchronized (sink)
+        {
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * Fill a grid as Runner fills a random board, a cell at a time.
+     *
+     * @param grid sets a word of the grid, as BitGrid.setWord does.
+     */
+    private void fill(Words grid, long seed) {
+        Random random = new Random(seed);
+
+        for (int i = 0; i < this.rows; i++)
+        {
+            long word = 0;
+            for (int j = 0; j < this.cols; j++)
+            {
+                if (random.nextDouble() < this.density)
+                {
+                    word |= 1L << j;
+                }
+
+                if ((j & 63) == 63 || j == this.cols - 1)
+                {
+                    grid.set(i, j >>> 6, word);
+                    word = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Close a game holding resources, such as memory outside the heap.
+     */
+    private static void close(Game game) {
+        if (game instanceof AutoCloseable)
+        {
+            try {
+                ((AutoCloseable) game).close();
+            }
+            catch (Exception e) {
+                throw new IllegalStateException("Couldn't close " + game.getClass().getSimpleName() + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the words of a grid.
+     */
+    private interface Words {
+        void set(int row, int word, long value);
+    }
+}
@@ -1,5 +1,8 @@
 package life.model;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Game represents a game of life, and specifies methods to
  * be implemented.
@@ -17,4 +20,236 @@ public interface Game {
      * @return a boolean array containing new states.
      */
     boolean[][] nextConfig();
+
+    /**
+     * Advance the game by one generation without building
+     * a boolean array of the new states.
+     */
+    void step();
+
+    /**
+     * Advance the game by the given number of generations.
+     *
+     * @param generations number of generations to advance.
+     */
+    default void step(long generations) {
+        if (generations < 0)
+        {
+            throw new IllegalArgumentException("Negative number of generations: " + generations);
+        }
+
+        for (long i = 0; i < generations; i++)
+        {
+            this.step();
+        }
+    }
+
+    /**
+     * Set the rule cells evolve by, B3/S23 unless changed. Cycle
+     * detection restarts from the current board.
+     *
+     * @param rule the rule.
+     * @throws IllegalArgumentException if the engine can't evolve the rule.
+     */
+    void setRule(Rule rule);
+
+    /**
+     * @return the rule cells evolve by.
+     */
+    Rule getRule();
+
+    /**
+     * Start detecting boards that repeat, see getPeriod.
+     *
+     * @param maxPeriod largest period to detect.
+     * @throws UnsupportedOperationException if the engine can't detect cycles.
+     */
+    default void setMaxPeriod(int maxPeriod) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " doesn't detect cycles.");
+    }
+
+    /**
+     * @return period the board is proven to repeat with, 1 for a
+     * static board, or 0 if it's not known to repeat.
+     */
+    default int getPeriod() {
+        return 0;
+    }
+
+    /**
+     * Report the cells changed by each step to a listener,
+     * replacing any previous listener.
+     *
+     * @param listener listener to report to, null to stop reporting.
+     * @throws UnsupportedOperationException if the engine can't report changes.
+     */
+    default void setChangeListener(ChangeListener listener) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " doesn't report changes.");
+    }
+
+    /**
+     * Tell a listener when each step starts and ends, replacing any
+     * previous listener.
+     *
+     * @param listener listener to tell, null to stop.
+     */
+    void setStepListener(StepListener listener);
+
+    /**
+     * @return number of live cells in the current generation. Most
+     * engines keep it up to date as they step, rather than counting.
+     */
+    default long getPopulation() {
+        long population = 0;
+        for (int i = 0, rows = this.getRows(); i < rows; i++)
+        {
+            for (int j = 0, cols = this.getCols(); j < cols; j++)
+            {
+                if (this.isAlive(i, j))
+                {
+                    population++;
+                }
+            }
+        }
+
+        return population;
+    }
+
+    /**
+     * @param row row of the board.
+     * @return number of live cells on the row in the current generation.
+     */
+    default long getRowPopulation(int row) {
+        long population = 0;
+        for (int j = 0, cols = this.getCols(); j < cols; j++)
+        {
+            if (this.isAlive(row, j))
+            {
+                population++;
+            }
+        }
+
+        return population;
+    }
+
+    /**
+     * Find the smallest rectangle holding every live cell. On an
+     * unbounded board it may reach past the rows and columns the
+     * game was created with.
+     *
+     * @return bounds of the live cells of the current generation,
+     * or null if there are none.
+     */
+    default Bounds getBounds() {
+        int top = -1, bottom = -1;
+        int left = Integer.MAX_VALUE, right = -1;
+        for (int i = 0, rows = this.getRows(); i < rows; i++)
+        {
+            for (int j = 0, cols = this.getCols(); j < cols; j++)
+            {
+                if (this.isAlive(i, j))
+                {
+                    if (top < 0)
+                    {
+                        top = i;
+                    }
+                    bottom = i;
+                    left = Math.min(left, j);
+                    right = Math.max(right, j);
+                }
+            }
+        }
+
+        return top < 0 ? null : new Bounds(top, left, bottom, right);
+    }
+
+    /**
+     * @return number of cells changed by the previous step, or -1
+     * if the engine doesn't count them.
+     */
+    default long getChangedCells() {
+        return -1;
+    }
+
+    /**
+     * @return number of tiles recomputed by the previous step, or
+     * -1 if the engine doesn't track tiles.
+     */
+    default int getActiveTileCount() {
+        return -1;
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @return true if the cell is alive in the current generation.
+     */
+    boolean isAlive(int row, int col);
+
+    /**
+     * Get a read-only view of the current generation, reading the
+     * engine's storage in place rather than copying it.
+     *
+     * @return a view of the board, the rows and columns the game was
+     * created with on an unbounded plane.
+     */
+    default GridView getView() {
+        return new GridView() {
+            @Override
+            public int getRows() {
+                return Game.this.getRows();
+            }
+
+            @Override
+            public int getCols() {
+                return Game.this.getCols();
+            }
+
+            @Override
+            public boolean isAlive(int row, int col) {
+                return Game.this.isAlive(row, col);
+            }
+        };
+    }
+
+    /**
+     * Tell how long a view returned by getView keeps showing the
+     * generation it was taken at. Engines writing each generation to
+     * a second buffer return 1: the view can be read while the next
+     * step runs, but not once the step after starts writing over it.
+     *
+     * @return number of steps that may start while a view is read,
+     * 0 if views follow the game, Integer.MAX_VALUE if they never change.
+     */
+    default int getViewLifetime() {
+        return 0;
+    }
+
+    /**
+     * @return number of rows on the board.
+     */
+    int getRows();
+
+    /**
+     * @return number of columns on the board.
+     */
+    int getCols();
+
+    /**
+     * @return topology of the board.
+     */
+    Topology getTopology();
+
+    /**
+     * Write the current generation to a checkpoint file, which
+     * Checkpoint.load can restore.
+     *
+     * @param path path of the file.
+     * @param generation number of the current generation.
+     * @throws IOException if the file can't be written.
+     * @throws UnsupportedOperationException if the board is unbounded.
+     */
+    default void save(Path path, long generation) throws IOException {
+        Checkpoint.save(this, generation, path);
+    }
 }
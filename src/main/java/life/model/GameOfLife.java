@@ -1,6 +1,7 @@
 package life.model;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
 
 /**
  * GameOfLife implements Game interface an is used
@@ -9,8 +10,26 @@ import java.util.Arrays;
 public class GameOfLife implements Game {
     private Square[][] grid; // A grid of Squares representing current game position.
 
-    private boolean[][] gridStates;         // Current states of Squares collected in an array.
-    private boolean[][] previousGridStates; // Previous states of Squares.
+    private boolean[][] gridStates; // Current states of Squares collected in an array.
+    private boolean[][] nextStates; // Buffer next states are written to, swapped with gridStates.
+    private StatesView view;     // Views of both arrays, swapped with them.
+    private StatesView nextView;
+
+    private final Topology topology;
+    private Rule rule = Rule.CONWAY;
+
+    private long changedSquares; // Number of Squares changed by previous step.
+    private final LiveCounts counts; // Live Squares of each row, updated by steps.
+
+    private final BandExecutor executor; // Splits each step into bands of rows.
+    private final BandExecutor.Band band; // Steps a band, kept to avoid allocating per step.
+
+    private CycleDetector detector; // Null unless detecting cycles.
+
+    private ChangeListener listener; // Null unless reporting changes.
+    private StepListener stepListener; // Null unless told about steps.
+    private boolean[] changedRows;   // Rows changed by the current step, null unless reporting changes.
+    private final LongAccumulator hashDelta = new LongAccumulator((a, b) -> a ^ b, 0); // Collects hash changes of bands.
 
     /**
      * GameOfLife constructor.
@@ -18,85 +37,419 @@ public class GameOfLife implements Game {
      * @param states An array containing initial square states.
      */
     public GameOfLife(boolean[][] states) {
-        final int ROWS = states.length;
-        final int COLS = states[0].length;
+        this(states, BandExecutor.SEQUENTIAL);
+    }
+
+    /**
+     * GameOfLife constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param executor Executor used to update bands of rows.
+     */
+    public GameOfLife(boolean[][] states, BandExecutor executor) {
+        this(states, Topology.BOUNDED, executor);
+    }
+
+    /**
+     * GameOfLife constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     */
+    public GameOfLife(boolean[][] states, Topology topology) {
+        this(states, topology, BandExecutor.SEQUENTIAL);
+    }
+
+    /**
+     * GameOfLife constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param executor Executor used to update bands of rows.
+     */
+    public GameOfLife(boolean[][] states, Topology topology, BandExecutor executor) {
+        this(BitGrid.of(states), topology, executor);
+    }
+
+    /**
+     * GameOfLife constructor.
+     *
+     * @param cells A grid containing initial square states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param executor Executor used to update bands of rows.
+     */
+    public GameOfLife(BitGrid cells, Topology topology, BandExecutor executor) {
+        if (topology == Topology.UNBOUNDED)
+        {
+            throw new IllegalArgumentException("GameOfLife doesn't support " + topology + " boards.");
+        }
+
+        this.topology = topology;
+        this.executor = executor;
+        this.band = this::updateRows;
+
+        final int ROWS = cells.getRows();
+        final int COLS = cells.getCols();
 
         // Initialize arrays.
         this.grid = new Square[ROWS][COLS];
         this.gridStates = new boolean[ROWS][COLS];
-        this.previousGridStates = new boolean[ROWS][COLS];
+        this.nextStates = new boolean[ROWS][COLS];
 
         // Copy given states and create Square objects.
         for (int i = 0; i < ROWS; i ++)
         {
             for (int j = 0; j < COLS; j++)
             {
-                this.gridStates[i][j] = states[i][j];
-                this.grid[i][j] = new GameSquare(j, i, this.gridStates);
+                this.gridStates[i][j] = cells.get(i, j);
+                this.grid[i][j] = new GameSquare(j, i, topology);
+
             }
         }
+
+        this.view = new StatesView(this.gridStates);
+        this.nextView = new StatesView(this.nextStates);
+        this.counts = new LiveCounts(ROWS, COLS, (r, i) -> this.view.getWord(r, i));
+
+        // Initial states are compared against an empty board.
+        this.changedSquares = this.counts.getPopulation();
     }
 
     /**
-     * Compare current grid configuration with previous configuration.
+     * Check whether any Square changed during previous step.
      *
      * @return true if Squares' states didn't change during previous
      * step, false otherwise.
      */
     @Override
     public boolean isStatic() {
-        return Arrays.deepEquals(this.gridStates, this.previousGridStates);
+        return this.changedSquares == 0;
     }
 
     /**
      * Find new game configuration based on the current states and
      * update Squares grid accordingly.
      *
+     * The returned array is overwritten by the step after next.
+     *
      * @return a boolean array containing new states.
      */
     @Override
     public boolean[][] nextConfig() {
-        this.currentToPrevious();
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        this.changedSquares = this.executor.run(this.grid.length, this.band);
+
+        boolean[][] temp = this.gridStates;
+        this.gridStates = this.nextStates;
+        this.nextStates = temp;
+
+        StatesView tempView = this.view;
+        this.view = this.nextView;
+        this.nextView = tempView;
+
+        this.counts.stepEnded();
+
+        if (this.detector != null)
+        {
+            this.detector.step(this.hashDelta.getThenReset());
+        }
+
+        if (this.listener != null)
+        {
+            this.reportChanges();
+        }
 
-        this.updateNeighbourCount();
-        this.updateState();
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, 1);
+        }
 
         return this.gridStates;
     }
 
     /**
-     * Recalculate number of neighbours of the entire grid.
+     * Find new game configuration.
+     */
+    @Override
+    public void step() {
+        this.nextConfig();
+    }
+
+    /**
+     * Set the rule Squares evolve by.
+     *
+     * @param rule the rule.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        this.rule = rule;
+
+        if (this.detector != null)
+        {
+            this.setMaxPeriod(this.detector.getMaxPeriod());
+        }
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Report Squares changed by each step to a listener.
+     *
+     * @param listener listener to report to, null to stop reporting.
+     */
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+        this.changedRows = listener == null ? null : new boolean[this.gridStates.length];
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    @Override
+    public long getChangedCells() {
+        return this.changedSquares;
+    }
+
+    @Override
+    public long getPopulation() {
+        return this.counts.getPopulation();
+    }
+
+    /**
+     * @return a view of the array holding the current states, which
+     * the step after next writes over.
+     */
+    @Override
+    public GridView getView() {
+        return this.view;
+    }
+
+    @Override
+    public int getViewLifetime() {
+        return 1;
+    }
+
+    @Override
+    public long getRowPopulation(int row) {
+        return this.counts.getRowPopulation(row);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return this.counts.getBounds();
+    }
+
+    /**
+     * Start detecting boards that repeat with up to the given period.
+     *
+     * @param maxPeriod largest period to detect.
      */
-    private void updateNeighbourCount() {
-        for (Square[] row : this.grid)
+    @Override
+    public void setMaxPeriod(int maxPeriod) {
+        final int cols = this.getCols();
+
+        long hash = 0;
+        for (int i = 0; i < this.gridStates.length; i++)
         {
-            for (Square square : row)
+            for (int j = 0; j < cols; j++)
             {
-                square.updateNeighbourCount();
+                if (this.gridStates[i][j])
+                {
+                    hash ^= CycleDetector.mix((long) i * cols + j, 1);
+                }
             }
         }
+
+        this.detector = new CycleDetector(new CycleDetector.Board() {
+            @Override
+            public Object snapshot() {
+                boolean[][] copy = new boolean[gridStates.length][];
+                for (int i = 0; i < copy.length; i++)
+                {
+                    copy[i] = gridStates[i].clone();
+                }
+
+                return copy;
+            }
+
+            @Override
+            public boolean matches(Object snapshot) {
+                return Arrays.deepEquals(gridStates, (boolean[][]) snapshot);
+            }
+        }, maxPeriod, hash);
+    }
+
+    /**
+     * @return period the board is proven to repeat with, or 0.
+     */
+    @Override
+    public int getPeriod() {
+        return this.detector == null ? 0 : this.detector.getPeriod();
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.gridStates[row][col];
+    }
+
+    @Override
+    public int getRows() {
+        return this.gridStates.length;
+    }
+
+    @Override
+    public int getCols() {
+        return this.gridStates[0].length;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return this.topology;
     }
 
     /**
-     * Update the state of the entire grid.
+     * Report Squares of the rows changed by the previous step, found
+     * by comparing them with the previous states, still held by
+     * nextStates.
      */
-    private void updateState() {
-        for (Square[] row : this.grid)
+    private void reportChanges() {
+        for (int i = 0; i < this.gridStates.length; i++)
         {
-            for (Square square : row)
+            if (!this.changedRows[i])
             {
-                square.updateState();
+                continue;
+            }
+
+            this.changedRows[i] = false;
+
+            boolean[] row = this.gridStates[i];
+            boolean[] previous = this.nextStates[i];
+            for (int w = 0; w << 6 < row.length; w++)
+            {
+                long flipped = 0;
+                for (int j = w << 6, end = Math.min(j + 64, row.length); j < end; j++)
+                {
+                    if (row[j] != previous[j])
+                    {
+                        flipped |= 1L << j;
+                    }
+                }
+
+                if (flipped != 0)
+                {
+                    this.listener.cellsChanged(i, w, flipped);
+                }
             }
         }
+
+        this.listener.generationEnded();
     }
 
     /**
-     * Write current Square states to previous states.
+     * Write next states of a band of rows.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of Squares that changed.
      */
-    private void currentToPrevious() {
-        for (int i = 0, rows = this.gridStates.length; i < rows; i++)
+    private long updateRows(int from, int to) {
+        final boolean hashing = this.detector != null;
+        final boolean[] changedRows = this.changedRows;
+        final Rule rule = this.rule;
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int i = from; i < to; i++)
+        {
+            Square[] row = this.grid[i];
+            long rowChanged = 0;
+            int rowDelta = 0;
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j].updateNeighbourCount(this.gridStates);
+                if (row[j].updateState(this.gridStates, this.nextStates, rule))
+                {
+                    rowChanged++;
+                    rowDelta += this.nextStates[i][j] ? 1 : -1;
+                    if (hashing)
+                    {
+                        delta ^= CycleDetector.mix((long) i * row.length + j, 1);
+                    }
+                }
+            }
+
+            if (rowChanged != 0)
+            {
+                this.counts.rowChanged(i, rowDelta);
+                if (changedRows != null)
+                {
+                    changedRows[i] = true;
+                }
+                changed += rowChanged;
+                populationDelta += rowDelta;
+            }
+        }
+
+        if (delta != 0)
         {
-            this.previousGridStates[i] = Arrays.copyOf(this.gridStates[i], this.gridStates[i].length);
+            this.hashDelta.accumulate(delta);
+        }
+        this.counts.bandChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * Reads an array of states, packing them into words when asked for words.
+     */
+    private static final class StatesView implements GridView {
+        private final boolean[][] states;
+
+        StatesView(boolean[][] states) {
+            this.states = states;
+        }
+
+        @Override
+        public int getRows() {
+            return this.states.length;
+        }
+
+        @Override
+        public int getCols() {
+            return this.states[0].length;
+        }
+
+        @Override
+        public boolean isAlive(int row, int col) {
+            return this.states[row][col];
+        }
+
+        @Override
+        public long getWord(int row, int word) {
+            boolean[] states = this.states[row];
+
+            long value = 0;
+            for (int j = word << 6, end = Math.min(j + 64, states.length); j < end; j++)
+            {
+                if (states[j])
+                {
+                    value |= 1L << j;
+                }
+            }
+
+            return value;
         }
     }
 }
@@ -10,34 +10,42 @@ public class GameSquare implements Square {
 
     private int numberOfNeighbours; // Number of alive neighbours.
 
-    private boolean[][] grid; // A reference to the grid containing the square.
+    private final boolean wrap; // Whether neighbours wrap around the edges.
 
     /**
      * GameSquare constructor.
      *
      * @param x Represents Square's x coordinate.
      * @param y Represents Square's y coordinate.
-     * @param grid A reference to the grid containing the square.
+     * @param topology Topology of the grid, BOUNDED or TORUS.
      */
-    GameSquare(int x, int y, boolean[][] grid) {
+    GameSquare(int x, int y, Topology topology) {
         this.x = x;
         this.y = y;
-        this.grid = grid;
+        this.wrap = topology == Topology.TORUS;
     }
 
     /**
      * Count the number of square's neighbours and update
      * the value accordingly.
+     *
+     * @param grid states of the current generation.
      */
     @Override
-    public void updateNeighbourCount() {
+    public void updateNeighbourCount(boolean[][] grid) {
+        if (this.wrap)
+        {
+            this.updateWrappedNeighbourCount(grid);
+            return;
+        }
+
         // Calculate start and end positions of square's neighbours
         // while avoiding edges.
         int rowStart = Math.max(this.y - 1, 0);
         int colStart = Math.max(this.x - 1, 0);
 
         int rowEnd = Math.min(this.y + 1, grid.length - 1);
-        int colEnd = Math.min(this.x + 1, grid.length - 1);
+        int colEnd = Math.min(this.x + 1, grid[this.y].length - 1);
 
         // Update Square's neighbour count.
         this.numberOfNeighbours = 0;
@@ -45,7 +53,7 @@ public class GameSquare implements Square {
         {
             for (int j = colStart; j <= colEnd; j++)
             {
-                if (!(i == this.y && j == this.x) && this.grid[i][j])
+                if (!(i == this.y && j == this.x) && grid[i][j])
                 {
                     this.numberOfNeighbours++;
                 }
@@ -54,24 +62,43 @@ public class GameSquare implements Square {
     }
 
     /**
-     * Update square's state based on the number of current
-     * grid neighbours.
+     * Count the number of square's neighbours, wrapping around
+     * the edges of the grid.
+     *
+     * @param grid states of the current generation.
      */
-    @Override
-    public void updateState() {
-        if (this.grid[y][x])
-        {
-            if (this.numberOfNeighbours < 2 || this.numberOfNeighbours > 3)
-            {
-                this.grid[y][x] = false;
-            }
-        }
-        else
+    private void updateWrappedNeighbourCount(boolean[][] grid) {
+        final int rows = grid.length;
+        final int cols = grid[0].length;
+
+        this.numberOfNeighbours = 0;
+        for (int i = -1; i <= 1; i++)
         {
-            if (this.numberOfNeighbours == 3)
+            boolean[] row = grid[(this.y + i + rows) % rows];
+            for (int j = -1; j <= 1; j++)
             {
-                this.grid[y][x] = true;
+                if (!(i == 0 && j == 0) && row[(this.x + j + cols) % cols])
+                {
+                    this.numberOfNeighbours++;
+                }
             }
         }
     }
+
+    /**
+     * Write square's next state based on the number of current
+     * grid neighbours.
+     *
+     * @param current states of the current generation.
+     * @param next states of the next generation.
+     * @param rule rule giving the next state.
+     * @return true if square's state changed.
+     */
+    @Override
+    public boolean updateState(boolean[][] current, boolean[][] next, Rule rule) {
+        boolean alive = current[y][x];
+        next[y][x] = rule.next(alive, this.numberOfNeighbours);
+
+        return next[y][x] != alive;
+    }
 }
@@ -0,0 +1,52 @@
+package life.model;
+
+/**
+ * GridView reads the cells of a board, one at a time or 64 at a
+ * time, without being able to change them. Views returned by
+ * Game.getView read the engine's own storage rather than a copy,
+ * see Game.getViewLifetime for how long they show a generation.
+ */
+public interface GridView {
+    /**
+     * @return number of rows.
+     */
+    int getRows();
+
+    /**
+     * @return number of columns.
+     */
+    int getCols();
+
+    /**
+     * @return number of words holding a single row.
+     */
+    default int getWordsPerRow() {
+        return (this.getCols() + 63) >>> 6;
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @return true if the cell is alive.
+     */
+    boolean isAlive(int row, int col);
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @return a word holding 64 cells, column word * 64 + k at bit k,
+     * bits past the last column being zero.
+     */
+    default long getWord(int row, int word) {
+        long value = 0;
+        for (int j = word << 6, end = Math.min(j + 64, this.getCols()); j < end; j++)
+        {
+            if (this.isAlive(row, j))
+            {
+                value |= 1L << j;
+            }
+        }
+
+        return value;
+    }
+}
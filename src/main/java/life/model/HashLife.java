@@ -0,0 +1,790 @@
+package life.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HashLife implements Game interface using a quadtree of
+ * hash-consed nodes, where the future of every node is memoized,
+ * so it can advance by 2^k generations at about the cost of one.
+ *
+ * The pattern lives on an unbounded plane. The rows and columns
+ * the game was created with only define the region returned by
+ * nextConfig, cells outside of it keep evolving.
+ */
+public class HashLife implements Game {
+    public static final int DEFAULT_MAX_NODES = 1 << 20; // Node cache size before collecting.
+
+    private static final int MIN_LEVEL = 3;   // Smallest root, successor needs level 3 or more.
+    private static final int QUERY_LEVEL = 34; // Smallest level covering every int coordinate.
+
+    // Sides of a node, for getBounds.
+    private static final int TOP = 0;
+    private static final int BOTTOM = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    private final int rows; // Region returned by nextConfig.
+    private final int cols;
+
+    private final int maxNodes; // Cache size after which unreachable nodes are dropped.
+    private Map<Node, Node> cache = new HashMap<>(); // Canonical nodes.
+    private Node[] empties = new Node[0];             // Empty nodes, indexed by level.
+
+    private Rule rule = Rule.CONWAY;
+
+    private Node root;     // Current pattern, centered on the origin.
+    private long generation;
+    private boolean changed; // Whether previous step changed the pattern.
+
+    private boolean[][] states; // Created on first call to nextConfig.
+
+    private StepListener stepListener; // Null unless told about steps.
+
+    /**
+     * A square of 2^level by 2^level cells. Nodes are canonical,
+     * two nodes with the same cells are the same object.
+     */
+    static final class Node {
+        static final Node DEAD = new Node(0);
+        static final Node ALIVE = new Node(1);
+
+        final Node nw, ne, sw, se;
+        final int level;
+        final long population;
+        final int hash;
+
+        Node[] results; // results[j] is the center after 2^j generations.
+
+        /**
+         * Leaf constructor.
+         */
+        private Node(int population) {
+            this.nw = this.ne = this.sw = this.se = null;
+            this.level = 0;
+            this.population = population;
+            this.hash = population;
+        }
+
+        Node(Node nw, Node ne, Node sw, Node se) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population + se.population;
+
+            int h = System.identityHashCode(nw);
+            h = h * 31 + System.identityHashCode(ne);
+            h = h * 31 + System.identityHashCode(sw);
+            h = h * 31 + System.identityHashCode(se);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node))
+            {
+                return false;
+            }
+
+            Node n = (Node) o;
+            return this.nw == n.nw && this.ne == n.ne && this.sw == n.sw && this.se == n.se;
+        }
+    }
+
+    /**
+     * HashLife constructor.
+     *
+     * @param states An array containing initial square states.
+     */
+    public HashLife(boolean[][] states) {
+        this(states, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * HashLife constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param maxNodes Number of cached nodes after which unreachable nodes are dropped.
+     */
+    public HashLife(boolean[][] states, int maxNodes) {
+        this(BitGrid.of(states), maxNodes);
+    }
+
+    /**
+     * HashLife constructor.
+     *
+     * @param grid A grid containing initial square states.
+     * @param maxNodes Number of cached nodes after which unreachable nodes are dropped.
+     */
+    public HashLife(BitGrid grid, int maxNodes) {
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.maxNodes = maxNodes;
+
+        // Root spans [-2^(level-1), 2^(level-1)) on both axes.
+        int level = MIN_LEVEL;
+        while ((1L << (level - 1)) < Math.max(this.rows, this.cols))
+        {
+            level++;
+        }
+
+        long half = 1L << (level - 1);
+        this.root = this.build(grid, level, -half, -half);
+        this.changed = this.root.population != 0;
+    }
+
+    /**
+     * @return true if the pattern didn't change during previous step.
+     */
+    @Override
+    public boolean isStatic() {
+        return !this.changed;
+    }
+
+    /**
+     * Advance by one generation and copy the region to a boolean
+     * array, which is reused between calls.
+     *
+     * @return a boolean array containing new states.
+     */
+    @Override
+    public boolean[][] nextConfig() {
+        this.step();
+
+        if (this.states == null)
+        {
+            this.states = new boolean[this.rows][this.cols];
+        }
+
+        this.copyRegion(this.states, 0, 0);
+        return this.states;
+    }
+
+    @Override
+    public void step() {
+        this.step(1);
+    }
+
+    /**
+     * Advance the game by the given number of generations, taking
+     * one memoized jump per set bit of the count.
+     *
+     * @param generations number of generations to advance.
+     */
+    @Override
+    public void step(long generations) {
+        if (generations < 0)
+        {
+            throw new IllegalArgumentException("Negative number of generations: " + generations);
+        }
+
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        final long first = this.generation;
+        Node before = this.root;
+        for (int j = 0; generations != 0; j++, generations >>>= 1)
+        {
+            if ((generations & 1) != 0)
+            {
+                this.advance(j);
+                this.generation += 1L << j;
+
+                if (this.cache.size() > this.maxNodes)
+                {
+                    before = this.collect(before);
+                }
+            }
+        }
+
+        // Canonical nodes of the same level are equal only if they are the same object.
+        Node after = this.root;
+        while (before.level < after.level)
+        {
+            before = this.expand(before);
+        }
+        while (after.level < before.level)
+        {
+            after = this.expand(after);
+        }
+        this.changed = before != after;
+
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, this.generation - first);
+        }
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    /**
+     * Set the rule cells evolve by, dropping every memoized result.
+     *
+     * @param rule the rule, which can't give birth to cells without neighbours.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.birthsFromNothing())
+        {
+            throw new IllegalArgumentException("HashLife doesn't support " + rule + ", it fills the plane.");
+        }
+
+        if (!rule.equals(this.rule))
+        {
+            this.rule = rule;
+            this.collect(this.root);
+        }
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return isAlive(this.queryRoot(), row, col);
+    }
+
+    /**
+     * @return a view of the current pattern's root. Nodes never
+     * change, so the view keeps showing the same generation.
+     */
+    @Override
+    public GridView getView() {
+        final Node node = this.queryRoot();
+        final int rows = this.rows, cols = this.cols;
+
+        return new GridView() {
+            @Override
+            public int getRows() {
+                return rows;
+            }
+
+            @Override
+            public int getCols() {
+                return cols;
+            }
+
+            @Override
+            public boolean isAlive(int row, int col) {
+                return HashLife.isAlive(node, row, col);
+            }
+        };
+    }
+
+    @Override
+    public int getViewLifetime() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @param node a root, centered on the origin.
+     * @return true if the cell of the root is alive.
+     */
+    private static boolean isAlive(Node node, int row, int col) {
+        long x = col, y = row;
+        long half = 1L << (node.level - 1);
+
+        // Move to the root's corner based coordinates.
+        x += half;
+        y += half;
+        if (x < 0 || y < 0 || x >= 2 * half || y >= 2 * half)
+        {
+            return false;
+        }
+
+        while (node.level > 0)
+        {
+            if (node.population == 0)
+            {
+                return false;
+            }
+
+            half = 1L << (node.level - 1);
+            if (y < half)
+            {
+                node = x < half ? node.nw : node.ne;
+            }
+            else
+            {
+                node = x < half ? node.sw : node.se;
+            }
+
+            x &= half - 1;
+            y &= half - 1;
+        }
+
+        return node == Node.ALIVE;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return Topology.UNBOUNDED;
+    }
+
+    /**
+     * @return number of generations advanced since creation.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * @return number of live cells on the whole plane.
+     */
+    @Override
+    public long getPopulation() {
+        return this.root.population;
+    }
+
+    /**
+     * @return number of live cells on a row of the plane, at int columns.
+     */
+    @Override
+    public long getRowPopulation(int row) {
+        Node node = this.queryRoot();
+        return rowPopulation(node, row + (1L << (node.level - 1)));
+    }
+
+    /**
+     * Find the bounds of the live cells by descending the quadtree
+     * from each side, skipping empty nodes and nodes already measured.
+     *
+     * @return bounds of the live cells on the whole plane, or null if there are none.
+     * @throws ArithmeticException if live cells lie past int coordinates.
+     */
+    @Override
+    public Bounds getBounds() {
+        if (this.root.population == 0)
+        {
+            return null;
+        }
+
+        Node node = this.queryRoot();
+        if (node.population != this.root.population)
+        {
+            throw new ArithmeticException("Live cells lie past int coordinates.");
+        }
+
+        long half = 1L << (node.level - 1);
+        long last = half - 1; // Offset of the last row and column from the origin.
+        return new Bounds(Math.toIntExact(edge(node, TOP, new HashMap<>()) - half),
+                          Math.toIntExact(edge(node, LEFT, new HashMap<>()) - half),
+                          Math.toIntExact(last - edge(node, BOTTOM, new HashMap<>())),
+                          Math.toIntExact(last - edge(node, RIGHT, new HashMap<>())));
+    }
+
+    /**
+     * @return number of cached nodes.
+     */
+    public int getCacheSize() {
+        return this.cache.size();
+    }
+
+    /**
+     * Get the states of a region of the plane.
+     *
+     * @param top first row of the region.
+     * @param left first column of the region.
+     * @param rows number of rows.
+     * @param cols number of columns.
+     * @return a boolean array containing the region's states.
+     */
+    public boolean[][] getRegion(int top, int left, int rows, int cols) {
+        boolean[][] region = new boolean[rows][cols];
+        this.copyRegion(region, top, left);
+
+        return region;
+    }
+
+    /**
+     * Copy the states of a region of the plane to an array.
+     *
+     * @param region array to write to, its size is the size of the region.
+     * @param top first row of the region.
+     * @param left first column of the region.
+     */
+    public void copyRegion(boolean[][] region, int top, int left) {
+        for (boolean[] row : region)
+        {
+            Arrays.fill(row, false);
+        }
+
+        Node node = this.queryRoot();
+        long half = 1L << (node.level - 1);
+        this.copyNode(node, region, -half - top, -half - left);
+    }
+
+    /**
+     * Write live cells of a node to a region.
+     *
+     * @param y row of node's top left corner, relative to the region.
+     * @param x column of node's top left corner, relative to the region.
+     */
+    private void copyNode(Node node, boolean[][] region, long y, long x) {
+        long size = 1L << node.level;
+        if (node.population == 0 || y >= region.length || x >= region[0].length || y + size <= 0 || x + size <= 0)
+        {
+            return;
+        }
+
+        if (node.level == 0)
+        {
+            region[(int) y][(int) x] = true;
+            return;
+        }
+
+        long half = size >>> 1;
+        this.copyNode(node.nw, region, y, x);
+        this.copyNode(node.ne, region, y, x + half);
+        this.copyNode(node.sw, region, y + half, x);
+        this.copyNode(node.se, region, y + half, x + half);
+    }
+
+    /**
+     * @param y row relative to the node's top.
+     * @return number of live cells of the node on the row.
+     */
+    private static long rowPopulation(Node node, long y) {
+        long size = 1L << node.level;
+        if (node.population == 0 || y < 0 || y >= size)
+        {
+            return 0;
+        }
+        else if (node.level == 0)
+        {
+            return node.population;
+        }
+
+        long half = size >>> 1;
+        return y < half ? rowPopulation(node.nw, y) + rowPopulation(node.ne, y)
+                        : rowPopulation(node.sw, y - half) + rowPopulation(node.se, y - half);
+    }
+
+    /**
+     * Find the distance from a side of a node to its nearest live
+     * cell. Canonical nodes repeat, so distances are memoized.
+     *
+     * @param node a node holding live cells.
+     * @param side TOP, BOTTOM, LEFT or RIGHT.
+     * @param memo distances found so far from the same side.
+     * @return number of rows or columns between the side and the cell.
+     */
+    private static long edge(Node node, int side, Map<Node, Long> memo) {
+        if (node.level == 0)
+        {
+            return 0;
+        }
+
+        Long known = memo.get(node);
+        if (known != null)
+        {
+            return known;
+        }
+
+        // Children along the side, then the ones half a node away.
+        Node a, b, c, d;
+        switch (side)
+        {
+            case TOP:
+                a = node.nw; b = node.ne; c = node.sw; d = node.se;
+                break;
+            case BOTTOM:
+                a = node.sw; b = node.se; c = node.nw; d = node.ne;
+                break;
+            case LEFT:
+                a = node.nw; b = node.sw; c = node.ne; d = node.se;
+                break;
+            default:
+                a = node.ne; b = node.se; c = node.nw; d = node.sw;
+                break;
+        }
+
+        long distance;
+        if (a.population + b.population != 0)
+        {
+            distance = Math.min(edgeOrMax(a, side, memo), edgeOrMax(b, side, memo));
+        }
+        else
+        {
+            distance = (1L << (node.level - 1)) + Math.min(edgeOrMax(c, side, memo), edgeOrMax(d, side, memo));
+        }
+
+        memo.put(node, distance);
+        return distance;
+    }
+
+    /**
+     * @return distance from a side of a node to its nearest live cell,
+     * or Long.MAX_VALUE if it's empty.
+     */
+    private static long edgeOrMax(Node node, int side, Map<Node, Long> memo) {
+        return node.population == 0 ? Long.MAX_VALUE : edge(node, side, memo);
+    }
+
+    /**
+     * @return root, or its center if it's larger than needed to
+     * address any int coordinate.
+     */
+    private Node queryRoot() {
+        Node node = this.root;
+        while (node.level > QUERY_LEVEL)
+        {
+            node = this.join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+        }
+
+        return node;
+    }
+
+    /**
+     * Build a node from a grid of states.
+     *
+     * @param y row of node's top left corner.
+     * @param x column of node's top left corner.
+     */
+    private Node build(BitGrid grid, int level, long y, long x) {
+        long size = 1L << level;
+        if (y >= this.rows || x >= this.cols || y + size <= 0 || x + size <= 0)
+        {
+            return this.empty(level);
+        }
+
+        if (level == 0)
+        {
+            return grid.get((int) y, (int) x) ? Node.ALIVE : Node.DEAD;
+        }
+
+        long half = size >>> 1;
+        return this.join(this.build(grid, level - 1, y, x),
+                         this.build(grid, level - 1, y, x + half),
+                         this.build(grid, level - 1, y + half, x),
+                         this.build(grid, level - 1, y + half, x + half));
+    }
+
+    /**
+     * Advance root by 2^j generations.
+     */
+    private void advance(int j) {
+        // Pad until the pattern fits in the center sixteenth of
+        // the root, then once more so it can't escape the result.
+        while (this.root.level < j + MIN_LEVEL || !this.isCentred(this.root))
+        {
+            this.root = this.expand(this.root);
+        }
+
+        this.root = this.successor(this.expand(this.root), j);
+    }
+
+    /**
+     * @return true if every live cell of the node is in its center sixteenth.
+     */
+    private boolean isCentred(Node node) {
+        return node.nw.se.population + node.ne.sw.population
+             + node.sw.ne.population + node.se.nw.population == node.population;
+    }
+
+    /**
+     * @return a node of one level higher, with the given node at its center.
+     */
+    private Node expand(Node node) {
+        Node e = this.empty(node.level - 1);
+        return this.join(this.join(e, e, e, node.nw),
+                         this.join(e, e, node.ne, e),
+                         this.join(e, node.sw, e, e),
+                         this.join(node.se, e, e, e));
+    }
+
+    /**
+     * Find the center of a node after 2^j generations, j being
+     * at most level - 2.
+     *
+     * @return a node of one level lower.
+     */
+    private Node successor(Node m, int j) {
+        j = Math.min(j, m.level - 2);
+        if (m.results != null && m.results[j] != null)
+        {
+            return m.results[j];
+        }
+
+        Node s;
+        if (m.population == 0)
+        {
+            s = this.empty(m.level - 1);
+        }
+        else if (m.level == 2)
+        {
+            s = this.life4x4(m);
+        }
+        else
+        {
+            // Nine overlapping sub-squares, each advanced from its center.
+            Node c00 = this.successor(m.nw, j);
+            Node c01 = this.successor(this.join(m.nw.ne, m.ne.nw, m.nw.se, m.ne.sw), j);
+            Node c02 = this.successor(m.ne, j);
+            Node c10 = this.successor(this.join(m.nw.sw, m.nw.se, m.sw.nw, m.sw.ne), j);
+            Node c11 = this.successor(this.join(m.nw.se, m.ne.sw, m.sw.ne, m.se.nw), j);
+            Node c12 = this.successor(this.join(m.ne.sw, m.ne.se, m.se.nw, m.se.ne), j);
+            Node c20 = this.successor(m.sw, j);
+            Node c21 = this.successor(this.join(m.sw.ne, m.se.nw, m.sw.se, m.se.sw), j);
+            Node c22 = this.successor(m.se, j);
+
+            if (j < m.level - 2)
+            {
+                // Already advanced 2^j generations, assemble the center.
+                s = this.join(this.join(c00.se, c01.sw, c10.ne, c11.nw),
+                              this.join(c01.se, c02.sw, c11.ne, c12.nw),
+                              this.join(c10.se, c11.sw, c20.ne, c21.nw),
+                              this.join(c11.se, c12.sw, c21.ne, c22.nw));
+            }
+            else
+            {
+                // Advanced half way, advance the other half.
+                s = this.join(this.successor(this.join(c00, c01, c10, c11), j),
+                              this.successor(this.join(c01, c02, c11, c12), j),
+                              this.successor(this.join(c10, c11, c20, c21), j),
+                              this.successor(this.join(c11, c12, c21, c22), j));
+            }
+        }
+
+        if (m.results == null)
+        {
+            m.results = new Node[m.level - 1];
+        }
+        m.results[j] = s;
+
+        return s;
+    }
+
+    /**
+     * Advance the center 2x2 cells of a 4x4 node by one generation.
+     */
+    private Node life4x4(Node m) {
+        // Cell (x, y) of the node at bit y * 4 + x.
+        int bits = 0;
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                Node quadrant = y < 2 ? (x < 2 ? m.nw : m.ne) : (x < 2 ? m.sw : m.se);
+                Node cell = (y & 1) == 0 ? ((x & 1) == 0 ? quadrant.nw : quadrant.ne)
+                                         : ((x & 1) == 0 ? quadrant.sw : quadrant.se);
+                if (cell == Node.ALIVE)
+                {
+                    bits |= 1 << (y * 4 + x);
+                }
+            }
+        }
+
+        Node[] center = new Node[4];
+        for (int k = 0; k < 4; k++)
+        {
+            int x = 1 + (k & 1);
+            int y = 1 + (k >>> 1);
+
+            int neighbours = 0;
+            for (int i = y - 1; i <= y + 1; i++)
+            {
+                for (int j = x - 1; j <= x + 1; j++)
+                {
+                    if (!(i == y && j == x) && (bits & (1 << (i * 4 + j))) != 0)
+                    {
+                        neighbours++;
+                    }
+                }
+            }
+
+            boolean alive = (bits & (1 << (y * 4 + x))) != 0;
+            center[k] = this.rule.next(alive, neighbours) ? Node.ALIVE : Node.DEAD;
+        }
+
+        return this.join(center[0], center[1], center[2], center[3]);
+    }
+
+    /**
+     * @return the canonical node with the given quadrants.
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        Node node = new Node(nw, ne, sw, se);
+        Node cached = this.cache.putIfAbsent(node, node);
+
+        return cached == null ? node : cached;
+    }
+
+    /**
+     * @return the canonical empty node of the given level.
+     */
+    private Node empty(int level) {
+        if (level >= this.empties.length)
+        {
+            this.empties = Arrays.copyOf(this.empties, level + 1);
+        }
+
+        if (this.empties[level] == null)
+        {
+            this.empties[level] = level == 0 ? Node.DEAD : this.join(this.empty(level - 1), this.empty(level - 1),
+                                                                     this.empty(level - 1), this.empty(level - 1));
+        }
+
+        return this.empties[level];
+    }
+
+    /**
+     * Drop every node not reachable from the root, along with
+     * all memoized results.
+     *
+     * @param other another node to keep.
+     * @return the other node.
+     */
+    private Node collect(Node other) {
+        this.cache = new HashMap<>();
+        this.empties = new Node[0];
+
+        this.keep(this.root);
+        this.keep(other);
+
+        return other;
+    }
+
+    /**
+     * Add a node and its descendants back to the cache.
+     */
+    private void keep(Node node) {
+        if (node.level == 0 || this.cache.putIfAbsent(node, node) != null)
+        {
+            return;
+        }
+
+        node.results = null;
+
+        this.keep(node.nw);
+        this.keep(node.ne);
+        this.keep(node.sw);
+        this.keep(node.se);
+    }
+}
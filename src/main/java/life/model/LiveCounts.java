@@ -0,0 +1,183 @@
+package life.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LiveCounts keeps the number of live cells of every row of a bounded
+ * board, and of the whole board, updated with the changes each step
+ * makes rather than counted again.
+ *
+ * Rows a step changed are marked stale, and their first and last live
+ * columns are only found again when bounds are asked for, searching
+ * from both ends of the row. Bounds then cost a pass over the row
+ * counts, and are kept until the next step.
+ *
+ * Bands of a step update their own rows concurrently, and add their
+ * change of the total, which is applied once the step ends.
+ */
+final class LiveCounts {
+    /**
+     * Reads words of the current generation, bit j of word i of a
+     * row being column 64 * i + j.
+     */
+    interface Words {
+        long get(int row, int i);
+    }
+
+    private final int rows;
+    private final int wordsPerRow;
+    private final Words words;
+
+    private final int[] rowPopulation; // Live cells of each row.
+    private final int[] west;          // First live column of each row, unless stale.
+    private final int[] east;          // Last live column of each row, unless stale.
+    private final boolean[] stale;     // Rows changed since their columns were found.
+
+    private long population;
+    private final LongAdder delta = new LongAdder(); // Collects population changes of bands.
+
+    private Bounds bounds;    // Bounds of the current generation, once measured.
+    private boolean measured; // Whether bounds were measured since the last step.
+
+    /**
+     * LiveCounts constructor, counting the current generation.
+     *
+     * @param rows number of rows.
+     * @param cols number of columns.
+     * @param words reader of the current generation.
+     */
+    LiveCounts(int rows, int cols, Words words) {
+        this.rows = rows;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        this.words = words;
+
+        this.rowPopulation = new int[rows];
+        this.west = new int[rows];
+        this.east = new int[rows];
+        this.stale = new boolean[rows];
+
+        this.recount();
+    }
+
+    /**
+     * Count every row again, after the board was written to.
+     */
+    void recount() {
+        this.population = 0;
+        for (int r = 0; r < this.rows; r++)
+        {
+            int count = 0;
+            for (int i = 0; i < this.wordsPerRow; i++)
+            {
+                count += Long.bitCount(this.words.get(r, i));
+            }
+
+            this.rowPopulation[r] = count;
+            this.stale[r] = true;
+            this.population += count;
+        }
+
+        this.delta.reset();
+        this.measured = false;
+    }
+
+    /**
+     * Record that the current step changed a row, from the band
+     * stepping it.
+     *
+     * @param row the row.
+     * @param populationDelta change of its number of live cells.
+     */
+    void rowChanged(int row, int populationDelta) {
+        this.rowPopulation[row] += populationDelta;
+        this.stale[row] = true;
+    }
+
+    /**
+     * Add a band's change of the number of live cells to the current step's.
+     */
+    void bandChanged(long populationDelta) {
+        if (populationDelta != 0)
+        {
+            this.delta.add(populationDelta);
+        }
+    }
+
+    /**
+     * Apply the changes of the step that just ended.
+     */
+    void stepEnded() {
+        this.population += this.delta.sumThenReset();
+        this.measured = false;
+    }
+
+    long getPopulation() {
+        return this.population;
+    }
+
+    long getRowPopulation(int row) {
+        return this.rowPopulation[row];
+    }
+
+    /**
+     * @return bounds of the live cells, or null if there are none.
+     */
+    Bounds getBounds() {
+        if (!this.measured)
+        {
+            this.bounds = this.measure();
+            this.measured = true;
+        }
+
+        return this.bounds;
+    }
+
+    private Bounds measure() {
+        int top = -1, bottom = -1;
+        int left = Integer.MAX_VALUE, right = -1;
+
+        for (int r = 0; r < this.rows; r++)
+        {
+            if (this.rowPopulation[r] == 0)
+            {
+                continue;
+            }
+
+            if (this.stale[r])
+            {
+                this.measureRow(r);
+                this.stale[r] = false;
+            }
+
+            if (top < 0)
+            {
+                top = r;
+            }
+            bottom = r;
+            left = Math.min(left, this.west[r]);
+            right = Math.max(right, this.east[r]);
+        }
+
+        return top < 0 ? null : new Bounds(top, left, bottom, right);
+    }
+
+    /**
+     * Find the first and last live columns of a row holding live cells.
+     */
+    private void measureRow(int r) {
+        int i = 0;
+        long word;
+        while ((word = this.words.get(r, i)) == 0)
+        {
+            i++;
+        }
+        this.west[r] = (i << 6) + Long.numberOfTrailingZeros(word);
+
+        i = this.wordsPerRow - 1;
+        while ((word = this.words.get(r, i)) == 0)
+        {
+            i--;
+        }
+        this.east[r] = (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+}
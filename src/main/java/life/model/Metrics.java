@@ -0,0 +1,340 @@
+package life.model;
+
+import jdk.jfr.EventType;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics measures a game as it steps, when set as the game's step
+ * listener: a histogram of step latencies, generations per second,
+ * population, changed cells, active tiles and the rate the stepping
+ * thread allocates at. The values can be read from any thread, and
+ * published through JMX with register.
+ *
+ * Steps are also emitted as life.Step events while a flight
+ * recording enables them.
+ */
+public final class Metrics implements StepListener, MetricsMBean {
+    private static final int BUCKETS = 64;                  // Bucket i counts steps of 2^i to 2^(i+1) - 1 nanoseconds.
+    private static final long RATE_WINDOW = 1_000_000_000L; // Nanoseconds rates are measured over.
+
+    private static final EventType STEP_EVENT = EventType.getEventType(StepEvent.class);
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    private volatile long generation;
+    private volatile long population;
+    private volatile long changedCells;
+    private volatile int activeTiles;
+
+    private volatile long steps;
+    private volatile long totalStepNanos;
+    private volatile long lastStepNanos;
+    private volatile long maxStepNanos;
+
+    private volatile double generationsPerSecond;
+    private volatile double allocatedBytesPerSecond;
+    private volatile double allocatedBytesPerGeneration;
+
+    // Only used by the thread stepping the game.
+    private long stepStart;
+    private StepEvent event;           // Null unless recording the current step.
+    private long windowStart;          // Time the current rate window started.
+    private long windowGeneration;     // Generation the current rate window started at.
+    private long windowThread = -1;    // Thread the window's allocation was read on.
+    private long windowAllocated = -1; // Bytes allocated by that thread when the window started, -1 if unknown.
+
+    private ObjectName name; // Name registered with JMX, null if not registered.
+
+    /**
+     * Start measuring a game.
+     *
+     * @param game game to measure, its step listener is replaced.
+     * @return the metrics of the game.
+     */
+    public static Metrics attach(Game game) {
+        Metrics metrics = new Metrics();
+        game.setStepListener(metrics);
+
+        return metrics;
+    }
+
+    @Override
+    public void stepStarted(Game game) {
+        if (STEP_EVENT.isEnabled())
+        {
+            this.event = new StepEvent();
+            this.event.begin();
+        }
+
+        this.stepStart = System.nanoTime();
+    }
+
+    @Override
+    public void stepEnded(Game game, long generations) {
+        final long now = System.nanoTime();
+        final long nanos = now - this.stepStart;
+
+        this.generation += generations;
+        this.population = game.getPopulation();
+        this.changedCells = game.getChangedCells();
+        this.activeTiles = game.getActiveTileCount();
+
+        this.histogram.incrementAndGet(Math.max(63 - Long.numberOfLeadingZeros(nanos), 0));
+        this.steps++;
+        this.totalStepNanos += nanos;
+        this.lastStepNanos = nanos;
+        if (nanos > this.maxStepNanos)
+        {
+            this.maxStepNanos = nanos;
+        }
+
+        if (this.event != null)
+        {
+            this.event.end();
+            if (this.event.shouldCommit())
+            {
+                this.event.engine = game.getClass().getSimpleName();
+                this.event.generation = this.generation;
+                this.event.generations = generations;
+                this.event.population = this.population;
+                this.event.changedCells = this.changedCells;
+                this.event.activeTiles = this.activeTiles;
+                this.event.commit();
+            }
+
+            this.event = null;
+        }
+
+        if (now - this.windowStart >= RATE_WINDOW)
+        {
+            this.updateRates(now);
+        }
+    }
+
+    /**
+     * Publish the metrics through the platform MBean server, as
+     * life:type=Metrics,name=[name].
+     *
+     * @param name name telling games apart.
+     */
+    public void register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("life:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Couldn't register metrics " + name + ".", e);
+        }
+    }
+
+    /**
+     * Stop publishing the metrics through JMX.
+     */
+    public void unregister() {
+        if (this.name == null)
+        {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+        }
+        catch (JMException e) {
+            // Already unregistered
+        }
+
+        this.name = null;
+    }
+
+    @Override
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * @return generations stepped per second, over the last second or so.
+     */
+    @Override
+    public double getGenerationsPerSecond() {
+        return this.generationsPerSecond;
+    }
+
+    @Override
+    public long getPopulation() {
+        return this.population;
+    }
+
+    /**
+     * @return cells changed by the last step, -1 if the engine doesn't count them.
+     */
+    @Override
+    public long getChangedCells() {
+        return this.changedCells;
+    }
+
+    /**
+     * @return tiles recomputed by the last step, -1 if the engine doesn't track tiles.
+     */
+    @Override
+    public int getActiveTileCount() {
+        return this.activeTiles;
+    }
+
+    @Override
+    public long getLastStepNanos() {
+        return this.lastStepNanos;
+    }
+
+    @Override
+    public double getMeanStepNanos() {
+        long steps = this.steps;
+        return steps == 0 ? 0 : (double) this.totalStepNanos / steps;
+    }
+
+    @Override
+    public long getMaxStepNanos() {
+        return this.maxStepNanos;
+    }
+
+    @Override
+    public long getMedianStepNanos() {
+        return this.getStepNanosPercentile(0.5);
+    }
+
+    @Override
+    public long getP99StepNanos() {
+        return this.getStepNanosPercentile(0.99);
+    }
+
+    /**
+     * @return number of steps in each bucket, bucket i counting steps
+     * of 2^i to 2^(i+1) - 1 nanoseconds.
+     */
+    @Override
+    public long[] getStepNanosHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            counts[i] = this.histogram.get(i);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Find the step latency below which the given fraction of steps
+     * fall, to within a factor of two.
+     *
+     * @param fraction fraction of steps, between 0 and 1.
+     * @return upper bound of the bucket holding the percentile, at
+     * most the slowest step, 0 if there were no steps.
+     */
+    public long getStepNanosPercentile(double fraction) {
+        long[] counts = this.getStepNanosHistogram();
+
+        long total = 0;
+        for (long count : counts)
+        {
+            total += count;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts[i];
+            if (seen > 0 && seen >= fraction * total)
+            {
+                return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, this.maxStepNanos);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return bytes allocated per second by the thread stepping the
+     * game, or -1 if the JVM doesn't measure allocation.
+     */
+    @Override
+    public double getAllocatedBytesPerSecond() {
+        return this.allocatedBytesPerSecond;
+    }
+
+    /**
+     * @return bytes allocated per generation by the thread stepping
+     * the game, or -1 if the JVM doesn't measure allocation.
+     */
+    @Override
+    public double getAllocatedBytesPerGeneration() {
+        return this.allocatedBytesPerGeneration;
+    }
+
+    /**
+     * Clear the latency histogram and its statistics.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            this.histogram.set(i, 0);
+        }
+
+        this.steps = 0;
+        this.totalStepNanos = 0;
+        this.maxStepNanos = 0;
+    }
+
+    /**
+     * Compute the rates of the window ending now and start a new one.
+     */
+    private void updateRates(long now) {
+        final long thread = Thread.currentThread().getId();
+        final long allocated = allocatedBytes(thread);
+
+        if (this.windowStart != 0)
+        {
+            double seconds = (now - this.windowStart) / 1e9;
+            long generations = this.generation - this.windowGeneration;
+            this.generationsPerSecond = generations / seconds;
+
+            // Allocation is per thread, so it's only known if the same thread stepped.
+            if (allocated >= 0 && this.windowAllocated >= 0 && thread == this.windowThread)
+            {
+                this.allocatedBytesPerSecond = (allocated - this.windowAllocated) / seconds;
+                this.allocatedBytesPerGeneration = generations == 0 ? 0
+                        : (double) (allocated - this.windowAllocated) / generations;
+            }
+            else
+            {
+                this.allocatedBytesPerSecond = this.allocatedBytesPerGeneration = -1;
+            }
+        }
+
+        this.windowStart = now;
+        this.windowGeneration = this.generation;
+        this.windowThread = thread;
+        this.windowAllocated = allocated;
+    }
+
+    /**
+     * @return bytes allocated by a thread, or -1 if the JVM doesn't measure it.
+     */
+    private static long allocatedBytes(long thread) {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled())
+            {
+                return allocation.getThreadAllocatedBytes(thread);
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,34 @@
+package life.model;
+
+/**
+ * Attributes of Metrics published through JMX.
+ */
+public interface MetricsMBean {
+    long getGeneration();
+
+    double getGenerationsPerSecond();
+
+    long getPopulation();
+
+    long getChangedCells();
+
+    int getActiveTileCount();
+
+    long getLastStepNanos();
+
+    double getMeanStepNanos();
+
+    long getMaxStepNanos();
+
+    long getMedianStepNanos();
+
+    long getP99StepNanos();
+
+    long[] getStepNanosHistogram();
+
+    double getAllocatedBytesPerSecond();
+
+    double getAllocatedBytesPerGeneration();
+
+    void reset();
+}
@@ -0,0 +1,428 @@
+package life.model;
+
+import java.nio.LongBuffer;
+
+/**
+ * OffHeapGame implements Game interface as PackedGame does, stepping
+ * 64 cells at a time, but keeps both grids outside the Java heap in
+ * OffHeapGrids. Heap use doesn't grow with the board, so boards may
+ * be far larger than the heap, and aren't scanned or moved by the
+ * garbage collector.
+ *
+ * Cycle detection isn't supported, as it keeps copies of the board
+ * on the heap. The live cells of every row are counted there, as
+ * PackedGame counts them, and reporting changes keeps a flag per
+ * row, only while a listener is set. The grids are released by close.
+ */
+public class OffHeapGame implements Game, AutoCloseable {
+    private final int rows;
+    private final int cols;
+
+    private final boolean wrap; // Whether edges wrap around.
+
+    private OffHeapGrid current; // States of the current generation.
+    private OffHeapGrid next;    // Buffer the next generation is written to.
+    private GridView view;       // Read-only views of both grids, swapped with them.
+    private GridView nextView;
+
+    private boolean[][] states; // Created on first call to nextConfig.
+
+    private final BandExecutor executor;  // Splits each step into bands of rows.
+    private final BandExecutor.Band band; // Steps a band, kept to avoid allocating per step.
+
+    private Rule rule = Rule.CONWAY;
+
+    private long changedCells; // Number of cells changed by previous step.
+    private final LiveCounts counts; // Live cells of each row, updated by steps.
+
+    private ChangeListener listener;   // Null unless reporting changes.
+    private StepListener stepListener; // Null unless told about steps.
+    private boolean[] changedRows;     // Rows changed by the current step, null unless reporting changes.
+
+    /**
+     * OffHeapGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param executor Executor used to step bands of rows.
+     */
+    public OffHeapGame(OffHeapGrid grid, Topology topology, BandExecutor executor) {
+        if (topology == Topology.UNBOUNDED)
+        {
+            throw new IllegalArgumentException("OffHeapGame doesn't support " + topology + " boards, use UnboundedGame.");
+        }
+
+        this.wrap = topology == Topology.TORUS;
+        this.executor = executor;
+        this.band = this::stepRows;
+
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+
+        this.current = grid;
+        // Chunked alike, so a row has the same offset in both grids.
+        this.next = new OffHeapGrid(this.rows, this.cols, grid.getChunkSize());
+        this.view = new ReadOnlyView(this.current);
+        this.nextView = new ReadOnlyView(this.next);
+
+        this.counts = new LiveCounts(this.rows, this.cols, (r, i) -> this.current.getWord(r, i));
+
+        // Compare against an empty board, as GameOfLife does.
+        this.changedCells = this.counts.getPopulation();
+    }
+
+    /**
+     * @return true if no cell changed during previous step.
+     */
+    @Override
+    public boolean isStatic() {
+        return this.changedCells == 0;
+    }
+
+    /**
+     * Find new game configuration and copy it to a boolean array.
+     * The array is reused between calls, and is as large as the
+     * board, so should be avoided on boards too large for the heap.
+     *
+     * @return a boolean array containing new states.
+     */
+    @Override
+    public boolean[][] nextConfig() {
+        this.step();
+
+        if (this.states == null)
+        {
+            this.states = new boolean[this.rows][this.cols];
+        }
+
+        this.current.copyTo(this.states);
+        return this.states;
+    }
+
+    /**
+     * Compute the next generation and swap grids.
+     *
+     * @throws IllegalStateException if the game was closed.
+     */
+    @Override
+    public void step() {
+        if (this.current.isClosed())
+        {
+            throw new IllegalStateException("Game was closed.");
+        }
+
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        this.changedCells = this.executor.run(this.rows, this.band);
+
+        OffHeapGrid temp = this.current;
+        this.current = this.next;
+        this.next = temp;
+
+        GridView tempView = this.view;
+        this.view = this.nextView;
+        this.nextView = tempView;
+
+        this.counts.stepEnded();
+
+        if (this.listener != null)
+        {
+            this.reportChanges();
+        }
+
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, 1);
+        }
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    /**
+     * Report cells changed by each step to a listener.
+     *
+     * @param listener listener to report to, null to stop reporting.
+     */
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+        this.changedRows = listener == null ? null : new boolean[this.rows];
+    }
+
+    @Override
+    public void setRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.current.get(row, col);
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return this.wrap ? Topology.TORUS : Topology.BOUNDED;
+    }
+
+    @Override
+    public long getPopulation() {
+        return this.counts.getPopulation();
+    }
+
+    /**
+     * @return a read-only view of the grid holding the current
+     * generation, which the step after next writes over.
+     */
+    @Override
+    public GridView getView() {
+        return this.view;
+    }
+
+    @Override
+    public int getViewLifetime() {
+        return 1;
+    }
+
+    @Override
+    public long getRowPopulation(int row) {
+        return this.counts.getRowPopulation(row);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return this.counts.getBounds();
+    }
+
+    @Override
+    public long getChangedCells() {
+        return this.changedCells;
+    }
+
+    /**
+     * @return grid holding the current generation. Cells written to it
+     * are only counted once the game is restarted.
+     */
+    public OffHeapGrid getGrid() {
+        return this.current;
+    }
+
+    /**
+     * Start again from the states written to getGrid(), keeping the
+     * game's buffers, rule and listeners.
+     */
+    public void restart() {
+        this.counts.recount();
+        this.changedCells = this.counts.getPopulation();
+    }
+
+    /**
+     * Release both grids. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        this.current.close();
+        this.next.close();
+    }
+
+    /**
+     * Report words of the rows changed by the previous step, found
+     * by comparing them with the previous generation, still held
+     * by the next buffer.
+     */
+    private void reportChanges() {
+        final int n = this.current.getWordsPerRow();
+
+        for (int r = 0; r < this.rows; r++)
+        {
+            if (!this.changedRows[r])
+            {
+                continue;
+            }
+
+            this.changedRows[r] = false;
+            for (int i = 0; i < n; i++)
+            {
+                long flipped = this.current.getWord(r, i) ^ this.next.getWord(r, i);
+                if (flipped != 0)
+                {
+                    this.listener.cellsChanged(r, i, flipped);
+                }
+            }
+        }
+
+        this.listener.generationEnded();
+    }
+
+    /**
+     * Write next states of the given rows. Each row is read through a
+     * sliding window of three words on it and on its neighbours, which
+     * may lie in other chunks.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of cells that changed.
+     */
+    private long stepRows(int from, int to) {
+        final OffHeapGrid src = this.current;
+        final OffHeapGrid dst = this.next;
+        final int n = src.getWordsPerRow();
+        final long lastMask = src.lastWordMask();
+        final boolean[] changedRows = this.changedRows;
+
+        long changed = 0;
+        long populationDelta = 0;
+        for (int r = from; r < to; r++)
+        {
+            final int upRow = this.neighbour(r - 1);
+            final int downRow = this.neighbour(r + 1);
+
+            final LongBuffer up = upRow < 0 ? null : src.chunk(upRow);
+            final LongBuffer mid = src.chunk(r);
+            final LongBuffer down = downRow < 0 ? null : src.chunk(downRow);
+            final LongBuffer out = dst.chunk(r);
+
+            final int upBase = upRow < 0 ? 0 : src.offset(upRow);
+            final int midBase = src.offset(r);
+            final int downBase = downRow < 0 ? 0 : src.offset(downRow);
+
+            long upWest = this.westEdge(up, upBase), midWest = this.westEdge(mid, midBase), downWest = this.westEdge(down, downBase);
+            long upWord = this.word(up, upBase, 0), midWord = this.word(mid, midBase, 0), downWord = this.word(down, downBase, 0);
+
+            long rowChanged = 0;
+            int rowDelta = 0;
+
+            for (int i = 0; i < n; i++)
+            {
+                long upEast, midEast, downEast;
+                if (i + 1 < n)
+                {
+                    upEast = this.word(up, upBase, i + 1);
+                    midEast = this.word(mid, midBase, i + 1);
+                    downEast = this.word(down, downBase, i + 1);
+                }
+                else
+                {
+                    upEast = this.eastEdge(up, upBase);
+                    midEast = this.eastEdge(mid, midBase);
+                    downEast = this.eastEdge(down, downBase);
+                }
+
+                long result = PackedGame.evolve(this.rule,
+                                                upWest, upWord, upEast,
+                                                midWest, midWord, midEast,
+                                                downWest, downWord, downEast);
+                if (i == n - 1)
+                {
+                    result &= lastMask;
+                }
+
+                long previous = mid.get(midBase + i);
+                out.put(midBase + i, result);
+                if (result != previous)
+                {
+                    rowChanged += Long.bitCount(result ^ previous);
+                    rowDelta += Long.bitCount(result) - Long.bitCount(previous);
+                }
+
+                upWest = upWord;
+                midWest = midWord;
+                downWest = downWord;
+
+                upWord = upEast;
+                midWord = midEast;
+                downWord = downEast;
+            }
+
+            if (rowChanged != 0)
+            {
+                this.counts.rowChanged(r, rowDelta);
+                if (changedRows != null)
+                {
+                    changedRows[r] = true;
+                }
+                changed += rowChanged;
+                populationDelta += rowDelta;
+            }
+        }
+
+        this.counts.bandChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * @return row next to a row, wrapped on a torus, or -1 if it's past a bounded edge.
+     */
+    private int neighbour(int r) {
+        if (r >= 0 && r < this.rows)
+        {
+            return r;
+        }
+
+        return this.wrap ? Math.floorMod(r, this.rows) : -1;
+    }
+
+    /**
+     * @return word i of a row, or 0 if the row doesn't exist. On a
+     * torus, column 0 is also copied to the bit past the last column,
+     * as the east neighbour of it.
+     */
+    private long word(LongBuffer chunk, int base, int i) {
+        if (chunk == null)
+        {
+            return 0;
+        }
+
+        long value = chunk.get(base + i);
+        if (this.wrap && i == this.current.getWordsPerRow() - 1 && (this.cols & 63) != 0)
+        {
+            value |= (chunk.get(base) & 1L) << this.cols;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the word west of a row's first word, only its highest bit is read.
+     */
+    private long westEdge(LongBuffer chunk, int base) {
+        if (chunk == null || !this.wrap)
+        {
+            return 0;
+        }
+
+        // West of column 0 is the last column.
+        int last = this.cols - 1;
+        return chunk.get(base + (last >>> 6)) << (63 - (last & 63));
+    }
+
+    /**
+     * @return the word east of a row's last word, only its lowest bit is read.
+     */
+    private long eastEdge(LongBuffer chunk, int base) {
+        // When the last word is full, its east neighbour is column 0.
+        return chunk != null && this.wrap && (this.cols & 63) == 0 ? chunk.get(base) : 0;
+    }
+}
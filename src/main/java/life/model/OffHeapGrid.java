@@ -0,0 +1,358 @@
+package life.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * OffHeapGrid stores cell states as packed bits, laid out as in
+ * BitGrid, in direct buffers outside the Java heap. The words are
+ * split into chunks of at most CHUNK_SIZE bytes holding whole rows,
+ * so a row is addressed by its chunk and the offset of its first
+ * word inside it, and boards may hold more than 2^31 words.
+ *
+ * The memory is released by close, after which the grid can't be
+ * used. It must not be closed while another thread reads it.
+ */
+public final class OffHeapGrid implements GridView, AutoCloseable {
+    public static final long CHUNK_SIZE = 1L << 30; // Largest chunk, in bytes.
+
+    private static final Method INVOKE_CLEANER; // Frees a direct buffer, null if unavailable.
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            // Buffers are freed once collected instead
+        }
+
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+    private final int rowsPerChunk; // Rows held by every chunk but the last.
+
+    private ByteBuffer[] buffers; // Memory of each chunk, null once closed.
+    private LongBuffer[] chunks;  // Words of each chunk, row-major.
+
+    /**
+     * OffHeapGrid constructor, all cells are initially dead.
+     *
+     * @param rows number of rows.
+     * @param cols number of columns.
+     * @throws OutOfMemoryError if there isn't enough direct memory.
+     */
+    public OffHeapGrid(int rows, int cols) {
+        this(rows, cols, CHUNK_SIZE);
+    }
+
+    /**
+     * OffHeapGrid constructor, all cells are initially dead.
+     *
+     * @param rows number of rows.
+     * @param cols number of columns.
+     * @param chunkSize largest chunk in bytes, at most CHUNK_SIZE, rounded
+     *                  down to whole rows but holding at least one.
+     * @throws OutOfMemoryError if there isn't enough direct memory.
+     */
+    public OffHeapGrid(int rows, int cols, long chunkSize) {
+        if (rows <= 0 || cols <= 0)
+        {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+
+        if (chunkSize <= 0 || chunkSize > CHUNK_SIZE)
+        {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + CHUNK_SIZE + ": " + chunkSize);
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        this.rowsPerChunk = (int) Math.max(Math.min(rows, chunkSize / 8 / this.wordsPerRow), 1);
+
+        int count = (rows + this.rowsPerChunk - 1) / this.rowsPerChunk;
+        this.buffers = new ByteBuffer[count];
+        this.chunks = new LongBuffer[count];
+
+        try {
+            for (int c = 0; c < count; c++)
+            {
+                int chunkRows = Math.min(this.rowsPerChunk, rows - c * this.rowsPerChunk);
+
+                // Direct buffers start zeroed.
+                this.buffers[c] = ByteBuffer.allocateDirect(chunkRows * this.wordsPerRow * 8).order(ByteOrder.nativeOrder());
+                this.chunks[c] = this.buffers[c].asLongBuffer();
+            }
+        }
+        catch (OutOfMemoryError e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create an OffHeapGrid holding the states of a grid.
+     *
+     * @param grid grid to copy.
+     * @return a new OffHeapGrid.
+     */
+    public static OffHeapGrid of(BitGrid grid) {
+        OffHeapGrid copy = new OffHeapGrid(grid.getRows(), grid.getCols());
+
+        long[] words = grid.words();
+        for (int r = 0; r < copy.rows; r++)
+        {
+            LongBuffer chunk = copy.chunk(r);
+            chunk.position(copy.offset(r));
+            chunk.put(words, r * copy.wordsPerRow, copy.wordsPerRow);
+        }
+
+        return copy;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * @return number of words used to store a single row.
+     */
+    @Override
+    public int getWordsPerRow() {
+        return this.wordsPerRow;
+    }
+
+    /**
+     * @return number of bytes in every chunk but the last, a whole number of rows.
+     */
+    public long getChunkSize() {
+        return (long) this.rowsPerChunk * this.wordsPerRow * 8;
+    }
+
+    /**
+     * @return number of bytes held outside the heap, 0 once closed.
+     */
+    public long getSize() {
+        return this.chunks == null ? 0 : (long) this.rows * this.wordsPerRow * 8;
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @return true if the cell is alive.
+     */
+    public boolean get(int row, int col) {
+        return (this.getWord(row, col >>> 6) & (1L << col)) != 0;
+    }
+
+    /**
+     * Same as get, as a GridView.
+     */
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.get(row, col);
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @param alive new state of the cell.
+     */
+    public void set(int row, int col, boolean alive) {
+        long word = this.getWord(row, col >>> 6);
+        this.setWord(row, col >>> 6, alive ? word | (1L << col) : word & ~(1L << col));
+    }
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @return a word holding 64 cells, column word * 64 + k at bit k.
+     */
+    @Override
+    public long getWord(int row, int word) {
+        this.checkWord(row, word);
+        return this.chunk(row).get(this.offset(row) + word);
+    }
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @param value new value, bits past the last column are dropped.
+     */
+    public void setWord(int row, int word, long value) {
+        this.checkWord(row, word);
+        if (word == this.wordsPerRow - 1)
+        {
+            value &= this.lastWordMask();
+        }
+
+        this.chunk(row).put(this.offset(row) + word, value);
+    }
+
+    /**
+     * @return a mask of the valid bits in the last word of a row.
+     */
+    public long lastWordMask() {
+        return -1L >>> (-this.cols & 63);
+    }
+
+    /**
+     * @return number of live cells.
+     */
+    public long population() {
+        long count = 0;
+        for (LongBuffer chunk : this.chunks())
+        {
+            for (int i = 0, size = chunk.capacity(); i < size; i++)
+            {
+                count += Long.bitCount(chunk.get(i));
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Write cell states to the given array.
+     *
+     * @param states an array of at least rows x cols.
+     */
+    public void copyTo(boolean[][] states) {
+        for (int i = 0; i < this.rows; i++)
+        {
+            boolean[] row = states[i];
+            for (int j = 0; j < this.cols; j++)
+            {
+                row[j] = this.get(i, j);
+            }
+        }
+    }
+
+    /**
+     * @return true once the memory has been released.
+     */
+    public boolean isClosed() {
+        return this.chunks == null;
+    }
+
+    /**
+     * Release the memory. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        ByteBuffer[] buffers = this.buffers;
+        if (buffers == null)
+        {
+            return;
+        }
+
+        this.buffers = null;
+        this.chunks = null;
+
+        if (INVOKE_CLEANER == null)
+        {
+            return;
+        }
+
+        for (ByteBuffer buffer : buffers)
+        {
+            if (buffer == null)
+            {
+                continue;
+            }
+
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            }
+            catch (ReflectiveOperationException e) {
+                // Freed once collected
+            }
+        }
+    }
+
+    /**
+     * @return words of every chunk.
+     * @throws IllegalStateException if the grid was closed.
+     */
+    LongBuffer[] chunks() {
+        LongBuffer[] chunks = this.chunks;
+        if (chunks == null)
+        {
+            throw new IllegalStateException("Grid was closed.");
+        }
+
+        return chunks;
+    }
+
+    /**
+     * @return words of the chunk holding a row.
+     */
+    LongBuffer chunk(int row) {
+        return this.chunks()[row / this.rowsPerChunk];
+    }
+
+    /**
+     * @return offset of a row's first word inside its chunk.
+     */
+    int offset(int row) {
+        return (row % this.rowsPerChunk) * this.wordsPerRow;
+    }
+
+    /**
+     * Copy words into the grid, in row-major order, as they're laid
+     * out in a BitGrid. Bits past the last column aren't cleared.
+     *
+     * @param start index of the first word written, counted from row 0.
+     * @param words words to write, read from their position to their limit.
+     */
+    void putWords(long start, LongBuffer words) {
+        final long chunkWords = (long) this.rowsPerChunk * this.wordsPerRow;
+
+        while (words.hasRemaining())
+        {
+            int c = (int) (start / chunkWords);
+            LongBuffer chunk = this.chunks()[c].duplicate();
+            chunk.position((int) (start - c * chunkWords));
+
+            // A window may end inside a chunk, or span the end of one.
+            int count = Math.min(words.remaining(), chunk.remaining());
+            LongBuffer run = words.slice();
+            run.limit(count);
+            chunk.put(run);
+
+            words.position(words.position() + count);
+            start += count;
+        }
+    }
+
+    /**
+     * Reject words outside the grid, which would otherwise be read
+     * from a neighbouring row of the chunk.
+     */
+    private void checkWord(int row, int word) {
+        if (row < 0 || row >= this.rows || word < 0 || word >= this.wordsPerRow)
+        {
+            throw new IndexOutOfBoundsException("Word " + word + " of row " + row + " is outside the grid.");
+        }
+    }
+}
@@ -0,0 +1,954 @@
+package life.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * PackedGame implements Game interface using bit-packed rows.
+ * Each generation is computed 64 cells at a time using bitwise
+ * adders over whole words, and written to a second grid which
+ * then replaces the current one.
+ *
+ * When tile tracking is enabled, the grid is divided into tiles of
+ * TILE_SIZE rows by one word, and a tile is only recomputed if it or
+ * one of its neighbours changed during the previous step. A skipped
+ * tile has the same states in both grids, so it needs no copying.
+ *
+ * Steps count the live cells they add and remove on every row, and
+ * on every tile when tracking tiles, so the population and bounds of
+ * the board are known without scanning it, see LiveCounts.
+ *
+ * On a TORUS board, words on the edges read their neighbours from
+ * the opposite edge. UNBOUNDED boards are handled by UnboundedGame.
+ */
+public class PackedGame implements Game {
+    public static final int TILE_SIZE = 64; // Rows in a tile, tiles are a word wide.
+
+    private final int rows;
+    private final int cols;
+
+    private final boolean wrap; // Whether edges wrap around.
+
+    private BitGrid current; // States of the current generation.
+    private BitGrid next;    // Buffer the next generation is written to.
+    private GridView view;   // Read-only views of both grids, swapped with them.
+    private GridView nextView;
+
+    private boolean[][] states; // Created on first call to nextConfig.
+
+    private final BandExecutor executor;  // Splits each step into bands of rows.
+    private final BandExecutor.Band band; // Steps a band, kept to avoid allocating per step.
+
+    private Rule rule = Rule.CONWAY;
+
+    private long changedCells; // Number of cells changed by previous step.
+    private final LiveCounts counts; // Live cells of each row, updated by steps.
+
+    private CycleDetector detector; // Null unless detecting cycles.
+
+    private ChangeListener listener; // Null unless reporting changes.
+    private StepListener stepListener; // Null unless told about steps.
+    private boolean[] changedRows;   // Rows changed by the current step, null unless reporting changes.
+    private final LongAccumulator hashDelta = new LongAccumulator((a, b) -> a ^ b, 0); // Collects hash changes of bands.
+
+    private final int tileRows; // Number of rows of tiles, 0 if tiles aren't tracked.
+    private boolean[] changedTiles;     // Tiles changed by previous step, row-major.
+    private boolean[] nextChangedTiles; // Tiles changed by the current step.
+    private final boolean[] activeTiles; // Tiles recomputed by the current step.
+    private int activeTileCount;         // Number of tiles recomputed by previous step.
+    private final int[] tilePopulation;  // Live cells of each tile.
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param states An array containing initial square states.
+     */
+    public PackedGame(boolean[][] states) {
+        this(BitGrid.of(states));
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     */
+    public PackedGame(BitGrid grid) {
+        this(grid, BandExecutor.SEQUENTIAL);
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param executor Executor used to step bands of rows.
+     */
+    public PackedGame(boolean[][] states, BandExecutor executor) {
+        this(BitGrid.of(states), executor);
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param executor Executor used to step bands of rows.
+     */
+    public PackedGame(BitGrid grid, BandExecutor executor) {
+        this(grid, executor, false);
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param executor Executor used to step bands of rows, or of tile rows if tracking tiles.
+     * @param trackTiles true to only recompute tiles near previous changes.
+     */
+    public PackedGame(BitGrid grid, BandExecutor executor, boolean trackTiles) {
+        this(grid, Topology.BOUNDED, executor, trackTiles);
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param states An array containing initial square states.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     */
+    public PackedGame(boolean[][] states, Topology topology) {
+        this(BitGrid.of(states), topology, BandExecutor.SEQUENTIAL, false);
+    }
+
+    /**
+     * PackedGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param executor Executor used to step bands of rows, or of tile rows if tracking tiles.
+     * @param trackTiles true to only recompute tiles near previous changes.
+     */
+    public PackedGame(BitGrid grid, Topology topology, BandExecutor executor, boolean trackTiles) {
+        if (topology == Topology.UNBOUNDED)
+        {
+            throw new IllegalArgumentException("PackedGame doesn't support " + topology + " boards, use UnboundedGame.");
+        }
+
+        this.wrap = topology == Topology.TORUS;
+
+        this.executor = executor;
+        if (trackTiles)
+        {
+            this.band = this::stepTiles;
+        }
+        else
+        {
+            this.band = this.wrap ? this::stepWrappedRows : this::stepRows;
+        }
+
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+
+        this.current = grid;
+        this.next = new BitGrid(this.rows, this.cols);
+        this.view = new ReadOnlyView(this.current);
+        this.nextView = new ReadOnlyView(this.next);
+
+        if (trackTiles)
+        {
+            this.tileRows = (this.rows + TILE_SIZE - 1) / TILE_SIZE;
+
+            int tiles = Math.multiplyExact(this.tileRows, grid.getWordsPerRow());
+            this.changedTiles = new boolean[tiles];
+            this.nextChangedTiles = new boolean[tiles];
+            this.activeTiles = new boolean[tiles];
+            this.tilePopulation = new int[tiles];
+
+            // Every tile is computed on the first step.
+            Arrays.fill(this.changedTiles, true);
+        }
+        else
+        {
+            this.tileRows = 0;
+            this.activeTiles = null;
+            this.tilePopulation = null;
+        }
+
+        this.counts = new LiveCounts(this.rows, this.cols, (r, i) -> this.current.getWord(r, i));
+        this.countTiles();
+
+        // Compare against an empty board, as GameOfLife does.
+        this.changedCells = this.counts.getPopulation();
+    }
+
+    /**
+     * @return true if no cell changed during previous step.
+     */
+    @Override
+    public boolean isStatic() {
+        return this.changedCells == 0;
+    }
+
+    /**
+     * Find new game configuration and copy it to a boolean array.
+     * The array is reused between calls.
+     *
+     * @return a boolean array containing new states.
+     */
+    @Override
+    public boolean[][] nextConfig() {
+        this.step();
+
+        if (this.states == null)
+        {
+            this.states = new boolean[this.rows][this.cols];
+        }
+
+        this.current.copyTo(this.states);
+        return this.states;
+    }
+
+    /**
+     * Compute the next generation and swap grids.
+     */
+    @Override
+    public void step() {
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        if (this.tileRows == 0)
+        {
+            this.changedCells = this.executor.run(this.rows, this.band);
+        }
+        else
+        {
+            this.markActiveTiles();
+            this.changedCells = this.executor.run(this.tileRows, this.band);
+
+            boolean[] tiles = this.changedTiles;
+            this.changedTiles = this.nextChangedTiles;
+            this.nextChangedTiles = tiles;
+        }
+
+        BitGrid temp = this.current;
+        this.current = this.next;
+        this.next = temp;
+
+        GridView tempView = this.view;
+        this.view = this.nextView;
+        this.nextView = tempView;
+
+        this.counts.stepEnded();
+
+        if (this.detector != null)
+        {
+            this.detector.step(this.hashDelta.getThenReset());
+        }
+
+        if (this.listener != null)
+        {
+            this.reportChanges();
+        }
+
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, 1);
+        }
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    /**
+     * Report cells changed by each step to a listener.
+     *
+     * @param listener listener to report to, null to stop reporting.
+     */
+    @Override
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+        this.changedRows = listener == null ? null : new boolean[this.rows];
+    }
+
+    /**
+     * Set the rule cells evolve by.
+     *
+     * @param rule the rule.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        this.rule = rule;
+
+        if (this.tileRows != 0)
+        {
+            // Tiles that didn't change may change under the new rule.
+            Arrays.fill(this.changedTiles, true);
+        }
+
+        if (this.detector != null)
+        {
+            this.setMaxPeriod(this.detector.getMaxPeriod());
+        }
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Start detecting boards that repeat with up to the given period.
+     *
+     * @param maxPeriod largest period to detect.
+     */
+    @Override
+    public void setMaxPeriod(int maxPeriod) {
+        long[] words = this.current.words();
+
+        long hash = 0;
+        for (int i = 0; i < words.length; i++)
+        {
+            hash ^= CycleDetector.mix(i, words[i]);
+        }
+
+        this.detector = new CycleDetector(new CycleDetector.Board() {
+            @Override
+            public Object snapshot() {
+                return current.words().clone();
+            }
+
+            @Override
+            public boolean matches(Object snapshot) {
+                return Arrays.equals(current.words(), (long[]) snapshot);
+            }
+        }, maxPeriod, hash);
+    }
+
+    /**
+     * @return period the board is proven to repeat with, or 0.
+     */
+    @Override
+    public int getPeriod() {
+        return this.detector == null ? 0 : this.detector.getPeriod();
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.current.get(row, col);
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return this.wrap ? Topology.TORUS : Topology.BOUNDED;
+    }
+
+    @Override
+    public long getPopulation() {
+        return this.counts.getPopulation();
+    }
+
+    /**
+     * @return a read-only view of the grid holding the current
+     * generation, which the step after next writes over.
+     */
+    @Override
+    public GridView getView() {
+        return this.view;
+    }
+
+    @Override
+    public int getViewLifetime() {
+        return 1;
+    }
+
+    @Override
+    public long getRowPopulation(int row) {
+        return this.counts.getRowPopulation(row);
+    }
+
+    /**
+     * @return bounds of the live cells, found from the row counts and
+     * the ends of the rows changed since the last call.
+     */
+    @Override
+    public Bounds getBounds() {
+        return this.counts.getBounds();
+    }
+
+    @Override
+    public long getChangedCells() {
+        return this.changedCells;
+    }
+
+    /**
+     * @return number of tiles recomputed by previous step, or
+     * -1 if tiles aren't tracked.
+     */
+    @Override
+    public int getActiveTileCount() {
+        return this.activeTiles == null ? -1 : this.activeTileCount;
+    }
+
+    /**
+     * @return number of tiles on the board, or -1 if tiles aren't tracked.
+     */
+    public int getTileCount() {
+        return this.activeTiles == null ? -1 : this.activeTiles.length;
+    }
+
+    /**
+     * @param tileRow row of tiles.
+     * @param tileCol column of tiles, the index of their word in a row.
+     * @return number of live cells of the tile.
+     * @throws UnsupportedOperationException if tiles aren't tracked.
+     */
+    public int getTilePopulation(int tileRow, int tileCol) {
+        if (this.tilePopulation == null)
+        {
+            throw new UnsupportedOperationException("Tiles aren't tracked.");
+        }
+        if (tileRow < 0 || tileRow >= this.tileRows || tileCol < 0 || tileCol >= this.current.getWordsPerRow())
+        {
+            throw new IndexOutOfBoundsException("No tile " + tileRow + ", " + tileCol);
+        }
+
+        return this.tilePopulation[tileRow * this.current.getWordsPerRow() + tileCol];
+    }
+
+    /**
+     * @return grid holding the current generation. Cells written to it
+     * are only counted once the game is restarted.
+     */
+    public BitGrid getGrid() {
+        return this.current;
+    }
+
+    /**
+     * Start again from the states written to getGrid(), keeping the
+     * game's buffers, rule and listeners. The next step recomputes the
+     * whole board, and cycle detection restarts from the new states.
+     */
+    public void restart() {
+        this.counts.recount();
+        this.countTiles();
+
+        this.changedCells = this.counts.getPopulation();
+        this.hashDelta.reset();
+
+        if (this.tileRows != 0)
+        {
+            Arrays.fill(this.changedTiles, true);
+        }
+
+        if (this.detector != null)
+        {
+            this.setMaxPeriod(this.detector.getMaxPeriod());
+        }
+    }
+
+    /**
+     * Count the live cells of every tile, if tracking tiles.
+     */
+    private void countTiles() {
+        if (this.tilePopulation == null)
+        {
+            return;
+        }
+
+        final int n = this.current.getWordsPerRow();
+
+        Arrays.fill(this.tilePopulation, 0);
+        for (int r = 0; r < this.rows; r++)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                this.tilePopulation[r / TILE_SIZE * n + i] += Long.bitCount(this.current.getWord(r, i));
+            }
+        }
+    }
+
+    /**
+     * Report words of the rows changed by the previous step, found
+     * by comparing them with the previous generation, still held
+     * by the next buffer.
+     */
+    private void reportChanges() {
+        final int n = this.current.getWordsPerRow();
+
+        for (int r = 0; r < this.rows; r++)
+        {
+            if (!this.changedRows[r])
+            {
+                continue;
+            }
+
+            this.changedRows[r] = false;
+            for (int i = 0; i < n; i++)
+            {
+                long flipped = this.current.getWord(r, i) ^ this.next.getWord(r, i);
+                if (flipped != 0)
+                {
+                    this.listener.cellsChanged(r, i, flipped);
+                }
+            }
+        }
+
+        this.listener.generationEnded();
+    }
+
+    /**
+     * @return grid the next generation is written to.
+     */
+    BitGrid getBuffer() {
+        return this.next;
+    }
+
+    /**
+     * @return true if steps must collect hash changes for the cycle detector.
+     */
+    boolean isHashing() {
+        return this.detector != null;
+    }
+
+    /**
+     * Record a row changed by the current step, and flag it if
+     * reporting changes.
+     *
+     * @param r the row.
+     * @param populationDelta change of its number of live cells.
+     */
+    void rowChanged(int r, int populationDelta) {
+        this.counts.rowChanged(r, populationDelta);
+        if (this.changedRows != null)
+        {
+            this.changedRows[r] = true;
+        }
+    }
+
+    /**
+     * Add the population change of a band to the current step's.
+     */
+    void populationChanged(long delta) {
+        this.counts.bandChanged(delta);
+    }
+
+    /**
+     * Add the hash change of a band to the current step's.
+     */
+    void hashChanged(long delta) {
+        if (delta != 0)
+        {
+            this.hashDelta.accumulate(delta);
+        }
+    }
+
+    /**
+     * Write next states of the given rows of a bounded board,
+     * replaced by engines computing several words at once.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of cells that changed.
+     */
+    long stepRows(int from, int to) {
+        final long[] src = this.current.words();
+        final long[] dst = this.next.words();
+        final int n = this.current.getWordsPerRow();
+        final long lastMask = this.current.lastWordMask();
+
+        final boolean hashing = this.detector != null;
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int r = from; r < to; r++)
+        {
+            final int base = r * n;
+            final int up = r > 0 ? base - n : -1;
+            final int down = r < this.rows - 1 ? base + n : -1;
+
+            long rowChanged = 0;
+            int rowDelta = 0;
+
+            // Sliding window of three words on each of the three rows.
+            long upWest = 0, midWest = 0, downWest = 0;
+            long upWord = word(src, up, 0), midWord = src[base], downWord = word(src, down, 0);
+
+            for (int i = 0; i < n; i++)
+            {
+                long upEast = 0, midEast = 0, downEast = 0;
+                if (i + 1 < n)
+                {
+                    upEast = word(src, up, i + 1);
+                    midEast = src[base + i + 1];
+                    downEast = word(src, down, i + 1);
+                }
+
+                long result = evolve(this.rule,
+                                     upWest, upWord, upEast,
+                                     midWest, midWord, midEast,
+                                     downWest, downWord, downEast);
+                if (i == n - 1)
+                {
+                    result &= lastMask;
+                }
+
+                dst[base + i] = result;
+                if (result != midWord)
+                {
+                    rowChanged += Long.bitCount(result ^ midWord);
+                    rowDelta += Long.bitCount(result) - Long.bitCount(midWord);
+                    if (hashing)
+                    {
+                        delta ^= CycleDetector.mix(base + i, midWord) ^ CycleDetector.mix(base + i, result);
+                    }
+                }
+
+                upWest = upWord;
+                midWest = midWord;
+                downWest = downWord;
+
+                upWord = upEast;
+                midWord = midEast;
+                downWord = downEast;
+            }
+
+            if (rowChanged != 0)
+            {
+                this.rowChanged(r, rowDelta);
+                changed += rowChanged;
+                populationDelta += rowDelta;
+            }
+        }
+
+        if (delta != 0)
+        {
+            this.hashDelta.accumulate(delta);
+        }
+        this.counts.bandChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * Mark tiles that changed during previous step, and their
+     * neighbours, as active.
+     */
+    private void markActiveTiles() {
+        final int n = this.current.getWordsPerRow();
+
+        this.activeTileCount = 0;
+        for (int tr = 0; tr < this.tileRows; tr++)
+        {
+            for (int tc = 0; tc < n; tc++)
+            {
+                boolean active = false;
+                for (int i = tr - 1; i <= tr + 1 && !active; i++)
+                {
+                    for (int j = tc - 1; j <= tc + 1 && !active; j++)
+                    {
+                        if (this.wrap)
+                        {
+                            active = this.changedTiles[Math.floorMod(i, this.tileRows) * n + Math.floorMod(j, n)];
+                        }
+                        else if (i >= 0 && i < this.tileRows && j >= 0 && j < n)
+                        {
+                            active = this.changedTiles[i * n + j];
+                        }
+                    }
+                }
+
+                this.activeTiles[tr * n + tc] = active;
+                if (active)
+                {
+                    this.activeTileCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write next states of the active tiles in the given rows of tiles.
+     *
+     * @param from first row of tiles, inclusive.
+     * @param to last row of tiles, exclusive.
+     * @return number of cells that changed.
+     */
+    private long stepTiles(int from, int to) {
+        final long[] src = this.current.words();
+        final long[] dst = this.next.words();
+        final int n = this.current.getWordsPerRow();
+
+        final boolean hashing = this.detector != null;
+        final boolean[] changedRows = this.changedRows;
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int tr = from; tr < to; tr++)
+        {
+            final int rowStart = tr * TILE_SIZE;
+            final int rowEnd = Math.min(rowStart + TILE_SIZE, this.rows);
+
+            for (int tc = 0; tc < n; tc++)
+            {
+                final int tile = tr * n + tc;
+                if (!this.activeTiles[tile])
+                {
+                    this.nextChangedTiles[tile] = false;
+                    continue;
+                }
+
+                long tileChanged = 0;
+                int tileDelta = 0;
+                for (int r = rowStart; r < rowEnd; r++)
+                {
+                    final int index = r * n + tc;
+                    final long result = this.evolveAt(src, r, tc);
+
+                    dst[index] = result;
+                    if (result != src[index])
+                    {
+                        final int wordDelta = Long.bitCount(result) - Long.bitCount(src[index]);
+                        tileChanged += Long.bitCount(result ^ src[index]);
+                        tileDelta += wordDelta;
+                        this.counts.rowChanged(r, wordDelta);
+                        if (changedRows != null)
+                        {
+                            changedRows[r] = true;
+                        }
+                        if (hashing)
+                        {
+                            delta ^= CycleDetector.mix(index, src[index]) ^ CycleDetector.mix(index, result);
+                        }
+                    }
+                }
+
+                this.nextChangedTiles[tile] = tileChanged != 0;
+                this.tilePopulation[tile] += tileDelta;
+                changed += tileChanged;
+                populationDelta += tileDelta;
+            }
+        }
+
+        if (delta != 0)
+        {
+            this.hashDelta.accumulate(delta);
+        }
+        this.counts.bandChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * Write next states of the given rows, wrapping around the edges.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of cells that changed.
+     */
+    private long stepWrappedRows(int from, int to) {
+        final long[] src = this.current.words();
+        final long[] dst = this.next.words();
+        final int n = this.current.getWordsPerRow();
+
+        final boolean hashing = this.detector != null;
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int r = from; r < to; r++)
+        {
+            long rowChanged = 0;
+            int rowDelta = 0;
+            for (int i = 0; i < n; i++)
+            {
+                final int index = r * n + i;
+                final long result = this.evolveAt(src, r, i);
+
+                dst[index] = result;
+                if (result != src[index])
+                {
+                    rowChanged += Long.bitCount(result ^ src[index]);
+                    rowDelta += Long.bitCount(result) - Long.bitCount(src[index]);
+                    if (hashing)
+                    {
+                        delta ^= CycleDetector.mix(index, src[index]) ^ CycleDetector.mix(index, result);
+                    }
+                }
+            }
+
+            if (rowChanged != 0)
+            {
+                this.rowChanged(r, rowDelta);
+                changed += rowChanged;
+                populationDelta += rowDelta;
+            }
+        }
+
+        if (delta != 0)
+        {
+            this.hashDelta.accumulate(delta);
+        }
+        this.counts.bandChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * Compute the next states of a single word, reading each of its
+     * neighbours separately.
+     *
+     * @param src words of the current generation.
+     * @param r row of the word.
+     * @param i index of the word inside the row.
+     * @return the next states of the word's cells.
+     */
+    private long evolveAt(long[] src, int r, int i) {
+        final int n = this.current.getWordsPerRow();
+        final int up = this.rowBase(r - 1);
+        final int mid = r * n;
+        final int down = this.rowBase(r + 1);
+
+        long result = evolve(this.rule,
+                             this.westOf(src, up, i), this.wordAt(src, up, i), this.eastOf(src, up, i),
+                             this.westOf(src, mid, i), this.wordAt(src, mid, i), this.eastOf(src, mid, i),
+                             this.westOf(src, down, i), this.wordAt(src, down, i), this.eastOf(src, down, i));
+
+        return i == n - 1 ? result & this.current.lastWordMask() : result;
+    }
+
+    /**
+     * @return offset of a row's first word, or -1 if the row is past a bounded edge.
+     */
+    private int rowBase(int r) {
+        if (r < 0 || r >= this.rows)
+        {
+            if (!this.wrap)
+            {
+                return -1;
+            }
+
+            r = Math.floorMod(r, this.rows);
+        }
+
+        return r * this.current.getWordsPerRow();
+    }
+
+    /**
+     * @return word i of a row. On a torus, column 0 is also copied
+     * to the bit past the last column, as the east neighbour of it.
+     */
+    private long wordAt(long[] src, int base, int i) {
+        if (base < 0)
+        {
+            return 0;
+        }
+
+        long value = src[base + i];
+        if (this.wrap && i == this.current.getWordsPerRow() - 1 && (this.cols & 63) != 0)
+        {
+            value |= (src[base] & 1L) << this.cols;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the word west of word i of a row, only its highest bit is read.
+     */
+    private long westOf(long[] src, int base, int i) {
+        if (base < 0)
+        {
+            return 0;
+        }
+        else if (i > 0)
+        {
+            return src[base + i - 1];
+        }
+
+        // West of column 0 is the last column.
+        int last = this.cols - 1;
+        return this.wrap ? src[base + (last >>> 6)] << (63 - (last & 63)) : 0;
+    }
+
+    /**
+     * @return the word east of word i of a row, only its lowest bit is read.
+     */
+    private long eastOf(long[] src, int base, int i) {
+        if (base < 0)
+        {
+            return 0;
+        }
+        else if (i < this.current.getWordsPerRow() - 1)
+        {
+            return src[base + i + 1];
+        }
+
+        // When the last word is full, its east neighbour is column 0.
+        return this.wrap && (this.cols & 63) == 0 ? src[base] : 0;
+    }
+
+    /**
+     * @return word at the given offset of a row, or 0 if the row doesn't exist.
+     */
+    private static long word(long[] words, int rowBase, int i) {
+        return rowBase < 0 ? 0 : words[rowBase + i];
+    }
+
+    /**
+     * Compute the next state of 64 cells at once. Each argument is
+     * a word of cells, the center word being mid, with words to the
+     * west (lower columns) and east (higher columns) of it on the
+     * rows above and below.
+     *
+     * @param rule rule applied to the neighbour counts.
+     * @return the next states of the cells in mid.
+     */
+    static long evolve(Rule rule,
+                       long upWest, long up, long upEast,
+                       long midWest, long mid, long midEast,
+                       long downWest, long down, long downEast) {
+        // Neighbours to the west and east of every cell.
+        long a = (up << 1) | (upWest >>> 63);
+        long c = (up >>> 1) | (upEast << 63);
+        long d = (mid << 1) | (midWest >>> 63);
+        long f = (mid >>> 1) | (midEast << 63);
+        long g = (down << 1) | (downWest >>> 63);
+        long i = (down >>> 1) | (downEast << 63);
+
+        // Sum each row into a two bit number.
+        long upSum = a ^ up ^ c;
+        long upCarry = (a & up) | (c & (a ^ up));
+        long midSum = d ^ f;
+        long midCarry = d & f;
+        long downSum = g ^ down ^ i;
+        long downCarry = (g & down) | (i & (g ^ down));
+
+        // Add the low bits, then the twos, into a four bit count.
+        long ones = upSum ^ midSum ^ downSum;
+        long onesCarry = (upSum & midSum) | (downSum & (upSum ^ midSum));
+
+        long twosPartial = upCarry ^ midCarry ^ downCarry;
+        long foursPartial = (upCarry & midCarry) | (downCarry & (upCarry ^ midCarry));
+
+        long twos = twosPartial ^ onesCarry;
+        long twosCarry = twosPartial & onesCarry;
+        long fours = foursPartial ^ twosCarry;
+        long eights = foursPartial & twosCarry;
+
+        return rule.next(mid, ones, twos, fours, eights);
+    }
+}
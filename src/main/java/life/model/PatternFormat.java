@@ -0,0 +1,32 @@
+package life.model;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * PatternFormat lists the pattern file formats that can be
+ * read and written.
+ */
+public enum PatternFormat {
+    /**
+     * Run length encoded, with a header giving the size and rule.
+     */
+    RLE,
+
+    /**
+     * Plaintext .cells, one line per row, 'O' being alive and '.' dead.
+     */
+    PLAINTEXT;
+
+    /**
+     * Find the format of a file by its extension, .rle being RLE
+     * and anything else plaintext.
+     *
+     * @param path path of the file.
+     * @return the file's format.
+     */
+    public static PatternFormat of(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".rle") ? RLE : PLAINTEXT;
+    }
+}
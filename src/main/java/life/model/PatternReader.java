@@ -0,0 +1,451 @@
+package life.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * PatternReader reads RLE and plaintext pattern files. Files are
+ * parsed a character at a time and every live cell is written
+ * straight to a BitGrid, or to a CellSink, so large patterns are
+ * never held as text or as an array of booleans.
+ *
+ * Opening a file finds the pattern's size, from the header of an
+ * RLE file or by scanning a plaintext one, so the grid can be
+ * allocated before the cells are read.
+ */
+public final class PatternReader {
+    /**
+     * Receives live cells as they're parsed.
+     */
+    public interface CellSink {
+        /**
+         * @param row row of a live cell, from the top of the pattern.
+         * @param col column of a live cell, from the left of the pattern.
+         */
+        void setAlive(int row, int col);
+    }
+
+    private final Path path;
+    private final PatternFormat format;
+
+    private int rows; // Size of the pattern.
+    private int cols;
+    private Rule rule; // Rule given by the file, null if none.
+
+    private PatternReader(Path path, PatternFormat format) {
+        this.path = path;
+        this.format = format;
+    }
+
+    /**
+     * Open a pattern file, its format given by its extension.
+     *
+     * @param path path of the file.
+     * @return a reader of the pattern.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the pattern is empty or malformed.
+     */
+    public static PatternReader open(Path path) throws IOException {
+        return open(path, PatternFormat.of(path));
+    }
+
+    /**
+     * Open a pattern file.
+     *
+     * @param path path of the file.
+     * @param format format of the file.
+     * @return a reader of the pattern.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the pattern is empty or malformed.
+     */
+    public static PatternReader open(Path path, PatternFormat format) throws IOException {
+        PatternReader reader = new PatternReader(path, format);
+        try (Input in = reader.input()) {
+            if (format == PatternFormat.RLE)
+            {
+                reader.readHeader(in);
+            }
+            else
+            {
+                reader.measurePlaintext(in);
+            }
+        }
+
+        if (reader.rows <= 0 || reader.cols <= 0)
+        {
+            throw new IllegalArgumentException("Pattern is empty: " + path);
+        }
+
+        return reader;
+    }
+
+    /**
+     * @return number of rows of the pattern.
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return number of columns of the pattern.
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * @return rule given by the file, or null if it doesn't give one.
+     */
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Read the pattern into a grid of its own size.
+     *
+     * @return a new grid holding the pattern.
+     * @throws IOException if the file can't be read.
+     */
+    public BitGrid read() throws IOException {
+        return this.read(this.rows, this.cols);
+    }
+
+    /**
+     * Read the pattern into the center of a larger grid.
+     *
+     * @param rows number of rows of the grid.
+     * @param cols number of columns of the grid.
+     * @return a new grid holding the pattern.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the pattern doesn't fit in the grid.
+     */
+    public BitGrid read(int rows, int cols) throws IOException {
+        if (rows < this.rows || cols < this.cols)
+        {
+            throw new IllegalArgumentException("Pattern of " + this.rows + "x" + this.cols
+                    + " doesn't fit in the board.");
+        }
+
+        BitGrid grid = new BitGrid(rows, cols);
+        final int top = (rows - this.rows) / 2;
+        final int left = (cols - this.cols) / 2;
+
+        this.read((row, col) -> grid.set(top + row, left + col, true));
+        return grid;
+    }
+
+    /**
+     * Parse the pattern, passing every live cell to a sink.
+     *
+     * @param sink sink receiving live cells.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the pattern is malformed.
+     */
+    public void read(CellSink sink) throws IOException {
+        try (Input in = this.input()) {
+            if (this.format == PatternFormat.RLE)
+            {
+                this.readHeader(in);
+                this.parseRle(in, sink);
+            }
+            else
+            {
+                this.parsePlaintext(in, sink);
+            }
+        }
+    }
+
+    /**
+     * Read the lines of an RLE file up to and including the
+     * header, "x = cols, y = rows" optionally followed by ", rule = B3/S23".
+     */
+    private void readHeader(Input in) throws IOException {
+        String line;
+        do
+        {
+            line = in.readLine();
+            if (line == null)
+            {
+                throw new IllegalArgumentException("Missing RLE header: " + this.path);
+            }
+
+            line = line.trim();
+        }
+        while (line.isEmpty() || line.startsWith("#"));
+
+        // The rule comes last and may hold commas, as in "B3/S23:T100,100".
+        String size = line;
+        int ruleAt = line.indexOf("rule");
+        if (ruleAt >= 0)
+        {
+            size = line.substring(0, ruleAt);
+
+            String value = line.substring(line.indexOf('=', ruleAt) + 1).trim();
+            int colon = value.indexOf(':');
+            this.rule = Rule.parse(colon < 0 ? value : value.substring(0, colon));
+        }
+
+        this.rows = this.cols = -1;
+        for (String field : size.split(","))
+        {
+            String[] pair = field.split("=", 2);
+            if (pair.length != 2)
+            {
+                continue;
+            }
+
+            try {
+                switch (pair[0].trim())
+                {
+                    case "x":
+                        this.cols = Integer.parseInt(pair[1].trim());
+                        break;
+                    case "y":
+                        this.rows = Integer.parseInt(pair[1].trim());
+                        break;
+                    default:
+                        // Ignore fields of other programs.
+                }
+            }
+            catch (NumberFormatException e) {
+                throw in.error("Malformed RLE header \"" + line + "\"");
+            }
+        }
+
+        if (this.rows < 0 || this.cols < 0)
+        {
+            throw in.error("RLE header \"" + line + "\" doesn't give the size");
+        }
+    }
+
+    /**
+     * Parse the runs following an RLE header, such as "bo$2bo$3o!".
+     */
+    private void parseRle(Input in, CellSink sink) throws IOException {
+        int row = 0, col = 0;
+        int count = 0; // Length of the next run, 0 if not given.
+
+        for (int c = in.read(); c != -1 && c != '!'; c = in.read())
+        {
+            if (c >= '0' && c <= '9')
+            {
+                count = count * 10 + (c - '0');
+                if (count > this.rows + this.cols)
+                {
+                    throw in.error("Run of " + count + " doesn't fit in " + this.rows + "x" + this.cols);
+                }
+                continue;
+            }
+
+            if (Character.isWhitespace(c))
+            {
+                continue;
+            }
+
+            int run = count == 0 ? 1 : count;
+            count = 0;
+
+            switch (c)
+            {
+                case 'b':
+                case '.':
+                    col += run;
+                    break;
+                case 'o':
+                    if (row >= this.rows || col + run > this.cols)
+                    {
+                        throw in.error("Cells outside of the " + this.rows + "x" + this.cols + " header size");
+                    }
+
+                    for (int end = col + run; col < end; col++)
+                    {
+                        sink.setAlive(row, col);
+                    }
+                    break;
+                case '$':
+                    row += run;
+                    col = 0;
+                    break;
+                default:
+                    throw in.error("Unexpected '" + (char) c + "'");
+            }
+        }
+    }
+
+    /**
+     * Find the size of a plaintext pattern, where lines starting
+     * with '!' are comments.
+     */
+    private void measurePlaintext(Input in) throws IOException {
+        boolean lineStart = true, comment = false;
+        int length = 0;
+
+        for (int c = in.read(); ; c = in.read())
+        {
+            if (c == -1 || c == '\n')
+            {
+                // A last line without a line break only counts if it isn't empty.
+                if (!comment && (c == '\n' || !lineStart))
+                {
+                    this.rows++;
+                    this.cols = Math.max(this.cols, length);
+                }
+
+                if (c == -1)
+                {
+                    return;
+                }
+
+                lineStart = true;
+                comment = false;
+                length = 0;
+                continue;
+            }
+
+            if (lineStart)
+            {
+                lineStart = false;
+                comment = c == '!';
+            }
+
+            if (c != '\r')
+            {
+                length++;
+            }
+        }
+    }
+
+    /**
+     * Parse a plaintext pattern, where 'O' or '*' is alive and
+     * anything else dead.
+     */
+    private void parsePlaintext(Input in, CellSink sink) throws IOException {
+        boolean lineStart = true, comment = false;
+        int row = 0, col = 0;
+
+        for (int c = in.read(); c != -1; c = in.read())
+        {
+            if (c == '\n')
+            {
+                if (!comment)
+                {
+                    row++;
+                }
+
+                lineStart = true;
+                comment = false;
+                col = 0;
+                continue;
+            }
+
+            if (lineStart)
+            {
+                lineStart = false;
+                comment = c == '!';
+            }
+
+            if (!comment)
+            {
+                if (c == 'O' || c == '*')
+                {
+                    sink.setAlive(row, col);
+                }
+
+                if (c != '\r')
+                {
+                    col++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a new input reading the file from its start.
+     */
+    private Input input() throws IOException {
+        return new Input(Files.newBufferedReader(this.path, StandardCharsets.UTF_8), this.path);
+    }
+
+    /**
+     * Buffered characters of a file, counting lines for error messages.
+     */
+    private static final class Input implements Closeable {
+        private final Reader reader;
+        private final Path path;
+
+        private final char[] buffer = new char[1 << 14];
+        private int position;
+        private int limit;
+        private int line = 1;
+        private boolean lineEnded; // Whether the previous character was a line break.
+
+        Input(Reader reader, Path path) {
+            this.reader = reader;
+            this.path = path;
+        }
+
+        /**
+         * @return the next character, or -1 at the end of the file.
+         */
+        int read() throws IOException {
+            if (this.position == this.limit)
+            {
+                this.limit = Math.max(this.reader.read(this.buffer), 0);
+                this.position = 0;
+                if (this.limit == 0)
+                {
+                    return -1;
+                }
+            }
+
+            if (this.lineEnded)
+            {
+                this.line++;
+            }
+
+            char c = this.buffer[this.position++];
+            this.lineEnded = c == '\n';
+
+            return c;
+        }
+
+        /**
+         * @return the rest of the current line without its line
+         * break, or null at the end of the file.
+         */
+        String readLine() throws IOException {
+            StringBuilder builder = new StringBuilder();
+            int c = this.read();
+            if (c == -1)
+            {
+                return null;
+            }
+
+            for (; c != -1 && c != '\n'; c = this.read())
+            {
+                if (c != '\r')
+                {
+                    builder.append((char) c);
+                }
+            }
+
+            return builder.toString();
+        }
+
+        /**
+         * @return an exception giving the file and line of an error.
+         */
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + this.path + ":" + this.line + ".");
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package life.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * PatternWriter writes the current generation of a game, or a
+ * grid, as an RLE or plaintext pattern. Cells are written as
+ * they're read, without building the pattern in memory.
+ */
+public final class PatternWriter {
+    private static final int LINE_LENGTH = 70; // Longest RLE line, as the format recommends.
+
+    /**
+     * States of the cells being written.
+     */
+    private interface Cells {
+        boolean isAlive(int row, int col);
+    }
+
+    private PatternWriter() {
+    }
+
+    /**
+     * Write the current generation of a game, the format given by
+     * the file's extension. Unbounded games write the region they
+     * were created with.
+     *
+     * @param game game to write.
+     * @param path path of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(Game game, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(game, writer, PatternFormat.of(path));
+        }
+    }
+
+    /**
+     * Write the current generation of a game.
+     *
+     * @param game game to write.
+     * @param writer writer the pattern is written to.
+     * @param format format of the pattern.
+     * @throws IOException if the pattern can't be written.
+     */
+    public static void write(Game game, Writer writer, PatternFormat format) throws IOException {
+        write(game.getRows(), game.getCols(), game::isAlive, game.getRule(), writer, format);
+    }
+
+    /**
+     * Write a grid, the format given by the file's extension.
+     *
+     * @param grid grid to write.
+     * @param rule rule written to an RLE header.
+     * @param path path of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(BitGrid grid, Rule rule, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(grid, rule, writer, PatternFormat.of(path));
+        }
+    }
+
+    /**
+     * Write a grid.
+     *
+     * @param grid grid to write.
+     * @param rule rule written to an RLE header.
+     * @param writer writer the pattern is written to.
+     * @param format format of the pattern.
+     * @throws IOException if the pattern can't be written.
+     */
+    public static void write(BitGrid grid, Rule rule, Writer writer, PatternFormat format) throws IOException {
+        write(grid.getRows(), grid.getCols(), grid::get, rule, writer, format);
+    }
+
+    /**
+     * Write cells in the given format.
+     */
+    private static void write(int rows, int cols, Cells cells, Rule rule, Writer writer, PatternFormat format)
+            throws IOException {
+        if (format == PatternFormat.RLE)
+        {
+            writeRle(rows, cols, cells, rule, writer);
+        }
+        else
+        {
+            writePlaintext(rows, cols, cells, writer);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Write runs of cells, leaving out dead cells at the end of
+     * rows and merging empty rows into a single "n$".
+     */
+    private static void writeRle(int rows, int cols, Cells cells, Rule rule, Writer writer) throws IOException {
+        writer.write("x = " + cols + ", y = " + rows + ", rule = " + rule + "\n");
+
+        int length = 0;     // Length of the current line.
+        int rowsToEnd = 0;  // Rows ended since the last run written.
+        for (int i = 0; i < rows; i++)
+        {
+            int j = 0;
+            while (j < cols)
+            {
+                boolean alive = cells.isAlive(i, j);
+                int start = j;
+                while (j < cols && cells.isAlive(i, j) == alive)
+                {
+                    j++;
+                }
+
+                if (!alive && j == cols)
+                {
+                    break;
+                }
+
+                if (rowsToEnd > 0)
+                {
+                    length = token(writer, length, rowsToEnd, '$');
+                    rowsToEnd = 0;
+                }
+
+                length = token(writer, length, j - start, alive ? 'o' : 'b');
+            }
+
+            rowsToEnd++;
+        }
+
+        token(writer, length, 1, '!');
+        writer.write('\n');
+    }
+
+    /**
+     * Write a run, starting a new line if it doesn't fit.
+     *
+     * @return length of the line after the run.
+     */
+    private static int token(Writer writer, int length, int run, char tag) throws IOException {
+        String token = run == 1 ? String.valueOf(tag) : Integer.toString(run) + tag;
+        if (length + token.length() > LINE_LENGTH)
+        {
+            writer.write('\n');
+            length = 0;
+        }
+
+        writer.write(token);
+        return length + token.length();
+    }
+
+    /**
+     * Write one line per row, 'O' being alive and '.' dead.
+     */
+    private static void writePlaintext(int rows, int cols, Cells cells, Writer writer) throws IOException {
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < cols; j++)
+            {
+                writer.write(cells.isAlive(i, j) ? 'O' : '.');
+            }
+
+            writer.write('\n');
+        }
+    }
+}
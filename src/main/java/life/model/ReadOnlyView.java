@@ -0,0 +1,46 @@
+package life.model;
+
+/**
+ * ReadOnlyView hides a grid behind the GridView interface, so readers
+ * of an engine's storage can't cast it back and write to it while the
+ * engine steps. Engines keep one per buffer rather than one per call.
+ */
+final class ReadOnlyView implements GridView {
+    private final GridView grid;
+
+    ReadOnlyView(GridView grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public int getRows() {
+        return this.grid.getRows();
+    }
+
+    @Override
+    public int getCols() {
+        return this.grid.getCols();
+    }
+
+    @Override
+    public int getWordsPerRow() {
+        return this.grid.getWordsPerRow();
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.grid.isAlive(row, col);
+    }
+
+    @Override
+    public long getWord(int row, int word) {
+        return this.grid.getWord(row, word);
+    }
+
+    /**
+     * @return a copy of the grid if it's a BitGrid, null otherwise.
+     */
+    BitGrid copyBits() {
+        return this.grid instanceof BitGrid ? ((BitGrid) this.grid).copy() : null;
+    }
+}
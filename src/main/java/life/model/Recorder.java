@@ -0,0 +1,241 @@
+package life.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recorder keeps the history of a game, so any recorded generation
+ * can be restored. Each generation is stored as the list of cells the
+ * engine reports as changed, see ChangeListener, encoded as varint
+ * gaps between cell indices. A full copy of the board is kept every
+ * keyframe interval, and seeking replays the changes following the
+ * nearest keyframe.
+ */
+public final class Recorder {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64; // Generations between full copies.
+
+    private final Game game;
+    private final int keyframeInterval;
+
+    private final int cols;
+    private final int wordsPerRow;
+
+    private final BitGrid latest; // States of the last recorded generation.
+    private final List<long[]> keyframes = new ArrayList<>(); // Words of every keyframe interval'th generation.
+
+    private byte[] deltas = new byte[1 << 12]; // Encoded changes of every generation.
+    private int size;                          // Bytes used in deltas.
+    private int[] offsets = new int[256];      // offsets[g] is where the changes leading to generation g + 1 start.
+    private long generation;                   // Last recorded generation, 0 being the start.
+
+    private long previous = -1; // Index of the cell last encoded in the current generation.
+
+    /**
+     * Recorder constructor, recording from the game's current generation.
+     *
+     * @param game game to record, which must report changes.
+     */
+    public Recorder(Game game) {
+        this(game, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Recorder constructor, recording from the game's current generation.
+     *
+     * @param game game to record, which must report changes.
+     * @param keyframeInterval generations between full copies of the board.
+     * @throws UnsupportedOperationException if the engine can't report changes.
+     */
+    public Recorder(Game game, int keyframeInterval) {
+        if (keyframeInterval <= 0)
+        {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+
+        this.game = game;
+        this.keyframeInterval = keyframeInterval;
+
+        this.latest = new BitGrid(game.getRows(), game.getCols());
+        this.cols = this.latest.getCols();
+        this.wordsPerRow = this.latest.getWordsPerRow();
+
+        GridView view = game.getView();
+        for (int i = 0; i < this.latest.getRows(); i++)
+        {
+            for (int w = 0; w < this.wordsPerRow; w++)
+            {
+                this.latest.setWord(i, w, view.getWord(i, w));
+            }
+        }
+
+        this.keyframes.add(this.latest.words().clone());
+
+        game.setChangeListener(new ChangeListener() {
+            @Override
+            public void cellsChanged(int row, int word, long flipped) {
+                record(row, word, flipped);
+            }
+
+            @Override
+            public void generationEnded() {
+                endGeneration();
+            }
+        });
+    }
+
+    /**
+     * Stop recording, the recorded generations can still be sought.
+     */
+    public void stop() {
+        this.game.setChangeListener(null);
+    }
+
+    /**
+     * @return number of generations recorded after the first.
+     */
+    public long getGenerations() {
+        return this.generation;
+    }
+
+    /**
+     * @return number of bytes holding the changes of every generation.
+     */
+    public long getDeltaSize() {
+        return this.size;
+    }
+
+    /**
+     * @return number of full copies of the board kept.
+     */
+    public int getKeyframeCount() {
+        return this.keyframes.size();
+    }
+
+    /**
+     * Restore a recorded generation into a new grid.
+     *
+     * @param generation generation to restore, 0 being the first recorded.
+     * @return a grid holding the generation's states.
+     */
+    public BitGrid seek(long generation) {
+        BitGrid grid = new BitGrid(this.latest.getRows(), this.cols);
+        this.seek(generation, grid);
+
+        return grid;
+    }
+
+    /**
+     * Restore a recorded generation into a grid of the board's size.
+     *
+     * @param generation generation to restore, 0 being the first recorded.
+     * @param grid grid the states are written to.
+     */
+    public void seek(long generation, BitGrid grid) {
+        if (generation < 0 || generation > this.generation)
+        {
+            throw new IllegalArgumentException("Generation " + generation + " wasn't recorded, expected 0 to "
+                    + this.generation + ".");
+        }
+
+        if (grid.getRows() != this.latest.getRows() || grid.getCols() != this.cols)
+        {
+            throw new IllegalArgumentException("Grid of " + grid.getRows() + "x" + grid.getCols()
+                    + " doesn't match the board.");
+        }
+
+        int keyframe = (int) (generation / this.keyframeInterval);
+        long[] words = grid.words();
+        System.arraycopy(this.keyframes.get(keyframe), 0, words, 0, words.length);
+
+        for (long g = (long) keyframe * this.keyframeInterval; g < generation; g++)
+        {
+            this.replay((int) g, words);
+        }
+    }
+
+    /**
+     * Flip the cells changed between generation g and g + 1.
+     */
+    private void replay(int g, long[] words) {
+        int end = this.offsets[g + 1];
+
+        long index = -1;
+        for (int position = this.offsets[g]; position < end; )
+        {
+            // Decode a varint, seven bits per byte, lowest first.
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = this.deltas[position++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            }
+            while (b < 0);
+
+            index += gap + 1;
+
+            int row = (int) (index / this.cols);
+            int col = (int) (index % this.cols);
+            words[row * this.wordsPerRow + (col >>> 6)] ^= 1L << col;
+        }
+    }
+
+    /**
+     * Encode the cells of a changed word.
+     */
+    private void record(int row, int word, long flipped) {
+        this.latest.words()[row * this.wordsPerRow + word] ^= flipped;
+
+        long base = (long) row * this.cols + ((long) word << 6);
+        while (flipped != 0)
+        {
+            long index = base + Long.numberOfTrailingZeros(flipped);
+            this.writeVarint(index - this.previous - 1);
+            this.previous = index;
+
+            flipped &= flipped - 1;
+        }
+    }
+
+    /**
+     * Close the changes of a generation, keeping a full copy of
+     * the board at every keyframe interval.
+     */
+    private void endGeneration() {
+        this.previous = -1;
+        this.generation++;
+
+        if (this.generation % this.keyframeInterval == 0)
+        {
+            this.keyframes.add(this.latest.words().clone());
+        }
+
+        // Changes of the next generation start here.
+        if (this.generation >= this.offsets.length)
+        {
+            this.offsets = Arrays.copyOf(this.offsets, Math.multiplyExact(this.offsets.length, 2));
+        }
+        this.offsets[(int) this.generation] = this.size;
+    }
+
+    /**
+     * Append a non-negative number, seven bits per byte.
+     */
+    private void writeVarint(long value) {
+        if (this.deltas.length - this.size < 10)
+        {
+            this.deltas = Arrays.copyOf(this.deltas, Math.multiplyExact(this.deltas.length, 2));
+        }
+
+        while ((value & ~0x7FL) != 0)
+        {
+            this.deltas[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.deltas[this.size++] = (byte) value;
+    }
+}
@@ -0,0 +1,235 @@
+package life.model;
+
+import java.util.Locale;
+
+/**
+ * Rule is a life-like rule in B/S notation, specifying the numbers
+ * of neighbours a dead cell is born with and a live cell survives
+ * with. Rules are compiled into a lookup table for engines stepping
+ * one cell at a time, and into lists of neighbour counts for engines
+ * counting neighbours in bit planes.
+ */
+public final class Rule {
+    public static final Rule CONWAY = parse("B3/S23");
+    public static final Rule HIGHLIFE = parse("B36/S23");
+    public static final Rule DAY_AND_NIGHT = parse("B3678/S34678");
+    public static final Rule SEEDS = parse("B2/S");
+
+    private final int birth;    // Bit n is set if a dead cell with n neighbours is born.
+    private final int survival; // Bit n is set if a live cell with n neighbours survives.
+
+    private final boolean[] table; // Next state, indexed by neighbours * 2 + current state.
+
+    private final int[] birthCounts;    // Neighbour counts of birth, for bit planes.
+    private final int[] survivalCounts; // Neighbour counts of survival, for bit planes.
+    private final boolean conway;       // Whether the planes can use the B3/S23 shortcut.
+
+    private Rule(int birth, int survival) {
+        this.birth = birth;
+        this.survival = survival;
+
+        this.table = new boolean[18];
+        for (int n = 0; n <= 8; n++)
+        {
+            this.table[n << 1] = (birth & (1 << n)) != 0;
+            this.table[(n << 1) | 1] = (survival & (1 << n)) != 0;
+        }
+
+        this.birthCounts = counts(birth);
+        this.survivalCounts = counts(survival);
+        this.conway = birth == 1 << 3 && survival == (1 << 2 | 1 << 3);
+    }
+
+    /**
+     * Parse a rule in B/S notation, such as "B3/S23", or in the
+     * older S/B notation, such as "23/3".
+     *
+     * @param notation the rule.
+     * @return the parsed rule.
+     */
+    public static Rule parse(String notation) {
+        String[] parts = notation.trim().toUpperCase(Locale.ROOT).split("/", -1);
+        if (parts.length != 2)
+        {
+            throw new IllegalArgumentException("Invalid rule: " + notation);
+        }
+
+        int birth, survival;
+        if (parts[0].startsWith("B") && parts[1].startsWith("S"))
+        {
+            birth = digits(parts[0].substring(1), notation);
+            survival = digits(parts[1].substring(1), notation);
+        }
+        else if (parts[0].startsWith("S") && parts[1].startsWith("B"))
+        {
+            survival = digits(parts[0].substring(1), notation);
+            birth = digits(parts[1].substring(1), notation);
+        }
+        else
+        {
+            survival = digits(parts[0], notation);
+            birth = digits(parts[1], notation);
+        }
+
+        return new Rule(birth, survival);
+    }
+
+    /**
+     * Find a cell's next state.
+     *
+     * @param alive cell's current state.
+     * @param neighbours number of live neighbours.
+     * @return cell's next state.
+     */
+    public boolean next(boolean alive, int neighbours) {
+        return this.table[(neighbours << 1) | (alive ? 1 : 0)];
+    }
+
+    /**
+     * Find the next states of 64 cells, given their neighbour
+     * counts as four bit planes.
+     *
+     * @param alive current states.
+     * @param ones bit 0 of the neighbour counts.
+     * @param twos bit 1 of the neighbour counts.
+     * @param fours bit 2 of the neighbour counts.
+     * @param eights bit 3 of the neighbour counts.
+     * @return next states.
+     */
+    public long next(long alive, long ones, long twos, long fours, long eights) {
+        if (this.conway)
+        {
+            // 3 neighbours, or 2 if already alive.
+            return twos & ~fours & ~eights & (ones | alive);
+        }
+
+        long born = 0;
+        for (int n : this.birthCounts)
+        {
+            born |= equal(n, ones, twos, fours, eights);
+        }
+
+        long survived = 0;
+        for (int n : this.survivalCounts)
+        {
+            survived |= equal(n, ones, twos, fours, eights);
+        }
+
+        return (born & ~alive) | (survived & alive);
+    }
+
+    /**
+     * @return true if dead cells with no neighbours are born,
+     * which no unbounded plane can represent.
+     */
+    public boolean birthsFromNothing() {
+        return (this.birth & 1) != 0;
+    }
+
+    /**
+     * @return neighbour counts dead cells are born with, not to be modified.
+     */
+    int[] getBirthCounts() {
+        return this.birthCounts;
+    }
+
+    /**
+     * @return neighbour counts live cells survive with, not to be modified.
+     */
+    int[] getSurvivalCounts() {
+        return this.survivalCounts;
+    }
+
+    /**
+     * @return true if the rule is B3/S23.
+     */
+    boolean isConway() {
+        return this.conway;
+    }
+
+    /**
+     * @return the rule in B/S notation.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("B");
+        for (int n = 0; n <= 8; n++)
+        {
+            if ((this.birth & (1 << n)) != 0)
+            {
+                builder.append(n);
+            }
+        }
+
+        builder.append("/S");
+        for (int n = 0; n <= 8; n++)
+        {
+            if ((this.survival & (1 << n)) != 0)
+            {
+                builder.append(n);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Rule))
+        {
+            return false;
+        }
+
+        Rule rule = (Rule) o;
+        return this.birth == rule.birth && this.survival == rule.survival;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.birth * 31 + this.survival;
+    }
+
+    /**
+     * @return mask of cells whose count equals n.
+     */
+    private static long equal(int n, long ones, long twos, long fours, long eights) {
+        return ((n & 1) != 0 ? ones : ~ones)
+             & ((n & 2) != 0 ? twos : ~twos)
+             & ((n & 4) != 0 ? fours : ~fours)
+             & ((n & 8) != 0 ? eights : ~eights);
+    }
+
+    /**
+     * @return counts set in a mask.
+     */
+    private static int[] counts(int mask) {
+        int[] counts = new int[Integer.bitCount(mask)];
+        for (int n = 0, i = 0; n <= 8; n++)
+        {
+            if ((mask & (1 << n)) != 0)
+            {
+                counts[i++] = n;
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * @return mask of the neighbour counts in a string of digits.
+     */
+    private static int digits(String counts, String notation) {
+        int mask = 0;
+        for (char c : counts.toCharArray())
+        {
+            if (c < '0' || c > '8')
+            {
+                throw new IllegalArgumentException("Invalid rule: " + notation);
+            }
+
+            mask |= 1 << (c - '0');
+        }
+
+        return mask;
+    }
+}
@@ -0,0 +1,292 @@
+package life.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulation steps a game on its own thread, as fast as possible
+ * or at a target rate, until the board is static or repeating.
+ *
+ * Readers poll for the latest Snapshot at their own pace. When the
+ * engine's views outlive a step, see Game.getViewLifetime, snapshots
+ * are views of its storage, published every generation without
+ * copying the board, and readers check they're still valid once read.
+ * Otherwise, or for a few frames after a reader found a view written
+ * over, snapshots are copies, only taken once the previous one was
+ * polled, so generations stepped in between are never copied.
+ *
+ * Only every few generations may be published, see setMultiplier,
+ * and the simulation can be paused, stepped a generation at a time,
+ * or run to a given generation as fast as possible. Generations that
+ * aren't published are stepped without taking any snapshot.
+ */
+public class Simulation {
+    private static final int COPIED_FRAMES = 16; // Snapshots copied after a view was written over.
+    private static final long NO_TARGET = -1;
+
+    private final Game game;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(); // Null once polled.
+    private final StepSequence steps = new StepSequence(); // Lets readers validate views.
+    private int copies; // Number of snapshots left to copy rather than view.
+
+    private volatile double rate;     // Target published generations per second, 0 for unlimited.
+    private volatile boolean running;
+    private volatile int multiplier = 1; // Generations per published snapshot.
+    private volatile boolean paused;
+    private volatile long generation;    // Latest generation stepped.
+    private final AtomicLong target = new AtomicLong(NO_TARGET); // Generation to run to, then pause at.
+    private Thread thread;
+
+    /**
+     * Simulation constructor.
+     *
+     * @param game game to step, not to be used by others while running.
+     */
+    public Simulation(Game game) {
+        this.game = game;
+        this.latest.set(this.snapshot(0, false));
+    }
+
+    /**
+     * @param rate target published generations per second, 0 to step as fast as possible.
+     */
+    public void setRate(double rate) {
+        if (rate < 0)
+        {
+            throw new IllegalArgumentException("Negative rate: " + rate);
+        }
+
+        this.rate = rate;
+    }
+
+    /**
+     * Publish only every given number of generations, the ones in
+     * between being stepped as fast as possible. The rate then applies
+     * to the published generations.
+     *
+     * @param generations generations per published snapshot, 1 by default.
+     */
+    public void setMultiplier(int generations) {
+        if (generations < 1)
+        {
+            throw new IllegalArgumentException("Multiplier must be positive: " + generations);
+        }
+
+        this.multiplier = generations;
+    }
+
+    /**
+     * Stop stepping until resumed, once the current generation is
+     * published.
+     */
+    public void pause() {
+        this.paused = true;
+    }
+
+    /**
+     * Resume stepping after a pause.
+     */
+    public synchronized void resume() {
+        this.paused = false;
+        LockSupport.unpark(this.thread);
+    }
+
+    /**
+     * @return true if paused, either by pause or once a target
+     * generation was reached.
+     */
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * Step a single generation, then pause and publish it.
+     */
+    public synchronized void stepOnce() {
+        this.runTo(this.generation + 1);
+    }
+
+    /**
+     * Step as fast as possible, publishing nothing in between, until
+     * the given generation, then pause and publish it.
+     *
+     * @param generation generation to stop at.
+     * @throws IllegalArgumentException if the generation was already stepped.
+     */
+    public synchronized void runTo(long generation) {
+        if (generation <= this.generation)
+        {
+            throw new IllegalArgumentException("Generation " + generation + " was already stepped.");
+        }
+
+        this.target.set(generation);
+        LockSupport.unpark(this.thread);
+    }
+
+    /**
+     * @return the latest generation stepped.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Start stepping on a new daemon thread.
+     */
+    public synchronized void start() {
+        if (this.thread != null)
+        {
+            throw new IllegalStateException("Simulation already started.");
+        }
+
+        this.running = true;
+        this.thread = new Thread(this::run, "life-simulation");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stop stepping and wait for the thread to finish.
+     */
+    public synchronized void stop() {
+        this.running = false;
+        if (this.thread != null)
+        {
+            this.thread.interrupt();
+            try {
+                this.thread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the latest snapshot if it wasn't polled yet, null otherwise.
+     */
+    public Snapshot poll() {
+        return this.latest.getAndSet(null);
+    }
+
+    /**
+     * @return true if the next snapshot is a view of the game.
+     */
+    private boolean isViewing() {
+        if (this.steps.takeTorn())
+        {
+            this.copies = COPIED_FRAMES;
+        }
+
+        return this.copies == 0 && this.game.getViewLifetime() > 0;
+    }
+
+    /**
+     * Take a snapshot of the current generation, viewing or copying it.
+     */
+    private Snapshot snapshot(long generation, boolean finished) {
+        if (this.isViewing())
+        {
+            return Snapshot.view(this.game, generation, finished, this.steps);
+        }
+
+        if (this.copies > 0)
+        {
+            this.copies--;
+        }
+        return Snapshot.of(this.game, generation, finished);
+    }
+
+    /**
+     * Park until resumed, told to run to a generation or stopped.
+     */
+    private void awaitResume() {
+        while (this.running && this.paused && this.target.get() == NO_TARGET)
+        {
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Step until stopped or finished.
+     */
+    private void run() {
+        long start = System.nanoTime();
+        long paced = 0; // Generations published since the rate was last applied.
+        double rate = this.rate;
+        long shown = 0; // Generation of the latest snapshot.
+
+        for (long generation = 1; this.running; generation++)
+        {
+            if (this.paused && this.target.get() == NO_TARGET)
+            {
+                // Show the generation paused at, which may have been skipped.
+                if (shown != generation - 1)
+                {
+                    shown = generation - 1;
+                    this.latest.set(this.snapshot(shown, false));
+                }
+
+                this.awaitResume();
+                if (!this.running)
+                {
+                    return;
+                }
+                start = System.nanoTime();
+                paced = 0;
+            }
+
+            this.steps.stepStarting();
+            this.game.step();
+            this.generation = generation;
+
+            boolean finished = this.game.isStatic() || this.game.getPeriod() != 0;
+
+            long target = this.target.get();
+            boolean reached = target != NO_TARGET && generation >= target;
+            if (reached)
+            {
+                this.paused = true;
+                this.target.compareAndSet(target, NO_TARGET);
+            }
+
+            // Generations on the way to a target, or between multiples, aren't shown.
+            boolean hidden = !reached && (target != NO_TARGET || generation % this.multiplier != 0);
+            if (finished || reached || !hidden && (this.latest.get() == null || this.isViewing()))
+            {
+                shown = generation;
+                this.latest.set(this.snapshot(generation, finished));
+            }
+
+            if (finished)
+            {
+                this.running = false;
+                return;
+            }
+
+            if (hidden || reached)
+            {
+                continue;
+            }
+
+            // Restart pacing when the rate changes.
+            if (rate != this.rate)
+            {
+                rate = this.rate;
+                start = System.nanoTime();
+                paced = 0;
+            }
+
+            paced++;
+            if (rate > 0)
+            {
+                long wait = start + (long) (paced * 1e9 / rate) - System.nanoTime();
+                if (wait > 0)
+                {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }
+    }
+}
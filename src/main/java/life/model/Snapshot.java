@@ -0,0 +1,141 @@
+package life.model;
+
+/**
+ * Snapshot is a game's board at some generation, safe to read from
+ * any thread. It's either a copy, or a view of the engine's own
+ * storage, see Game.getView, which is only valid until the engine
+ * writes over it.
+ *
+ * A view is read as a seqlock is: read the cells, then call isValid,
+ * and discard what was read if it returns false, as the engine may
+ * have changed some of the cells while they were read. Copies are
+ * always valid.
+ */
+public final class Snapshot implements GridView {
+    private final GridView grid; // A copy never modified after construction, or a view.
+    private final long generation;
+    private final boolean finished;
+
+    private final StepSequence steps; // Steps of the game shown by a view, null for a copy.
+    private final long lastStep;      // Last step that doesn't write over a view.
+
+    private Snapshot(GridView grid, long generation, boolean finished, StepSequence steps, long lastStep) {
+        this.grid = grid;
+        this.generation = generation;
+        this.finished = finished;
+        this.steps = steps;
+        this.lastStep = lastStep;
+    }
+
+    /**
+     * Copy the current generation of a game.
+     *
+     * @param game game to copy.
+     * @param generation number of the current generation.
+     * @param finished whether the game won't change anymore.
+     * @return a new snapshot.
+     */
+    public static Snapshot of(Game game, long generation, boolean finished) {
+        GridView view = game.getView();
+        BitGrid grid = view instanceof ReadOnlyView ? ((ReadOnlyView) view).copyBits() : null;
+        if (grid != null)
+        {
+            return new Snapshot(grid, generation, finished, null, 0);
+        }
+
+        grid = new BitGrid(view.getRows(), view.getCols());
+        for (int i = 0; i < grid.getRows(); i++)
+        {
+            for (int w = 0; w < grid.getWordsPerRow(); w++)
+            {
+                grid.setWord(i, w, view.getWord(i, w));
+            }
+        }
+
+        return new Snapshot(grid, generation, finished, null, 0);
+    }
+
+    /**
+     * View the current generation of a game stepped by a Simulation,
+     * without copying it.
+     *
+     * @param game game to view, whose views must not follow it.
+     * @param generation number of the current generation, the number of steps started.
+     * @param finished whether the game won't change anymore.
+     * @param steps counts the steps the Simulation starts.
+     * @return a new snapshot.
+     */
+    static Snapshot view(Game game, long generation, boolean finished, StepSequence steps) {
+        int lifetime = game.getViewLifetime();
+        long lastStep = lifetime == Integer.MAX_VALUE ? Long.MAX_VALUE : generation + lifetime;
+
+        return new Snapshot(game.getView(), generation, finished, steps, lastStep);
+    }
+
+    @Override
+    public int getRows() {
+        return this.grid.getRows();
+    }
+
+    @Override
+    public int getCols() {
+        return this.grid.getCols();
+    }
+
+    /**
+     * @return number of words used to store a single row.
+     */
+    @Override
+    public int getWordsPerRow() {
+        return this.grid.getWordsPerRow();
+    }
+
+    /**
+     * @param row cell's row.
+     * @param col cell's column.
+     * @return true if the cell is alive.
+     */
+    @Override
+    public boolean isAlive(int row, int col) {
+        return this.grid.isAlive(row, col);
+    }
+
+    /**
+     * @param row row of the word.
+     * @param word index of the word inside the row.
+     * @return a word holding 64 cells, see BitGrid.getWord.
+     */
+    @Override
+    public long getWord(int row, int word) {
+        return this.grid.getWord(row, word);
+    }
+
+    /**
+     * Check that the cells read so far all belong to this snapshot's
+     * generation. A view fails once the engine started writing over
+     * it, and tells the Simulation to copy the next snapshots.
+     *
+     * @return true if the cells read are valid.
+     */
+    public boolean isValid() {
+        return this.steps == null || this.steps.validate(this.lastStep);
+    }
+
+    /**
+     * @return true if the snapshot is a copy rather than a view.
+     */
+    public boolean isCopy() {
+        return this.steps == null;
+    }
+
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * @return true if the game was static or repeating at this generation.
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+}
@@ -7,12 +7,19 @@ public interface Square {
     /**
      * Count the number of square's neighbours and update
      * the value accordingly.
+     *
+     * @param grid states of the current generation.
      */
-    public void updateNeighbourCount();
+    public void updateNeighbourCount(boolean[][] grid);
 
     /**
-     * Update square's state based on the number of current
+     * Write square's next state based on the number of current
      * grid neighbours.
+     *
+     * @param current states of the current generation.
+     * @param next states of the next generation.
+     * @param rule rule giving the next state.
+     * @return true if square's state changed.
      */
-    public void updateState();
+    public boolean updateState(boolean[][] current, boolean[][] next, Rule rule);
 }
@@ -0,0 +1,40 @@
+package life.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * StepEvent marks a step of a game in flight recordings, so slow
+ * generations can be lined up with garbage collections. Emitted
+ * by Metrics while the event is enabled in a recording.
+ */
+@Name("life.Step")
+@Label("Game Step")
+@Category("Game of Life")
+@Description("A step of a game, from start to end.")
+@StackTrace(false)
+final class StepEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Generation")
+    @Description("Generation reached by the step.")
+    long generation;
+
+    @Label("Generations")
+    @Description("Number of generations the step advanced.")
+    long generations;
+
+    @Label("Population")
+    long population;
+
+    @Label("Changed Cells")
+    long changedCells;
+
+    @Label("Active Tiles")
+    int activeTiles;
+}
@@ -0,0 +1,24 @@
+package life.model;
+
+/**
+ * StepListener is told when each step of a game starts and ends,
+ * see Game.setStepListener. Both are called on the thread stepping
+ * the game, and the game can be queried for the new generation's
+ * population and changes from stepEnded.
+ */
+public interface StepListener {
+    /**
+     * Called before the game steps.
+     *
+     * @param game the game about to step.
+     */
+    void stepStarted(Game game);
+
+    /**
+     * Called once the game stepped.
+     *
+     * @param game the game that stepped.
+     * @param generations number of generations the step advanced.
+     */
+    void stepEnded(Game game, long generations);
+}
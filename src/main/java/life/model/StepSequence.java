@@ -0,0 +1,56 @@
+package life.model;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * StepSequence counts the steps a Simulation starts, so threads
+ * reading a game's storage while it steps can tell whether a step
+ * wrote over what they read, as readers of a seqlock do. The
+ * stepping thread never waits for readers.
+ */
+final class StepSequence {
+    private volatile long started; // Steps started, only written by the stepping thread.
+    private volatile boolean torn; // Whether a reader found its view written over.
+
+    /**
+     * Count a step, before it writes to the board.
+     */
+    void stepStarting() {
+        this.started = this.started + 1;
+
+        // The count is seen before any of the step's writes.
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Check, once a view was read, that it showed a single generation.
+     *
+     * @param lastStep last step allowed to start while the view is read.
+     * @return true if no later step started before the cells were read.
+     */
+    boolean validate(long lastStep) {
+        // The cells are read before the count.
+        VarHandle.loadLoadFence();
+
+        if (this.started <= lastStep)
+        {
+            return true;
+        }
+
+        this.torn = true;
+        return false;
+    }
+
+    /**
+     * @return true if a reader found its view written over since the last call.
+     */
+    boolean takeTorn() {
+        if (!this.torn)
+        {
+            return false;
+        }
+
+        this.torn = false;
+        return true;
+    }
+}
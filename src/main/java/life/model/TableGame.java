@@ -0,0 +1,226 @@
+package life.model;
+
+/**
+ * TableGame is a PackedGame stepping bounded boards a 2x2 block of
+ * cells at a time, by looking up the next states of each block in a
+ * table indexed by the 4x4 block of cells around it.
+ *
+ * The table holds the 2x2 result of every 16 bit neighbourhood, 64K
+ * entries of a byte, and is built once per rule. Rows are stepped in
+ * pairs: each word of a pair takes 32 lookups, indexed by a nibble of
+ * the rows above, of the pair and below. It needs no SIMD support, so
+ * it's a portable baseline for the bitwise engines.
+ *
+ * TORUS boards are stepped as in PackedGame.
+ */
+public class TableGame extends PackedGame {
+    private static final byte[] CONWAY = table(Rule.CONWAY); // Table of B3/S23, shared by every game.
+
+    private byte[] table = CONWAY; // Next states of the 2x2 center of each 4x4 block.
+
+    /**
+     * TableGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     * @param executor Executor used to step bands of rows.
+     */
+    public TableGame(BitGrid grid, Topology topology, BandExecutor executor) {
+        super(grid, topology, executor, false);
+    }
+
+    /**
+     * Set the rule cells evolve by, building its table.
+     *
+     * @param rule the rule.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        this.table = rule.isConway() ? CONWAY : table(rule);
+    }
+
+    /**
+     * Write next states of the given rows, two rows at a time. The last
+     * row of a band with an odd number of rows is written alone.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of cells that changed.
+     */
+    @Override
+    long stepRows(int from, int to) {
+        final BitGrid current = this.getGrid();
+        final long[] src = current.words();
+        final long[] dst = this.getBuffer().words();
+        final int rows = current.getRows();
+        final int n = current.getWordsPerRow();
+        final long lastMask = current.lastWordMask();
+
+        final byte[] table = this.table;
+        final boolean skipEmpty = table[0] == 0; // Whether dead blocks stay dead.
+        final boolean hashing = this.isHashing();
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int r = from; r < to; r += 2)
+        {
+            final boolean pair = r + 1 < to;
+            final int base = r * n;
+            final int up = r > 0 ? base - n : -1;
+            final int mid = r + 1 < rows ? base + n : -1;
+            final int down = r + 2 < rows ? base + 2 * n : -1;
+
+            // Sliding window of three words on each of the four rows.
+            long upWest = 0, topWest = 0, midWest = 0, downWest = 0;
+            long upWord = word(src, up, 0), topWord = src[base], midWord = word(src, mid, 0), downWord = word(src, down, 0);
+
+            for (int i = 0; i < n; i++)
+            {
+                long upEast = 0, topEast = 0, midEast = 0, downEast = 0;
+                if (i + 1 < n)
+                {
+                    upEast = word(src, up, i + 1);
+                    topEast = src[base + i + 1];
+                    midEast = word(src, mid, i + 1);
+                    downEast = word(src, down, i + 1);
+                }
+
+                long top = 0, bottom = 0;
+                if (!skipEmpty || (upWest >>> 63 | upWord | upEast << 63 | topWest >>> 63 | topWord | topEast << 63
+                        | midWest >>> 63 | midWord | midEast << 63 | downWest >>> 63 | downWord | downEast << 63) != 0)
+                {
+                    // Bit 0 is the column west of the word, bit c + 1 column c.
+                    final long a = upWord << 1 | upWest >>> 63;
+                    final long b = topWord << 1 | topWest >>> 63;
+                    final long c = midWord << 1 | midWest >>> 63;
+                    final long d = downWord << 1 | downWest >>> 63;
+
+                    for (int s = 0; s < 62; s += 2)
+                    {
+                        final int result = table[(int) (a >>> s & 0xF | (b >>> s & 0xF) << 4
+                                                      | (c >>> s & 0xF) << 8 | (d >>> s & 0xF) << 12)];
+                        top |= (long) (result & 3) << s;
+                        bottom |= (long) (result >>> 2) << s;
+                    }
+
+                    // The last block reads the first column of the word east.
+                    final int result = table[(int) (nibble(upWord, upEast) | nibble(topWord, topEast) << 4
+                                                  | nibble(midWord, midEast) << 8 | nibble(downWord, downEast) << 12)];
+                    top |= (long) (result & 3) << 62;
+                    bottom |= (long) (result >>> 2) << 62;
+                }
+
+                if (i == n - 1)
+                {
+                    top &= lastMask;
+                    bottom &= lastMask;
+                }
+
+                dst[base + i] = top;
+                if (pair)
+                {
+                    dst[base + n + i] = bottom;
+                }
+
+                upWest = upWord;
+                topWest = topWord;
+                midWest = midWord;
+                downWest = downWord;
+
+                upWord = upEast;
+                topWord = topEast;
+                midWord = midEast;
+                downWord = downEast;
+            }
+
+            for (int row = r, last = pair ? r + 1 : r; row <= last; row++)
+            {
+                long rowChanged = 0;
+                int rowDelta = 0;
+                for (int index = row * n, end = index + n; index < end; index++)
+                {
+                    if (dst[index] != src[index])
+                    {
+                        rowChanged += Long.bitCount(dst[index] ^ src[index]);
+                        rowDelta += Long.bitCount(dst[index]) - Long.bitCount(src[index]);
+                        if (hashing)
+                        {
+                            delta ^= CycleDetector.mix(index, src[index]) ^ CycleDetector.mix(index, dst[index]);
+                        }
+                    }
+                }
+
+                if (rowChanged != 0)
+                {
+                    this.rowChanged(row, rowDelta);
+                    changed += rowChanged;
+                    populationDelta += rowDelta;
+                }
+            }
+        }
+
+        this.hashChanged(delta);
+        this.populationChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * @return columns 61 to 64 of a row, the last one being the first
+     * column of the word east.
+     */
+    private static long nibble(long word, long east) {
+        return word >>> 61 | (east & 1) << 3;
+    }
+
+    /**
+     * @return word at the given offset of a row, or 0 if the row doesn't exist.
+     */
+    private static long word(long[] words, int rowBase, int i) {
+        return rowBase < 0 ? 0 : words[rowBase + i];
+    }
+
+    /**
+     * Build the table of a rule. Bit 4 * k + j of an index is column j
+     * of row k of a 4x4 block, and bit 2 * k + j of an entry the next
+     * state of column j + 1 of row k + 1.
+     *
+     * @param rule the rule.
+     * @return the next states of the 2x2 center of every 4x4 block.
+     */
+    static byte[] table(Rule rule) {
+        byte[] table = new byte[1 << 16];
+        for (int index = 0; index < table.length; index++)
+        {
+            int result = 0;
+            for (int cell = 0; cell < 4; cell++)
+            {
+                final int row = 1 + (cell >>> 1);
+                final int col = 1 + (cell & 1);
+
+                int neighbours = 0;
+                for (int i = row - 1; i <= row + 1; i++)
+                {
+                    for (int j = col - 1; j <= col + 1; j++)
+                    {
+                        if ((i != row || j != col) && (index >>> (4 * i + j) & 1) != 0)
+                        {
+                            neighbours++;
+                        }
+                    }
+                }
+
+                if (rule.next((index >>> (4 * row + col) & 1) != 0, neighbours))
+                {
+                    result |= 1 << cell;
+                }
+            }
+
+            table[index] = (byte) result;
+        }
+
+        return table;
+    }
+}
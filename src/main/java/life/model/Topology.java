@@ -0,0 +1,21 @@
+package life.model;
+
+/**
+ * Topology specifies what lies past the edges of a board.
+ */
+public enum Topology {
+    /**
+     * Cells past the edges are always dead.
+     */
+    BOUNDED,
+
+    /**
+     * Edges wrap around, so the board is a torus.
+     */
+    TORUS,
+
+    /**
+     * The board is a region of an unbounded plane.
+     */
+    UNBOUNDED
+}
@@ -0,0 +1,454 @@
+package life.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * UnboundedGame implements Game interface on an unbounded plane.
+ * Only chunks of 64x64 cells holding live cells are stored, in a
+ * map keyed by chunk coordinates, so memory follows the population
+ * as the pattern grows, shrinks and moves.
+ *
+ * The rows and columns the game was created with only define the
+ * region returned by nextConfig, cells outside of it keep evolving.
+ */
+public class UnboundedGame implements Game {
+    static final int CHUNK_SIZE = 64; // Chunks are 64 rows of one word each.
+
+    private final int rows; // Region returned by nextConfig.
+    private final int cols;
+
+    private Map<Long, long[]> chunks = new HashMap<>();     // Chunks holding live cells.
+    private Map<Long, long[]> nextChunks = new HashMap<>(); // Chunks of the next generation.
+
+    private Rule rule = Rule.CONWAY;
+
+    private long population;
+    private long changedCells; // Number of cells changed by previous step.
+
+    private CycleDetector detector; // Null unless detecting cycles.
+    private StepListener stepListener; // Null unless told about steps.
+
+    private boolean[][] states; // Created on first call to nextConfig.
+
+    /**
+     * UnboundedGame constructor.
+     *
+     * @param states An array containing initial square states, placed
+     *               with its top left corner at the origin.
+     */
+    public UnboundedGame(boolean[][] states) {
+        this(BitGrid.of(states));
+    }
+
+    /**
+     * UnboundedGame constructor.
+     *
+     * @param grid A grid containing initial square states, placed
+     *             with its top left corner at the origin.
+     */
+    public UnboundedGame(BitGrid grid) {
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+
+        // Words of the grid line up with the columns of chunks.
+        for (int i = 0; i < this.rows; i++)
+        {
+            for (int w = 0; w < grid.getWordsPerRow(); w++)
+            {
+                long word = grid.getWord(i, w);
+                if (word != 0)
+                {
+                    long key = key(i / CHUNK_SIZE, w);
+                    this.chunks.computeIfAbsent(key, k -> new long[CHUNK_SIZE])[i % CHUNK_SIZE] = word;
+                    this.population += Long.bitCount(word);
+                }
+            }
+        }
+
+        this.changedCells = this.population;
+    }
+
+    /**
+     * @return true if no cell changed during previous step.
+     */
+    @Override
+    public boolean isStatic() {
+        return this.changedCells == 0;
+    }
+
+    /**
+     * Find new game configuration and copy the region to a boolean
+     * array, which is reused between calls.
+     *
+     * @return a boolean array containing new states.
+     */
+    @Override
+    public boolean[][] nextConfig() {
+        this.step();
+
+        if (this.states == null)
+        {
+            this.states = new boolean[this.rows][this.cols];
+        }
+
+        for (int i = 0; i < this.rows; i++)
+        {
+            for (int j = 0; j < this.cols; j++)
+            {
+                this.states[i][j] = this.isAlive(i, j);
+            }
+        }
+
+        return this.states;
+    }
+
+    /**
+     * Compute every chunk that holds live cells, or borders one
+     * that does, and drop chunks that end up empty.
+     */
+    @Override
+    public void step() {
+        final StepListener stepListener = this.stepListener;
+        if (stepListener != null)
+        {
+            stepListener.stepStarted(this);
+        }
+
+        long changed = 0;
+        long alive = 0;
+        long delta = 0;
+
+        for (long key : this.chunks.keySet())
+        {
+            int chunkRow = chunkRow(key);
+            int chunkCol = chunkCol(key);
+
+            for (int i = -1; i <= 1; i++)
+            {
+                for (int j = -1; j <= 1; j++)
+                {
+                    long candidate = key(chunkRow + i, chunkCol + j);
+                    if (this.nextChunks.containsKey(candidate))
+                    {
+                        continue;
+                    }
+
+                    // An empty chunk is marked as done with a null entry.
+                    long[] next = this.evolveChunk(chunkRow + i, chunkCol + j);
+                    this.nextChunks.put(candidate, next);
+
+                    long[] chunk = this.chunks.get(candidate);
+                    if (next == null && chunk == null)
+                    {
+                        continue;
+                    }
+
+                    for (int r = 0; r < CHUNK_SIZE; r++)
+                    {
+                        long before = row(chunk, r);
+                        long after = row(next, r);
+
+                        alive += Long.bitCount(after);
+                        if (before != after)
+                        {
+                            changed += Long.bitCount(before ^ after);
+                            if (this.detector != null)
+                            {
+                                delta ^= CycleDetector.mix(candidate * CHUNK_SIZE + r, before)
+                                       ^ CycleDetector.mix(candidate * CHUNK_SIZE + r, after);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        this.nextChunks.values().removeIf(chunk -> chunk == null);
+
+        Map<Long, long[]> temp = this.chunks;
+        this.chunks = this.nextChunks;
+        this.nextChunks = temp;
+        this.nextChunks.clear();
+
+        this.population = alive;
+        this.changedCells = changed;
+
+        if (this.detector != null)
+        {
+            this.detector.step(delta);
+        }
+
+        if (stepListener != null)
+        {
+            stepListener.stepEnded(this, 1);
+        }
+    }
+
+    @Override
+    public void setStepListener(StepListener listener) {
+        this.stepListener = listener;
+    }
+
+    /**
+     * Set the rule cells evolve by.
+     *
+     * @param rule the rule, which can't give birth to cells without neighbours.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule.birthsFromNothing())
+        {
+            throw new IllegalArgumentException("UnboundedGame doesn't support " + rule + ", it fills the plane.");
+        }
+
+        this.rule = rule;
+
+        if (this.detector != null)
+        {
+            this.setMaxPeriod(this.detector.getMaxPeriod());
+        }
+    }
+
+    @Override
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Start detecting boards that repeat with up to the given period.
+     *
+     * @param maxPeriod largest period to detect.
+     */
+    @Override
+    public void setMaxPeriod(int maxPeriod) {
+        long hash = 0;
+        for (Map.Entry<Long, long[]> entry : this.chunks.entrySet())
+        {
+            for (int r = 0; r < CHUNK_SIZE; r++)
+            {
+                hash ^= CycleDetector.mix(entry.getKey() * CHUNK_SIZE + r, entry.getValue()[r]);
+            }
+        }
+
+        this.detector = new CycleDetector(new CycleDetector.Board() {
+            @Override
+            public Object snapshot() {
+                Map<Long, long[]> copy = new HashMap<>();
+                for (Map.Entry<Long, long[]> entry : chunks.entrySet())
+                {
+                    copy.put(entry.getKey(), entry.getValue().clone());
+                }
+
+                return copy;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean matches(Object snapshot) {
+                Map<Long, long[]> copy = (Map<Long, long[]>) snapshot;
+                if (copy.size() != chunks.size())
+                {
+                    return false;
+                }
+
+                for (Map.Entry<Long, long[]> entry : chunks.entrySet())
+                {
+                    if (!Arrays.equals(entry.getValue(), copy.get(entry.getKey())))
+                    {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        }, maxPeriod, hash);
+    }
+
+    /**
+     * @return period the board is proven to repeat with, or 0.
+     */
+    @Override
+    public int getPeriod() {
+        return this.detector == null ? 0 : this.detector.getPeriod();
+    }
+
+    @Override
+    public boolean isAlive(int row, int col) {
+        long[] chunk = this.chunks.get(key(Math.floorDiv(row, CHUNK_SIZE), Math.floorDiv(col, CHUNK_SIZE)));
+        return chunk != null && (chunk[Math.floorMod(row, CHUNK_SIZE)] & (1L << col)) != 0;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public int getCols() {
+        return this.cols;
+    }
+
+    @Override
+    public Topology getTopology() {
+        return Topology.UNBOUNDED;
+    }
+
+    /**
+     * @return number of live cells on the whole plane.
+     */
+    @Override
+    public long getPopulation() {
+        return this.population;
+    }
+
+    @Override
+    public long getChangedCells() {
+        return this.changedCells;
+    }
+
+    /**
+     * @return number of live cells on a row of the plane, counted
+     * in the chunks it crosses.
+     */
+    @Override
+    public long getRowPopulation(int row) {
+        final int chunkRow = Math.floorDiv(row, CHUNK_SIZE);
+        final int r = Math.floorMod(row, CHUNK_SIZE);
+
+        long population = 0;
+        for (Map.Entry<Long, long[]> entry : this.chunks.entrySet())
+        {
+            if (chunkRow(entry.getKey()) == chunkRow)
+            {
+                population += Long.bitCount(entry.getValue()[r]);
+            }
+        }
+
+        return population;
+    }
+
+    /**
+     * Find the bounds of the live cells from the chunks holding them,
+     * only looking inside the chunks on the edges.
+     *
+     * @return bounds of the live cells on the whole plane, or null if there are none.
+     */
+    @Override
+    public Bounds getBounds() {
+        int top = Integer.MAX_VALUE, left = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE, right = Integer.MIN_VALUE;
+
+        for (Map.Entry<Long, long[]> entry : this.chunks.entrySet())
+        {
+            final long[] chunk = entry.getValue();
+            final int rowOffset = chunkRow(entry.getKey()) * CHUNK_SIZE;
+            final int colOffset = chunkCol(entry.getKey()) * CHUNK_SIZE;
+
+            // Chunks entirely inside the bounds found so far can't extend them.
+            if (rowOffset > top && rowOffset + CHUNK_SIZE - 1 < bottom
+                    && colOffset > left && colOffset + CHUNK_SIZE - 1 < right)
+            {
+                continue;
+            }
+
+            long columns = 0;
+            int first = -1, last = -1;
+            for (int r = 0; r < CHUNK_SIZE; r++)
+            {
+                if (chunk[r] != 0)
+                {
+                    columns |= chunk[r];
+                    if (first < 0)
+                    {
+                        first = r;
+                    }
+                    last = r;
+                }
+            }
+
+            // Stored chunks hold live cells.
+            top = Math.min(top, rowOffset + first);
+            bottom = Math.max(bottom, rowOffset + last);
+            left = Math.min(left, colOffset + Long.numberOfTrailingZeros(columns));
+            right = Math.max(right, colOffset + 63 - Long.numberOfLeadingZeros(columns));
+        }
+
+        return this.chunks.isEmpty() ? null : new Bounds(top, left, bottom, right);
+    }
+
+    /**
+     * @return number of stored chunks.
+     */
+    public int getChunkCount() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Compute the next generation of a chunk.
+     *
+     * @return the chunk's next states, or null if they're all dead.
+     */
+    private long[] evolveChunk(int chunkRow, int chunkCol) {
+        long[] up = this.chunks.get(key(chunkRow - 1, chunkCol));
+        long[] upWest = this.chunks.get(key(chunkRow - 1, chunkCol - 1));
+        long[] upEast = this.chunks.get(key(chunkRow - 1, chunkCol + 1));
+        long[] mid = this.chunks.get(key(chunkRow, chunkCol));
+        long[] west = this.chunks.get(key(chunkRow, chunkCol - 1));
+        long[] east = this.chunks.get(key(chunkRow, chunkCol + 1));
+        long[] down = this.chunks.get(key(chunkRow + 1, chunkCol));
+        long[] downWest = this.chunks.get(key(chunkRow + 1, chunkCol - 1));
+        long[] downEast = this.chunks.get(key(chunkRow + 1, chunkCol + 1));
+
+        long[] next = null;
+        for (int r = 0; r < CHUNK_SIZE; r++)
+        {
+            // Rows above and below the chunk come from the chunks next to it.
+            long[] u = r > 0 ? mid : up, uw = r > 0 ? west : upWest, ue = r > 0 ? east : upEast;
+            long[] d = r < CHUNK_SIZE - 1 ? mid : down;
+            long[] dw = r < CHUNK_SIZE - 1 ? west : downWest;
+            long[] de = r < CHUNK_SIZE - 1 ? east : downEast;
+
+            int above = (r + CHUNK_SIZE - 1) % CHUNK_SIZE;
+            int below = (r + 1) % CHUNK_SIZE;
+
+            long result = PackedGame.evolve(this.rule,
+                                            row(uw, above), row(u, above), row(ue, above),
+                                            row(west, r), row(mid, r), row(east, r),
+                                            row(dw, below), row(d, below), row(de, below));
+            if (result != 0)
+            {
+                if (next == null)
+                {
+                    next = new long[CHUNK_SIZE];
+                }
+                next[r] = result;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * @return a row of a chunk, or 0 if the chunk isn't stored.
+     */
+    private static long row(long[] chunk, int r) {
+        return chunk == null ? 0 : chunk[r];
+    }
+
+    /**
+     * @return map key of a chunk.
+     */
+    private static long key(int chunkRow, int chunkCol) {
+        return ((long) chunkRow << 32) | (chunkCol & 0xffffffffL);
+    }
+
+    private static int chunkRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int chunkCol(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,176 @@
+package life.view;
+
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import life.model.BitGrid;
+import life.model.GridView;
+import life.model.Snapshot;
+
+/**
+ * GridRenderer draws the game board into a single image, one pixel
+ * per cell, which is scaled to fit the available space. Only cells
+ * that changed since the previous frame are written.
+ *
+ * Snapshots viewing the game's storage are read whole before anything
+ * is drawn, so a view written over while it's read is never drawn.
+ */
+public class GridRenderer {
+    private static final Color LIVE = Color.web("#1e2022"); // Colors used by the stylesheet.
+    private static final Color DEAD = Color.web("#f0f5f9");
+
+    private final int rows;
+    private final int cols;
+
+    private final WritableImage image;
+    private final PixelWriter writer;
+    private final ImageView view;
+    private final StackPane pane; // Pane the image is fitted to.
+
+    private final BitGrid shown;    // States currently drawn.
+    private final BitGrid incoming; // States of a view being drawn.
+
+    /**
+     * GridRenderer constructor, all cells are initially dead.
+     *
+     * @param rows number of grid rows.
+     * @param cols number of grid columns.
+     */
+    public GridRenderer(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+
+        this.image = new WritableImage(cols, rows);
+        this.writer = this.image.getPixelWriter();
+        this.shown = new BitGrid(rows, cols);
+        this.incoming = new BitGrid(rows, cols);
+
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < cols; j++)
+            {
+                this.writer.setColor(j, i, DEAD);
+            }
+        }
+
+        this.view = new ImageView(this.image);
+        this.view.setSmooth(false);
+        this.view.setPreserveRatio(true);
+
+        this.pane = new StackPane(this.view);
+        this.pane.setMinSize(0, 0);
+        this.view.fitWidthProperty().bind(this.pane.widthProperty());
+        this.view.fitHeightProperty().bind(this.pane.heightProperty());
+    }
+
+    /**
+     * GridRenderer constructor, drawing the given states.
+     *
+     * @param grid initial states.
+     */
+    public GridRenderer(BitGrid grid) {
+        this(grid.getRows(), grid.getCols());
+
+        for (int i = 0; i < this.rows; i++)
+        {
+            for (int j = 0; j < this.cols; j++)
+            {
+                if (grid.get(i, j))
+                {
+                    this.draw(i, j, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return node displaying the grid.
+     */
+    public Node getNode() {
+        return this.pane;
+    }
+
+    /**
+     * Let the user change cell states by clicking them.
+     *
+     * @param editable true to handle clicks, false to ignore them.
+     */
+    public void setEditable(boolean editable) {
+        EventHandler<MouseEvent> cellClick = event -> {
+            // Map the click to a cell of the scaled image.
+            int col = (int) (event.getX() / this.view.getBoundsInLocal().getWidth() * this.cols);
+            int row = (int) (event.getY() / this.view.getBoundsInLocal().getHeight() * this.rows);
+
+            if (row >= 0 && row < this.rows && col >= 0 && col < this.cols)
+            {
+                this.draw(row, col, !this.shown.get(row, col));
+            }
+        };
+
+        this.view.setOnMouseClicked(editable ? cellClick : null);
+    }
+
+    /**
+     * @return a copy of the drawn states.
+     */
+    public BitGrid getGrid() {
+        return this.shown.copy();
+    }
+
+    /**
+     * Draw a snapshot of a game, comparing whole words to find
+     * cells that changed since the previous frame.
+     *
+     * @param snapshot snapshot to draw, of the same size as the grid.
+     * @return true if drawn, false if it was a view written over while read.
+     */
+    public boolean render(Snapshot snapshot) {
+        GridView source = snapshot;
+        if (!snapshot.isCopy())
+        {
+            for (int i = 0; i < this.rows; i++)
+            {
+                for (int w = 0, words = snapshot.getWordsPerRow(); w < words; w++)
+                {
+                    this.incoming.setWord(i, w, snapshot.getWord(i, w));
+                }
+            }
+
+            if (!snapshot.isValid())
+            {
+                return false;
+            }
+            source = this.incoming;
+        }
+
+        for (int i = 0; i < this.rows; i++)
+        {
+            for (int w = 0, words = source.getWordsPerRow(); w < words; w++)
+            {
+                long changed = source.getWord(i, w) ^ this.shown.getWord(i, w);
+                while (changed != 0)
+                {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(changed);
+                    this.draw(i, col, !this.shown.get(i, col));
+
+                    changed &= changed - 1;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Set a cell's state and write its pixel.
+     */
+    private void draw(int row, int col, boolean alive) {
+        this.shown.set(row, col, alive);
+        this.writer.setColor(col, row, alive ? LIVE : DEAD);
+    }
+}
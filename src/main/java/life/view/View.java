@@ -7,24 +7,17 @@ import javafx.scene.Scene;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
 /**
  * View is responsible for loading ui's components such
  * as fxml, css, and font.
  */
 public class View extends Application {
-    public static ScheduledExecutorService scheduledExecutorService;
-
     public static void main(String[] args) {
         launch(args);
     }
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-
         // Load fxml, css, and font
         Parent root = FXMLLoader.load(View.class.getResource("layout.fxml"));
 
@@ -38,12 +31,4 @@ public class View extends Application {
         primaryStage.setScene(scene);
         primaryStage.show();
     }
-
-    /**
-     * Shutdown scheduled executor when program is closed.
-     */
-    @Override
-    public void stop() {
-        scheduledExecutorService.shutdown();
-    }
 }
@@ -0,0 +1,215 @@
+package life;
+
+import life.model.Checkpoint;
+import life.model.Engine;
+import life.model.Game;
+import life.model.GameOfLife;
+import life.model.PackedGame;
+import life.model.Rule;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests saving checkpoints and resuming from them.
+ */
+class CheckpointTest {
+    /**
+     * Test that a run interrupted by a checkpoint ends with the
+     * same board as one that wasn't, for every engine, topology and
+     * a few rules, restoring with a different engine.
+     */
+    @Test
+    void testResumeIsExact() throws IOException {
+        Random random = new Random(15);
+        Path path = Files.createTempFile("life", ".checkpoint");
+
+        for (Rule rule : new Rule[] {Rule.CONWAY, Rule.HIGHLIFE, Rule.DAY_AND_NIGHT})
+        {
+            for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+            {
+                boolean[][] config = new boolean[1 + random.nextInt(100)][1 + random.nextInt(200)];
+                for (boolean[] row : config)
+                {
+                    for (int j = 0; j < row.length; j++)
+                    {
+                        row[j] = random.nextBoolean();
+                    }
+                }
+
+                Game expected = Engine.PACKED.create(config, topology, rule);
+                expected.step(50);
+
+                for (Engine engine : Engine.values())
+                {
+                    if (!engine.supports(topology))
+                    {
+                        continue;
+                    }
+
+                    Game game = engine.create(config, topology, rule);
+                    game.step(20);
+                    game.save(path, 20);
+
+                    Checkpoint checkpoint = Checkpoint.load(path);
+                    assertEquals(20, checkpoint.getGeneration());
+                    assertEquals(topology, checkpoint.getTopology());
+                    assertEquals(rule, checkpoint.getRule());
+
+                    Game resumed = checkpoint.restore(engine == Engine.STANDARD ? Engine.SPARSE : Engine.STANDARD);
+                    resumed.step(30);
+
+                    String name = engine + " " + rule + " on " + topology;
+                    for (int i = 0; i < config.length; i++)
+                    {
+                        for (int j = 0; j < config[0].length; j++)
+                        {
+                            assertEquals(expected.isAlive(i, j), resumed.isAlive(i, j), name + " cell " + i + ", " + j);
+                        }
+                    }
+                }
+            }
+        }
+
+        Files.delete(path);
+    }
+
+    /**
+     * Test that restoring reads the board from the file into the
+     * game's own grid, rather than from a grid read when loading.
+     */
+    @Test
+    void testRestoreReadsFile() throws IOException {
+        Path path = Files.createTempFile("life", ".checkpoint");
+
+        boolean[][] glider = new boolean[30][130];
+        glider[0][64] = glider[1][65] = true;
+        glider[2][63] = glider[2][64] = glider[2][65] = true;
+
+        Game game = Engine.PACKED.create(glider, Topology.TORUS);
+        game.save(path, 7);
+
+        Checkpoint checkpoint = Checkpoint.load(path);
+        Game first = checkpoint.restore(Engine.PACKED);
+        Game second = checkpoint.restore(Engine.TABLE);
+        assertNotSame(((PackedGame) first).getGrid(), ((PackedGame) second).getGrid(), "Restored games share a grid.");
+
+        first.step();
+        for (int i = 0; i < glider.length; i++)
+        {
+            for (int j = 0; j < glider[0].length; j++)
+            {
+                assertEquals(glider[i][j], second.isAlive(i, j), "Cell " + i + ", " + j);
+            }
+        }
+
+        // The board is read when restoring, so a file changed since is noticed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(Engine.PACKED));
+
+        Files.delete(path);
+    }
+
+    /**
+     * Test that a save failing midway leaves the previous checkpoint
+     * in place, and no temporary file behind.
+     */
+    @Test
+    void testFailedSaveKeepsCheckpoint() throws IOException {
+        Path directory = Files.createTempDirectory("life");
+        Path path = directory.resolve("run.checkpoint");
+
+        boolean[][] config = new boolean[20][20];
+        config[5][4] = config[5][5] = config[5][6] = true;
+        Engine.PACKED.create(config).save(path, 10);
+
+        // Fails once half the board was written.
+        Game failing = new GameOfLife(config) {
+            private int reads;
+
+            @Override
+            public boolean isAlive(int row, int col) {
+                if (++this.reads > 200)
+                {
+                    throw new IllegalStateException("Failed mid-save.");
+                }
+                return super.isAlive(row, col);
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> failing.save(path, 11));
+
+        Checkpoint checkpoint = Checkpoint.load(path);
+        assertEquals(10, checkpoint.getGeneration());
+        assertTrue(checkpoint.restore(Engine.PACKED).isAlive(5, 5));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "Temporary file left behind.");
+        }
+
+        Files.delete(path);
+        Files.delete(directory);
+    }
+
+    /**
+     * Test that files that aren't valid checkpoints are rejected.
+     */
+    @Test
+    void testInvalid() throws IOException {
+        Path path = Files.createTempFile("life", ".checkpoint");
+
+        Files.write(path, new byte[] {'L', 'I', 'F', 'E'});
+        assertThrows(IllegalArgumentException.class, () -> Checkpoint.load(path));
+
+        Files.write(path, new byte[100]);
+        assertThrows(IllegalArgumentException.class, () -> Checkpoint.load(path));
+
+        // Truncated rows.
+        Engine.PACKED.create(new boolean[10][10]).save(path, 0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Checkpoint.load(path));
+
+        // Cells past the last column.
+        Engine.PACKED.create(new boolean[10][10]).save(path, 0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 0, 0, -1}), 64);
+        }
+        Checkpoint corrupt = Checkpoint.load(path);
+        assertThrows(IllegalArgumentException.class, () -> corrupt.restore(Engine.PACKED));
+        assertThrows(IllegalArgumentException.class, corrupt::getGrid);
+
+        Files.delete(path);
+    }
+
+    /**
+     * Test that unbounded boards can't be saved, since only their
+     * region would be.
+     */
+    @Test
+    void testUnbounded() throws IOException {
+        Path path = Files.createTempFile("life", ".checkpoint");
+        for (Engine engine : Engine.values())
+        {
+            if (engine.supports(Topology.UNBOUNDED))
+            {
+                Game game = engine.create(new boolean[4][4], Topology.UNBOUNDED);
+                assertThrows(UnsupportedOperationException.class, () -> game.save(path, 0), engine.toString());
+            }
+        }
+
+        Files.delete(path);
+    }
+}
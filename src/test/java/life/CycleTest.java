@@ -0,0 +1,109 @@
+package life;
+
+import life.model.Engine;
+import life.model.Game;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test detection of repeating boards.
+ */
+class CycleTest {
+    /**
+     * Test still lifes and oscillators of several periods.
+     */
+    @Test
+    void testOscillators() {
+        boolean[][] block = new boolean[6][6];
+        block[2][2] = block[2][3] = block[3][2] = block[3][3] = true;
+
+        boolean[][] blinker = new boolean[5][5];
+        blinker[2][1] = blinker[2][2] = blinker[2][3] = true;
+
+        // Pentadecathlon, period 15.
+        boolean[][] pentadecathlon = new boolean[18][11];
+        for (int i = 4; i < 14; i++)
+        {
+            pentadecathlon[i][5] = true;
+        }
+        pentadecathlon[6][5] = pentadecathlon[11][5] = false;
+        pentadecathlon[6][4] = pentadecathlon[6][6] = pentadecathlon[11][4] = pentadecathlon[11][6] = true;
+
+        for (Engine engine : this.detectingEngines())
+        {
+            Topology topology = engine.supports(Topology.BOUNDED) ? Topology.BOUNDED : Topology.UNBOUNDED;
+
+            assertPeriod(engine, block, topology, 1, 2);
+            assertPeriod(engine, blinker, topology, 2, 4);
+            assertPeriod(engine, pentadecathlon, topology, 15, 30);
+        }
+    }
+
+    /**
+     * Test that a glider on a torus is detected as periodic, and
+     * that periods past the bound aren't.
+     */
+    @Test
+    void testTorusGlider() {
+        boolean[][] glider = new boolean[8][10];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        // Back in place after 4 * lcm(8, 10) generations.
+        for (Engine engine : this.detectingEngines())
+        {
+            if (engine.supports(Topology.TORUS))
+            {
+                assertPeriod(engine, glider, Topology.TORUS, 160, 320);
+
+                Game game = engine.create(glider, Topology.TORUS);
+                game.setMaxPeriod(100);
+                game.step(1000);
+                assertEquals(0, game.getPeriod(), engine + " detected a period past the bound.");
+            }
+        }
+    }
+
+    /**
+     * Test that a moving glider is never periodic on an unbounded plane.
+     */
+    @Test
+    void testUnboundedGlider() {
+        boolean[][] glider = new boolean[3][3];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        Game game = Engine.CHUNKED.create(glider);
+        game.setMaxPeriod(50);
+        game.step(500);
+
+        assertEquals(0, game.getPeriod(), "Glider detected as periodic.");
+    }
+
+    /**
+     * Asserts that a board is detected to repeat with the given
+     * period, before the given number of generations.
+     */
+    private void assertPeriod(Engine engine, boolean[][] config, Topology topology, int period, int within) {
+        Game game = engine.create(config, topology);
+        game.setMaxPeriod(2 * period);
+
+        int generation = 0;
+        while (game.getPeriod() == 0 && generation < within)
+        {
+            game.step();
+            generation++;
+        }
+
+        assertEquals(period, game.getPeriod(), engine + " detected wrong period.");
+    }
+
+    /**
+     * @return engines that detect cycles.
+     */
+    private Engine[] detectingEngines() {
+        return new Engine[] {Engine.STANDARD, Engine.PACKED, Engine.PARALLEL, Engine.SPARSE, Engine.VECTOR, Engine.CHUNKED};
+    }
+}
@@ -0,0 +1,296 @@
+package life;
+
+import life.model.BandExecutor;
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.Rule;
+import life.model.TableGame;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Steps random rectangular boards through every engine and
+ * compares each generation with a straightforward reference.
+ */
+class DifferentialTest {
+    private static final int BOARDS = 12;      // Random boards per topology.
+    private static final int GENERATIONS = 40; // Generations each board is stepped.
+
+    // Rules other than B3/S23, including one giving birth without neighbours.
+    private static final String[] RULES = {"B36/S23", "B3678/S34678", "B2/S", "B1357/S1357", "B0123/S01234"};
+
+    /**
+     * Test every engine against the reference on every topology it supports.
+     */
+    @Test
+    void testEnginesMatchReference() {
+        Random random = new Random(2020);
+
+        for (Topology topology : Topology.values())
+        {
+            for (int b = 0; b < BOARDS; b++)
+            {
+                boolean[][] config = randomBoard(random, b);
+                for (Engine engine : Engine.values())
+                {
+                    if (engine.supports(topology))
+                    {
+                        this.compare(engine, topology, config, Rule.CONWAY);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test every engine against the reference under other rules.
+     */
+    @Test
+    void testRulesMatchReference() {
+        Random random = new Random(2021);
+
+        for (String notation : RULES)
+        {
+            Rule rule = Rule.parse(notation);
+            for (Topology topology : Topology.values())
+            {
+                if (topology == Topology.UNBOUNDED && rule.birthsFromNothing())
+                {
+                    continue;
+                }
+
+                for (int b = 0; b < BOARDS / 3; b++)
+                {
+                    boolean[][] config = randomBoard(random, b);
+                    for (Engine engine : Engine.values())
+                    {
+                        if (engine.supports(topology))
+                        {
+                            this.compare(engine, topology, config, rule);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that unbounded engines reject rules filling the plane.
+     */
+    @Test
+    void testUnboundedRejectsBirthFromNothing() {
+        boolean[][] config = new boolean[4][4];
+        for (Engine engine : Engine.values())
+        {
+            if (engine.supports(Topology.UNBOUNDED))
+            {
+                Game game = engine.create(config, Topology.UNBOUNDED);
+                assertThrows(IllegalArgumentException.class, () -> game.setRule(Rule.parse("B0/S8")),
+                        engine + " accepted B0.");
+            }
+        }
+    }
+
+    /**
+     * Test the case that used to miscount the right edge of
+     * boards with more columns than rows.
+     */
+    @Test
+    void testWideBoard() {
+        boolean[][] config = {
+            {false, false, false, false, false, false, true},
+            {false, false, false, false, false, false, true},
+            {false, false, false, false, false, false, true}
+        };
+
+        boolean[][] expected = {
+            {false, false, false, false, false, false, false},
+            {false, false, false, false, false, true,  true},
+            {false, false, false, false, false, false, false}
+        };
+
+        for (Engine engine : Engine.values())
+        {
+            if (engine.supports(Topology.BOUNDED))
+            {
+                assertStates(expected, engine.create(config, Topology.BOUNDED).nextConfig(),
+                        engine + " wide board.");
+            }
+        }
+    }
+
+    /**
+     * Test TableGame stepping bands with odd numbers of rows, whose
+     * last row isn't stepped as part of a pair.
+     */
+    @Test
+    void testTableOddBands() {
+        Random random = new Random(2025);
+
+        BandExecutor executor = BandExecutor.parallel(2, 3);
+        try {
+            for (int b = 0; b < BOARDS; b++)
+            {
+                boolean[][] config = randomBoard(random, b);
+                Rule rule = b % 2 == 0 ? Rule.CONWAY : Rule.HIGHLIFE;
+                Game game = new TableGame(BitGrid.of(config), Topology.BOUNDED, executor);
+                game.setRule(rule);
+
+                Reference reference = new Reference(config, Topology.BOUNDED, rule.toString());
+                for (int i = 0; i < GENERATIONS; i++)
+                {
+                    boolean[][] calculated = game.nextConfig();
+                    reference.step();
+
+                    assertStates(reference.window(), calculated, "Bands of 3 rows, generation " + i + ".");
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return a random board, thin for some values of b, with rows
+     * crossing word boundaries.
+     */
+    private static boolean[][] randomBoard(Random random, int b) {
+        int rows = 1 + random.nextInt(b % 3 == 0 ? 4 : 90);
+        int cols = 1 + random.nextInt(b % 4 == 0 ? 4 : 150);
+        double density = 0.1 + random.nextDouble() * 0.5;
+
+        boolean[][] config = new boolean[rows][cols];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < cols; j++)
+            {
+                row[j] = random.nextDouble() < density;
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Step an engine and the reference side by side.
+     */
+    private void compare(Engine engine, Topology topology, boolean[][] config, Rule rule) {
+        String name = engine + " " + rule + " on " + topology + " " + config.length + "x" + config[0].length;
+
+        Game game = engine.create(config, topology, rule);
+        Reference reference = new Reference(config, topology, rule.toString());
+        for (int i = 0; i < GENERATIONS; i++)
+        {
+            boolean[][] calculated = game.nextConfig();
+            reference.step();
+
+            assertStates(reference.window(), calculated, name + " generation " + i + ".");
+            assertEquals(reference.isStatic(), game.isStatic(), name + " isStatic at generation " + i + ".");
+        }
+    }
+
+    /**
+     * Asserts that two state arrays are equal.
+     */
+    private void assertStates(boolean[][] expected, boolean[][] calculated, String message) {
+        assertEquals(expected.length, calculated.length, message);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertArrayEquals(expected[i], calculated[i], message + " Row " + i + ".");
+        }
+    }
+
+    /**
+     * Reference implementation, checking all eight neighbours of
+     * every cell. An unbounded board is simulated by surrounding it
+     * with enough dead cells that its edges can't affect the window
+     * within GENERATIONS steps.
+     *
+     * The rule is read from its B/S notation, independently of Rule.
+     */
+    private static final class Reference {
+        private final Topology topology;
+        private final String birth;    // Digits after B.
+        private final String survival; // Digits after S.
+        private final int pad;
+        private final int rows, cols;
+
+        private boolean[][] cells;
+        private boolean changed;
+
+        Reference(boolean[][] config, Topology topology, String rule) {
+            this.topology = topology;
+            this.birth = rule.substring(1, rule.indexOf('/'));
+            this.survival = rule.substring(rule.indexOf('/') + 2);
+            this.pad = topology == Topology.UNBOUNDED ? GENERATIONS + 2 : 0;
+            this.rows = config.length;
+            this.cols = config[0].length;
+
+            this.cells = new boolean[this.rows + 2 * this.pad][this.cols + 2 * this.pad];
+            for (int i = 0; i < this.rows; i++)
+            {
+                System.arraycopy(config[i], 0, this.cells[i + this.pad], this.pad, this.cols);
+            }
+        }
+
+        void step() {
+            int height = this.cells.length, width = this.cells[0].length;
+            boolean[][] next = new boolean[height][width];
+
+            this.changed = false;
+            for (int i = 0; i < height; i++)
+            {
+                for (int j = 0; j < width; j++)
+                {
+                    int neighbours = 0;
+                    for (int di = -1; di <= 1; di++)
+                    {
+                        for (int dj = -1; dj <= 1; dj++)
+                        {
+                            if ((di != 0 || dj != 0) && this.get(i + di, j + dj))
+                            {
+                                neighbours++;
+                            }
+                        }
+                    }
+
+                    String counts = this.cells[i][j] ? this.survival : this.birth;
+                    next[i][j] = counts.indexOf((char) ('0' + neighbours)) >= 0;
+                    this.changed |= next[i][j] != this.cells[i][j];
+                }
+            }
+
+            this.cells = next;
+        }
+
+        boolean get(int i, int j) {
+            int height = this.cells.length, width = this.cells[0].length;
+            if (this.topology == Topology.TORUS)
+            {
+                return this.cells[Math.floorMod(i, height)][Math.floorMod(j, width)];
+            }
+
+            return i >= 0 && j >= 0 && i < height && j < width && this.cells[i][j];
+        }
+
+        boolean isStatic() {
+            return !this.changed;
+        }
+
+        boolean[][] window() {
+            boolean[][] window = new boolean[this.rows][this.cols];
+            for (int i = 0; i < this.rows; i++)
+            {
+                System.arraycopy(this.cells[i + this.pad], this.pad, window[i], 0, this.cols);
+            }
+
+            return window;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package life;
+
+import life.distributed.DistributedGame;
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.Rule;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests games split between worker processes.
+ */
+class DistributedTest {
+    private static final int GENERATIONS = 60;
+
+    /**
+     * Test that boards stepped by several worker JVMs, over both
+     * transports, match a single process run generation by generation.
+     */
+    @Test
+    void testMatchesSingleProcess() throws IOException {
+        Random random = new Random(20);
+
+        for (String transport : new String[] {"socket", "file"})
+        {
+            for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+            {
+                // Bands of one row, and the last word of a row being full.
+                int rows = topology == Topology.BOUNDED ? 3 : 20 + random.nextInt(40);
+                BitGrid grid = randomGrid(random, rows, topology == Topology.BOUNDED ? 128 : 1 + random.nextInt(150));
+
+                assertMatches(grid, topology, Rule.HIGHLIFE, transport, 3);
+            }
+        }
+    }
+
+    /**
+     * Test a single worker, and two workers being both neighbours of
+     * each other on a torus.
+     */
+    @Test
+    void testFewWorkers() throws IOException {
+        Random random = new Random(21);
+
+        for (int workers = 1; workers <= 2; workers++)
+        {
+            for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+            {
+                assertMatches(randomGrid(random, 17, 70), topology, Rule.CONWAY, "socket", workers);
+            }
+        }
+    }
+
+    /**
+     * Test that boards that can't be split are rejected before any
+     * worker is launched.
+     */
+    @Test
+    void testInvalid() {
+        BitGrid grid = new BitGrid(4, 4);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DistributedGame.launch(grid, Topology.BOUNDED, Rule.CONWAY, Engine.PACKED, "socket", 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> DistributedGame.launch(grid, Topology.UNBOUNDED, Rule.CONWAY, Engine.PACKED, "socket", 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> DistributedGame.launch(grid, Topology.BOUNDED, Rule.CONWAY, Engine.SPARSE, "socket", 2));
+    }
+
+    private static void assertMatches(BitGrid grid, Topology topology, Rule rule, String transport, int workers)
+            throws IOException {
+        Game expected = Engine.PACKED.create(grid.copy(), topology, rule);
+
+        try (DistributedGame game = DistributedGame.launch(grid, topology, rule, Engine.PACKED, transport, workers)) {
+            assertEquals(workers, game.getWorkerCount());
+
+            String name = workers + " workers over " + transport + " on " + topology;
+            for (int g = 1; g <= GENERATIONS; g++)
+            {
+                expected.step();
+                game.step();
+
+                assertEquals(expected.getChangedCells(), game.getChangedCells(), name + " generation " + g);
+                if (g % 20 == 0)
+                {
+                    assertEquals(expected.getPopulation(), game.getPopulation(), name + " generation " + g);
+                    for (int i = 0; i < grid.getRows(); i++)
+                    {
+                        for (int j = 0; j < grid.getCols(); j++)
+                        {
+                            assertEquals(expected.isAlive(i, j), game.isAlive(i, j),
+                                    name + " generation " + g + " cell " + i + ", " + j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static BitGrid randomGrid(Random random, int rows, int cols) {
+        BitGrid grid = new BitGrid(rows, cols);
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < cols; j++)
+            {
+                grid.set(i, j, random.nextDouble() < 0.35);
+            }
+        }
+
+        return grid;
+    }
+}
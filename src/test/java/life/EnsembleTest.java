@@ -0,0 +1,154 @@
+package life;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Ensemble;
+import life.model.Game;
+import life.model.Rule;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests running ensembles of random boards.
+ */
+class EnsembleTest {
+    private static final int RUNS = 40;
+
+    /**
+     * Test that every run of an ensemble, stepped concurrently on
+     * reused games, ends as the same board stepped on its own does.
+     */
+    @Test
+    void testMatchesSingleRuns() throws IOException {
+        for (Engine engine : new Engine[] {Engine.PACKED, Engine.SPARSE, Engine.STANDARD})
+        {
+            Ensemble ensemble = new Ensemble(24, 40);
+            ensemble.setEngine(engine);
+            ensemble.setTopology(Topology.TORUS);
+            ensemble.setRule(Rule.HIGHLIFE);
+            ensemble.setDensity(0.3);
+            ensemble.setMaxGenerations(300);
+            ensemble.setMaxPeriod(4);
+            ensemble.setParallelism(4);
+
+            Ensemble.Result[] results = new Ensemble.Result[RUNS];
+            ensemble.run(100, RUNS, result -> {
+                assertNull(results[result.getRun()], "Run " + result.getRun() + " reported twice.");
+                results[result.getRun()] = result;
+            });
+
+            for (int run = 0; run < RUNS; run++)
+            {
+                Ensemble.Result result = results[run];
+                assertNotNull(result, "Run " + run + " wasn't reported.");
+                assertEquals(100 + run, result.getSeed());
+
+                Game game = Engine.PACKED.create(randomGrid(24, 40, 0.3, result.getSeed()), Topology.TORUS, Rule.HIGHLIFE);
+                game.setMaxPeriod(4);
+
+                long generations = 0;
+                while (generations < 300 && !game.isStatic() && game.getPeriod() == 0)
+                {
+                    game.step();
+                    generations++;
+                }
+
+                String name = engine + " run " + run;
+                assertEquals(generations, result.getGenerations(), name);
+                assertEquals(game.getPopulation(), result.getPopulation(), name);
+                assertEquals(game.isStatic() ? 1 : game.getPeriod(), result.getPeriod(), name);
+            }
+        }
+    }
+
+    /**
+     * Test that OFFHEAP games, refilled in place between runs, report
+     * the same results as PACKED games.
+     */
+    @Test
+    void testOffHeapMatchesPacked() throws IOException {
+        Ensemble.Result[][] results = new Ensemble.Result[2][RUNS];
+        Engine[] engines = {Engine.PACKED, Engine.OFFHEAP};
+        for (int e = 0; e < engines.length; e++)
+        {
+            Ensemble ensemble = new Ensemble(24, 200);
+            ensemble.setEngine(engines[e]);
+            ensemble.setTopology(Topology.TORUS);
+            ensemble.setMaxGenerations(100);
+            ensemble.setMaxPeriod(0);
+            ensemble.setParallelism(2);
+
+            final Ensemble.Result[] engineResults = results[e];
+            ensemble.run(7, RUNS, result -> engineResults[result.getRun()] = result);
+        }
+
+        for (int run = 0; run < RUNS; run++)
+        {
+            assertEquals(results[0][run].getGenerations(), results[1][run].getGenerations(), "Run " + run);
+            assertEquals(results[0][run].getPopulation(), results[1][run].getPopulation(), "Run " + run);
+            assertEquals(results[0][run].getPeriod(), results[1][run].getPeriod(), "Run " + run);
+        }
+    }
+
+    /**
+     * Test the CSV and JSON lines sinks.
+     */
+    @Test
+    void testSinks() throws IOException {
+        Ensemble ensemble = new Ensemble(8, 8);
+        ensemble.setParallelism(1);
+
+        StringWriter csv = new StringWriter();
+        ensemble.run(1, 3, Ensemble.Sink.csv(csv));
+
+        String[] lines = csv.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("run,seed,generations,lifespan,period,population", lines[0]);
+        assertTrue(lines[1].matches("0,1,\\d+,\\d+,\\d+,\\d+"), lines[1]);
+
+        StringWriter json = new StringWriter();
+        ensemble.run(1, 3, Ensemble.Sink.jsonLines(json));
+
+        lines = json.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].matches("\\{\"run\":2,\"seed\":3,\"generations\":\\d+,\"lifespan\":\\d+,"
+                + "\"period\":\\d+,\"population\":\\d+}"), lines[2]);
+    }
+
+    /**
+     * Test that a failing sink stops the ensemble with its exception.
+     */
+    @Test
+    void testSinkFailure() {
+        Ensemble ensemble = new Ensemble(16, 16);
+
+        IOException e = assertThrows(IOException.class, () -> ensemble.run(0, 1000, result -> {
+            throw new IOException("disk full");
+        }));
+        assertEquals("disk full", e.getMessage());
+    }
+
+    /**
+     * @return a board filled as the ensemble fills it.
+     */
+    private static BitGrid randomGrid(int rows, int cols, double density, long seed) {
+        Random random = new Random(seed);
+
+        BitGrid grid = new BitGrid(rows, cols);
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < cols; j++)
+            {
+                grid.set(i, j, random.nextDouble() < density);
+            }
+        }
+
+        return grid;
+    }
+}
@@ -1,9 +1,16 @@
 package life;
 
+import life.model.BandExecutor;
+import life.model.BitGrid;
+import life.model.Engine;
 import life.model.Game;
 import life.model.GameOfLife;
+import life.model.PackedGame;
+import life.model.Rule;
+import life.model.Topology;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -17,6 +24,13 @@ class GameTest {
      */
     @Test
     void testStaticPatterns() {
+        for (Engine engine : Engine.values())
+        {
+            this.testStaticPatterns(engine);
+        }
+    }
+
+    void testStaticPatterns(Engine engine) {
         Game game;
 
         boolean[][] firstConfig = {
@@ -26,7 +40,7 @@ class GameTest {
             {false, false, false, false}
         };
 
-        game = new GameOfLife(firstConfig);
+        game = engine.create(firstConfig);
         for (int i = 0; i < 5; i++)
         {
             assertStates(firstConfig, game.nextConfig());
@@ -40,7 +54,7 @@ class GameTest {
             {false, false, false, false, false}
         };
 
-        game = new GameOfLife(secondConfig);
+        game = engine.create(secondConfig);
         for (int i = 0; i < 10; i++)
         {
             assertStates(secondConfig, game.nextConfig());
@@ -49,6 +63,13 @@ class GameTest {
 
     @Test
     void testIsStatic() {
+        for (Engine engine : Engine.values())
+        {
+            this.testIsStatic(engine);
+        }
+    }
+
+    void testIsStatic(Engine engine) {
         boolean[][] config = {
             {false, false, false, false},
             {false, true,  true,  false},
@@ -56,7 +77,7 @@ class GameTest {
             {false, false, false, false}
         };
 
-        Game game = new GameOfLife(config);
+        Game game = engine.create(config);
 
         for (int i = 0; i < 10; i++)
         {
@@ -70,6 +91,13 @@ class GameTest {
      */
     @Test
     void testOscillatingPattern() {
+        for (Engine engine : Engine.values())
+        {
+            this.testOscillatingPattern(engine);
+        }
+    }
+
+    void testOscillatingPattern(Engine engine) {
         Game game;
         Random random = new Random();
 
@@ -92,7 +120,7 @@ class GameTest {
             }
         };
 
-        game = new GameOfLife(firstConfigs[0]);
+        game = engine.create(firstConfigs[0]);
         for (int i = 0, n = random.nextInt(20); i < n; i++)
         {
             if (i % 2 == 0)
@@ -124,7 +152,7 @@ class GameTest {
             }
         };
 
-        game = new GameOfLife(secondConfigs[0]);
+        game = engine.create(secondConfigs[0]);
         for (int i = 0, n = random.nextInt(20); i < n; i++)
         {
             if (i % 2 == 0)
@@ -138,6 +166,213 @@ class GameTest {
         }
     }
 
+    /**
+     * Test that engines agree on a board spanning several words per row.
+     */
+    @Test
+    void testEnginesAgree() {
+        Random random = new Random(42);
+
+        boolean[][] config = new boolean[130][130];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j] = random.nextInt(3) == 0;
+            }
+        }
+
+        for (Engine engine : Engine.values())
+        {
+            if (!engine.supports(Topology.BOUNDED))
+            {
+                continue;
+            }
+
+            Game expected = Engine.STANDARD.create(config);
+            Game game = engine.create(config);
+            for (int i = 0; i < 50; i++)
+            {
+                assertStates(expected.nextConfig(), game.nextConfig());
+                assertEquals(expected.isStatic(), game.isStatic(),
+                        engine + " isStatic differs at generation " + i + ".");
+            }
+        }
+    }
+
+    /**
+     * Test that stepping in parallel bands gives the same states
+     * as stepping sequentially.
+     */
+    @Test
+    void testParallelBands() {
+        Random random = new Random(7);
+
+        boolean[][] config = new boolean[200][200];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j] = random.nextBoolean();
+            }
+        }
+
+        BandExecutor executor = BandExecutor.parallel(4, 7);
+        try {
+            Game[] expected = {new GameOfLife(config), new PackedGame(config)};
+            Game[] parallel = {new GameOfLife(config, executor), new PackedGame(config, executor)};
+
+            for (int i = 0; i < 30; i++)
+            {
+                for (int k = 0; k < expected.length; k++)
+                {
+                    assertStates(expected[k].nextConfig(), parallel[k].nextConfig());
+                    assertEquals(expected[k].isStatic(), parallel[k].isStatic(),
+                            "isStatic differs at generation " + i + ".");
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that tracking tiles gives the same states as stepping every
+     * tile, and that only tiles near changes are recomputed.
+     */
+    @Test
+    void testSparseTiles() {
+        boolean[][] config = new boolean[300][300];
+
+        // A glider in the middle of the board and a block near a corner.
+        config[150][151] = config[151][152] = true;
+        config[152][150] = config[152][151] = config[152][152] = true;
+        config[10][10] = config[10][11] = config[11][10] = config[11][11] = true;
+
+        Game expected = Engine.PACKED.create(config);
+        PackedGame sparse = new PackedGame(BitGrid.of(config), BandExecutor.SEQUENTIAL, true);
+
+        assertEquals(25, sparse.getTileCount(), "Incorrect number of tiles.");
+        for (int i = 0; i < 100; i++)
+        {
+            assertStates(expected.nextConfig(), sparse.nextConfig());
+
+            // The glider touches at most 4 tiles, activating at most 16.
+            if (i > 0)
+            {
+                assertTrue(sparse.getActiveTileCount() <= 16,
+                        "Too many active tiles at generation " + i + ".");
+            }
+        }
+    }
+
+    /**
+     * Test that stepping a vector of words at a time gives the same
+     * states as PACKED, on widths around multiples of the vector
+     * size. Without the Vector API this compares PACKED with itself.
+     */
+    @Test
+    void testVectorRows() {
+        Random random = new Random(18);
+
+        for (int cols : new int[] {1, 63, 64, 65, 511, 1023, 1024, 1025, 1089, 2047, 2111, 4096})
+        {
+            for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+            {
+                BitGrid grid = new BitGrid(1 + random.nextInt(20), cols);
+                for (int i = 0; i < grid.getRows(); i++)
+                {
+                    for (int j = 0; j < cols; j++)
+                    {
+                        grid.set(i, j, random.nextDouble() < 0.4);
+                    }
+                }
+
+                for (Rule rule : new Rule[] {Rule.CONWAY, Rule.HIGHLIFE, Rule.SEEDS})
+                {
+                    Game expected = Engine.PACKED.create(grid.copy(), topology, rule);
+                    Game vector = Engine.VECTOR.create(grid.copy(), topology, rule);
+                    expected.setMaxPeriod(8);
+                    vector.setMaxPeriod(8);
+
+                    String message = cols + " columns on " + topology + " under " + rule;
+                    for (int g = 0; g < 40; g++)
+                    {
+                        expected.step();
+                        vector.step();
+
+                        assertEquals(expected.getChangedCells(), vector.getChangedCells(), message);
+                        assertEquals(expected.getPeriod(), vector.getPeriod(), message);
+                    }
+
+                    for (int i = 0; i < grid.getRows(); i++)
+                    {
+                        for (int j = 0; j < cols; j++)
+                        {
+                            assertEquals(expected.isAlive(i, j), vector.isAlive(i, j), message);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that a steady-state step doesn't allocate.
+     */
+    @Test
+    void testStepDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        Random random = new Random(3);
+
+        // Wide enough for VECTOR to step whole vectors.
+        boolean[][] config = new boolean[16][1088];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j] = random.nextBoolean();
+            }
+        }
+
+        for (Engine engine : new Engine[] {Engine.STANDARD, Engine.PACKED, Engine.SPARSE, Engine.VECTOR, Engine.TABLE, Engine.OFFHEAP})
+        {
+            Game game = engine.create(config);
+
+            // Warm up, letting lazily created buffers be allocated.
+            for (int i = 0; i < 1000; i++)
+            {
+                game.nextConfig();
+                game.isStatic();
+            }
+
+            // Reading the counter can allocate once it's recompiled, so
+            // keep the least of a few rounds. Steps that allocate would
+            // show in every round.
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++)
+            {
+                // Allocations made by reading the counter itself.
+                long before = threads.getThreadAllocatedBytes(thread);
+                long overhead = threads.getThreadAllocatedBytes(thread) - before;
+
+                before = threads.getThreadAllocatedBytes(thread);
+                for (int i = 0; i < 1000; i++)
+                {
+                    game.nextConfig();
+                    game.isStatic();
+                }
+                allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before - overhead);
+            }
+
+            assertEquals(0, allocated, engine + " allocated during steps.");
+        }
+    }
+
     /**
      * Asserts that calculated states are not null and are the same
      * as expected states. States are represented using boolean 2d
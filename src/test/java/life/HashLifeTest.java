@@ -0,0 +1,123 @@
+package life;
+
+import life.model.Game;
+import life.model.HashLife;
+import life.model.PackedGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test HashLife class.
+ */
+class HashLifeTest {
+    /**
+     * Test that HashLife agrees with a bounded engine while the
+     * pattern stays away from the walls.
+     */
+    @Test
+    void testMatchesPackedGame() {
+        boolean[][] config = this.soup(200, 200, 20, new Random(11));
+
+        Game expected = new PackedGame(config);
+        HashLife game = new HashLife(config);
+        for (int i = 0; i < 60; i++)
+        {
+            assertStates(expected.nextConfig(), game.nextConfig());
+            assertEquals(expected.isStatic(), game.isStatic(), "isStatic differs at generation " + i + ".");
+        }
+
+        assertEquals(60, game.getGeneration(), "Incorrect generation.");
+    }
+
+    /**
+     * Test that a single large step gives the same states as many
+     * single generation steps.
+     */
+    @Test
+    void testLargeStep() {
+        boolean[][] config = this.soup(64, 64, 16, new Random(5));
+
+        HashLife stepped = new HashLife(config);
+        HashLife jumped = new HashLife(config);
+        for (int i = 0; i < 1000; i++)
+        {
+            stepped.step();
+        }
+        jumped.step(1000);
+
+        assertEquals(stepped.getPopulation(), jumped.getPopulation(), "Population differs.");
+        assertStates(stepped.getRegion(-600, -600, 1300, 1300), jumped.getRegion(-600, -600, 1300, 1300));
+    }
+
+    /**
+     * Test that a glider travels one cell diagonally every four
+     * generations, far past the initial region.
+     */
+    @Test
+    void testGlider() {
+        boolean[][] config = new boolean[8][8];
+        config[0][1] = config[1][2] = true;
+        config[2][0] = config[2][1] = config[2][2] = true;
+
+        HashLife game = new HashLife(config);
+        game.step(4 * 1000);
+        assertStates(config, game.getRegion(1000, 1000, 8, 8));
+
+        // Moves 2^38 cells, out of int range, leaving the region empty.
+        game = new HashLife(config);
+        game.step(1L << 40);
+
+        assertEquals(5, game.getPopulation(), "Glider population changed.");
+        assertEquals(1L << 40, game.getGeneration(), "Incorrect generation.");
+        assertStates(new boolean[8][8], game.getRegion(0, 0, 8, 8));
+    }
+
+    /**
+     * Test that stepping stays correct when the cache is collected.
+     */
+    @Test
+    void testBoundedCache() {
+        boolean[][] config = this.soup(64, 64, 32, new Random(9));
+
+        HashLife bounded = new HashLife(config, 2000);
+        HashLife unbounded = new HashLife(config);
+        for (int i = 0; i < 200; i++)
+        {
+            bounded.step();
+            unbounded.step();
+        }
+
+        assertTrue(unbounded.getCacheSize() > 2000, "Cache should have grown past the bound.");
+        assertStates(unbounded.getRegion(-300, -300, 700, 700), bounded.getRegion(-300, -300, 700, 700));
+    }
+
+    /**
+     * Create a board with a random square of cells at its center.
+     */
+    private boolean[][] soup(int rows, int cols, int size, Random random) {
+        boolean[][] config = new boolean[rows][cols];
+        for (int i = (rows - size) / 2; i < (rows + size) / 2; i++)
+        {
+            for (int j = (cols - size) / 2; j < (cols + size) / 2; j++)
+            {
+                config[i][j] = random.nextBoolean();
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Asserts that two state arrays are equal.
+     */
+    private void assertStates(boolean[][] expected, boolean[][] calculated) {
+        assertEquals(expected.length, calculated.length, "Incorrect number of rows.");
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertArrayEquals(expected[i], calculated[i], "Row " + i + " is incorrect.");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package life;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import life.model.Engine;
+import life.model.Game;
+import life.model.Metrics;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests measuring games as they step.
+ */
+class MetricsTest {
+    private static final int STEPS = 40;
+
+    /**
+     * Test that every engine reports its steps, population and
+     * changes to the metrics.
+     */
+    @Test
+    void testSteps() {
+        Random random = new Random(17);
+
+        boolean[][] config = new boolean[100][100];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j] = random.nextDouble() < 0.3;
+            }
+        }
+
+        for (Engine engine : Engine.values())
+        {
+            Topology topology = engine.supports(Topology.BOUNDED) ? Topology.BOUNDED : Topology.UNBOUNDED;
+            Game game = engine.create(config, topology);
+            Metrics metrics = Metrics.attach(game);
+
+            for (int g = 0; g < STEPS; g++)
+            {
+                game.step();
+            }
+
+            assertEquals(STEPS, metrics.getGeneration(), engine.toString());
+            assertEquals(game.getPopulation(), metrics.getPopulation(), engine.toString());
+            assertEquals(count(game), metrics.getPopulation(), engine.toString());
+            assertEquals(STEPS, sum(metrics.getStepNanosHistogram()), engine.toString());
+            assertTrue(metrics.getMaxStepNanos() >= metrics.getLastStepNanos(), engine.toString());
+            assertTrue(metrics.getP99StepNanos() >= metrics.getMedianStepNanos(), engine.toString());
+            assertTrue(metrics.getChangedCells() >= -1, engine.toString());
+
+            // Metrics stop when detached.
+            game.setStepListener(null);
+            game.step();
+            assertEquals(STEPS, metrics.getGeneration(), engine.toString());
+
+            metrics.reset();
+            assertEquals(0, sum(metrics.getStepNanosHistogram()), engine.toString());
+            assertEquals(0, metrics.getMedianStepNanos(), engine.toString());
+        }
+    }
+
+    /**
+     * Test the changed cells and active tiles of engines tracking them.
+     */
+    @Test
+    void testChanges() {
+        boolean[][] config = new boolean[300][300];
+        config[150][149] = config[150][150] = config[150][151] = true;
+
+        Game packed = Engine.PACKED.create(config);
+        Metrics metrics = Metrics.attach(packed);
+        packed.step();
+
+        // A blinker turns two cells on and two off.
+        assertEquals(4, metrics.getChangedCells());
+        assertEquals(-1, metrics.getActiveTileCount());
+
+        Game sparse = Engine.SPARSE.create(config);
+        metrics = Metrics.attach(sparse);
+        sparse.step();
+        sparse.step();
+
+        assertEquals(4, metrics.getChangedCells());
+        assertTrue(metrics.getActiveTileCount() > 0 && metrics.getActiveTileCount() < 25,
+                "Recomputed " + metrics.getActiveTileCount() + " tiles.");
+    }
+
+    /**
+     * Test that a jump of HashLife counts every generation it skips.
+     */
+    @Test
+    void testJump() {
+        boolean[][] config = new boolean[3][3];
+        config[0][1] = config[1][2] = config[2][0] = config[2][1] = config[2][2] = true;
+
+        Game game = Engine.HASHLIFE.create(config, Topology.UNBOUNDED);
+        Metrics metrics = Metrics.attach(game);
+        game.step(1000);
+
+        assertEquals(1000, metrics.getGeneration());
+        assertEquals(5, metrics.getPopulation());
+        assertEquals(1, sum(metrics.getStepNanosHistogram()));
+    }
+
+    /**
+     * Test publishing the metrics through JMX.
+     */
+    @Test
+    void testRegister() throws Exception {
+        Game game = Engine.PACKED.create(new boolean[10][10]);
+        Metrics metrics = Metrics.attach(game);
+        game.step(3);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("life:type=Metrics,name=" + ObjectName.quote("test"));
+
+        metrics.register("test");
+        try {
+            assertEquals(3L, server.getAttribute(name, "Generation"));
+            assertEquals(0L, server.getAttribute(name, "Population"));
+        }
+        finally {
+            metrics.unregister();
+        }
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    /**
+     * Test that steps are recorded as flight recorder events.
+     */
+    @Test
+    void testFlightRecording() throws Exception {
+        Game game = Engine.PACKED.create(new boolean[10][10]);
+        Metrics.attach(game);
+
+        Path file = Files.createTempFile("steps", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("life.Step").withThreshold(Duration.ZERO);
+            recording.start();
+            game.step(5);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            long steps = events.stream().filter(e -> e.getEventType().getName().equals("life.Step")).count();
+            assertEquals(5, steps);
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @return number of live cells of a game, counted cell by cell.
+     */
+    private static long count(Game game) {
+        if (game.getTopology() == Topology.UNBOUNDED)
+        {
+            return game.getPopulation();
+        }
+
+        long population = 0;
+        for (int i = 0; i < game.getRows(); i++)
+        {
+            for (int j = 0; j < game.getCols(); j++)
+            {
+                if (game.isAlive(i, j))
+                {
+                    population++;
+                }
+            }
+        }
+
+        return population;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts)
+        {
+            total += count;
+        }
+
+        return total;
+    }
+}
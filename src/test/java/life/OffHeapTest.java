@@ -0,0 +1,164 @@
+package life;
+
+import life.model.BandExecutor;
+import life.model.BitGrid;
+import life.model.Checkpoint;
+import life.model.Engine;
+import life.model.Game;
+import life.model.OffHeapGame;
+import life.model.OffHeapGrid;
+import life.model.PackedGame;
+import life.model.Rule;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests games stored outside the heap.
+ */
+class OffHeapTest {
+    /**
+     * Test that boards split into chunks of a few rows step as PACKED
+     * does, so rows are read across chunk boundaries, on both bounded
+     * topologies and several bands.
+     */
+    @Test
+    void testChunks() {
+        Random random = new Random(19);
+
+        for (int cols : new int[] {1, 63, 64, 65, 200})
+        {
+            for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+            {
+                BitGrid grid = new BitGrid(1 + random.nextInt(60), cols);
+                OffHeapGrid offHeap = new OffHeapGrid(grid.getRows(), cols, 3 * grid.getWordsPerRow() * 8);
+                for (int i = 0; i < grid.getRows(); i++)
+                {
+                    for (int j = 0; j < cols; j++)
+                    {
+                        boolean alive = random.nextDouble() < 0.4;
+                        grid.set(i, j, alive);
+                        offHeap.set(i, j, alive);
+                    }
+                }
+
+                Game expected = Engine.PACKED.create(grid, topology, Rule.HIGHLIFE);
+                try (OffHeapGame game = new OffHeapGame(offHeap, topology, BandExecutor.parallel(2, 5))) {
+                    game.setRule(Rule.HIGHLIFE);
+
+                    for (int g = 0; g < 40; g++)
+                    {
+                        expected.step();
+                        game.step();
+
+                        assertEquals(expected.getChangedCells(), game.getChangedCells());
+                        for (int i = 0; i < grid.getRows(); i++)
+                        {
+                            for (int j = 0; j < cols; j++)
+                            {
+                                assertEquals(expected.isAlive(i, j), game.isAlive(i, j),
+                                        cols + " columns on " + topology + " generation " + g + " cell " + i + ", " + j);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that words past a row's end are rejected rather than read
+     * from the next row, and that the last word is masked.
+     */
+    @Test
+    void testWords() {
+        try (OffHeapGrid grid = new OffHeapGrid(4, 70, 16)) {
+            assertEquals(4 * 2 * 8, grid.getSize());
+
+            grid.setWord(1, 1, -1L);
+            assertEquals(6, grid.population());
+            assertTrue(grid.get(1, 69));
+            assertFalse(grid.get(2, 0));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> grid.getWord(1, 2));
+            assertThrows(IndexOutOfBoundsException.class, () -> grid.setWord(4, 0, 1));
+        }
+    }
+
+    /**
+     * Test that a checkpoint is restored into direct memory without
+     * copying the board through the heap.
+     */
+    @Test
+    void testRestoreCheckpoint() throws IOException {
+        Random random = new Random(191);
+        BitGrid grid = new BitGrid(256, 16384);
+        for (int i = 0; i < grid.getRows(); i++)
+        {
+            for (int j = 0; j < grid.getCols(); j += 1 + random.nextInt(8))
+            {
+                grid.set(i, j, true);
+            }
+        }
+
+        Path path = Files.createTempFile("life", ".checkpoint");
+        Game expected = Engine.PACKED.create(grid, Topology.TORUS, Rule.HIGHLIFE);
+        expected.save(path, 0);
+        Checkpoint checkpoint = Checkpoint.load(path);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        try (OffHeapGame game = (OffHeapGame) checkpoint.restore(Engine.OFFHEAP)) {
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            long size = (long) grid.getRows() * grid.getWordsPerRow() * 8;
+            assertTrue(allocated < size / 8, "Restoring allocated " + allocated + " bytes for a board of " + size + ".");
+
+            assertEquals(Rule.HIGHLIFE, game.getRule());
+            assertEquals(Topology.TORUS, game.getTopology());
+            for (int g = 0; g < 3; g++)
+            {
+                for (int i = 0; i < grid.getRows(); i++)
+                {
+                    for (int w = 0; w < grid.getWordsPerRow(); w++)
+                    {
+                        assertEquals(((PackedGame) expected).getGrid().getWord(i, w), game.getGrid().getWord(i, w),
+                                "Generation " + g + " word " + w + " of row " + i);
+                    }
+                }
+                expected.step();
+                game.step();
+            }
+        }
+
+        Files.delete(path);
+    }
+
+    /**
+     * Test that closing releases the memory and stops the game.
+     */
+    @Test
+    void testClose() {
+        OffHeapGame game = (OffHeapGame) Engine.OFFHEAP.create(new boolean[8][8]);
+        OffHeapGrid grid = game.getGrid();
+        game.step();
+
+        game.close();
+        assertTrue(grid.isClosed());
+        assertEquals(0, grid.getSize());
+        assertThrows(IllegalStateException.class, game::step);
+        assertThrows(IllegalStateException.class, () -> grid.get(0, 0));
+
+        // Closing again has no effect.
+        game.close();
+    }
+}
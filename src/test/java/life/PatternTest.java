@@ -0,0 +1,168 @@
+package life;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.PatternFormat;
+import life.model.PatternReader;
+import life.model.PatternWriter;
+import life.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests reading and writing RLE and plaintext patterns.
+ */
+class PatternTest {
+    /**
+     * Test reading a glider with comments, a rule and runs
+     * split across lines.
+     */
+    @Test
+    void testReadRle() throws IOException {
+        Path path = file(".rle", "#N Glider\r\n#C A comment\r\nx = 3, y = 4, rule = B36/S23:T10,10\r\n"
+                + "bo$2b\r\no$3o\r\n$!\r\n");
+
+        PatternReader reader = PatternReader.open(path);
+        assertEquals(4, reader.getRows());
+        assertEquals(3, reader.getCols());
+        assertEquals(Rule.HIGHLIFE, reader.getRule());
+
+        assertGrid(new String[] {".O.", "..O", "OOO", "..."}, reader.read());
+    }
+
+    /**
+     * Test reading a plaintext pattern into the center of a larger board.
+     */
+    @Test
+    void testReadPlaintext() throws IOException {
+        Path path = file(".cells", "!Name: Blinker\n!\n.O\n.O\n*");
+
+        PatternReader reader = PatternReader.open(path);
+        assertEquals(3, reader.getRows());
+        assertEquals(2, reader.getCols());
+        assertNull(reader.getRule());
+
+        assertGrid(new String[] {"....", "..O.", "..O.", ".O..", "...."}, reader.read(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> reader.read(2, 2));
+    }
+
+    /**
+     * Test that malformed patterns are rejected.
+     */
+    @Test
+    void testMalformed() throws IOException {
+        String[] patterns = {"x = 3\nooo!", "#C no header\n", "x = 2, y = 1\n3o!", "x = 2, y = 2\noq!",
+                             "x = 2, y = 1\no$o!", "x = 1, y = 1, rule = B9/S\no!", ""};
+        for (String pattern : patterns)
+        {
+            Path path = file(".rle", pattern);
+            assertThrows(IllegalArgumentException.class, () -> PatternReader.open(path).read(), pattern);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> PatternReader.open(file(".cells", "!Empty\n")));
+    }
+
+    /**
+     * Test that random boards survive being written and read back
+     * in both formats.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        Random random = new Random(14);
+        for (int b = 0; b < 20; b++)
+        {
+            BitGrid grid = new BitGrid(1 + random.nextInt(50), 1 + random.nextInt(200));
+            double density = random.nextDouble();
+            for (int i = 0; i < grid.getRows(); i++)
+            {
+                for (int j = 0; j < grid.getCols(); j++)
+                {
+                    grid.set(i, j, random.nextDouble() < density);
+                }
+            }
+
+            for (PatternFormat format : PatternFormat.values())
+            {
+                Path path = Files.createTempFile("pattern", format == PatternFormat.RLE ? ".rle" : ".cells");
+                PatternWriter.write(grid, Rule.DAY_AND_NIGHT, path);
+
+                PatternReader reader = PatternReader.open(path);
+                BitGrid read = reader.read();
+                for (int i = 0; i < grid.getRows(); i++)
+                {
+                    for (int w = 0; w < grid.getWordsPerRow(); w++)
+                    {
+                        assertEquals(grid.getWord(i, w), read.getWord(i, w), format + " row " + i + ".");
+                    }
+                }
+
+                if (format == PatternFormat.RLE)
+                {
+                    assertEquals(Rule.DAY_AND_NIGHT, reader.getRule());
+                    for (String line : Files.readAllLines(path))
+                    {
+                        assertTrue(line.length() <= 70, "Line too long: " + line);
+                    }
+                }
+
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Test writing a game's current generation.
+     */
+    @Test
+    void testWriteGame() throws IOException {
+        boolean[][] blinker = new boolean[5][5];
+        blinker[2][1] = blinker[2][2] = blinker[2][3] = true;
+
+        for (Engine engine : Engine.values())
+        {
+            Game game = engine.create(blinker);
+            game.step();
+
+            StringWriter writer = new StringWriter();
+            PatternWriter.write(game, writer, PatternFormat.RLE);
+            assertEquals("x = 5, y = 5, rule = B3/S23\n$2bo$2bo$2bo!\n", writer.toString(), engine + " RLE.");
+        }
+    }
+
+    /**
+     * @return a temporary file holding the given text.
+     */
+    private static Path file(String suffix, String text) throws IOException {
+        Path path = Files.createTempFile("pattern", suffix);
+        path.toFile().deleteOnExit();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+
+        return path;
+    }
+
+    /**
+     * Asserts that a grid holds the given rows, 'O' being alive.
+     */
+    private static void assertGrid(String[] expected, BitGrid grid) {
+        assertEquals(expected.length, grid.getRows());
+        for (int i = 0; i < expected.length; i++)
+        {
+            StringBuilder row = new StringBuilder();
+            for (int j = 0; j < grid.getCols(); j++)
+            {
+                row.append(grid.get(i, j) ? 'O' : '.');
+            }
+
+            assertEquals(expected[i], row.toString(), "Row " + i + ".");
+        }
+    }
+}
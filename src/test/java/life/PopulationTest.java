@@ -0,0 +1,181 @@
+package life;
+
+import life.model.BandExecutor;
+import life.model.BitGrid;
+import life.model.Bounds;
+import life.model.Engine;
+import life.model.Game;
+import life.model.OffHeapGame;
+import life.model.PackedGame;
+import life.model.Rule;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the population, row counts and bounds engines keep as they step.
+ */
+class PopulationTest {
+    private static final int GENERATIONS = 30;
+
+    /**
+     * Test that every engine's counts and bounds match a scan of its
+     * cells, bounds being asked for every other generation so rows
+     * stay changed across steps.
+     */
+    @Test
+    void testCountsMatchCells() {
+        Random random = new Random(22);
+
+        for (Topology topology : Topology.values())
+        {
+            for (int b = 0; b < 4; b++)
+            {
+                BitGrid grid = new BitGrid(1 + random.nextInt(150), 1 + random.nextInt(150));
+                for (int i = 0; i < grid.getRows(); i++)
+                {
+                    for (int j = 0; j < grid.getCols(); j++)
+                    {
+                        // Dense on the left, so the edges of the bounds move.
+                        grid.set(i, j, random.nextDouble() < (j < grid.getCols() / 3 ? 0.4 : 0.05));
+                    }
+                }
+
+                for (Engine engine : Engine.values())
+                {
+                    if (!engine.supports(topology))
+                    {
+                        continue;
+                    }
+
+                    Game game = engine.create(grid.copy(), topology, b % 2 == 0 ? Rule.CONWAY : Rule.HIGHLIFE);
+                    for (int g = 0; g <= GENERATIONS; g++)
+                    {
+                        // Unbounded patterns grow a cell per generation at most.
+                        int margin = topology == Topology.UNBOUNDED ? g + 1 : 0;
+                        check(game, margin, g % 2 == 1, engine + " on " + topology + " generation " + g);
+                        game.step();
+                    }
+
+                    if (game instanceof OffHeapGame)
+                    {
+                        ((OffHeapGame) game).close();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that tile counts follow the cells of their tiles.
+     */
+    @Test
+    void testTiles() {
+        Random random = new Random(23);
+
+        BitGrid grid = new BitGrid(200, 150);
+        for (int i = 0; i < 80; i++)
+        {
+            for (int j = 0; j < 60; j++)
+            {
+                grid.set(i, j, random.nextDouble() < 0.4);
+            }
+        }
+
+        PackedGame game = new PackedGame(grid, Topology.TORUS, BandExecutor.parallel(2, 1), true);
+        for (int g = 0; g < GENERATIONS; g++)
+        {
+            game.step();
+
+            long total = 0;
+            for (int tr = 0; tr * PackedGame.TILE_SIZE < game.getRows(); tr++)
+            {
+                for (int tc = 0; tc < game.getGrid().getWordsPerRow(); tc++)
+                {
+                    long count = 0;
+                    for (int i = tr * PackedGame.TILE_SIZE; i < Math.min((tr + 1) * PackedGame.TILE_SIZE, game.getRows()); i++)
+                    {
+                        count += Long.bitCount(game.getGrid().getWord(i, tc));
+                    }
+
+                    assertEquals(count, game.getTilePopulation(tr, tc), "Tile " + tr + ", " + tc + " generation " + g);
+                    total += count;
+                }
+            }
+            assertEquals(total, game.getPopulation());
+        }
+
+        assertThrows(UnsupportedOperationException.class, () -> new PackedGame(new BitGrid(8, 8)).getTilePopulation(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.getTilePopulation(4, 0));
+    }
+
+    /**
+     * Test that restarting counts the cells written to the grid, and
+     * that a board dying out has no bounds.
+     */
+    @Test
+    void testRestart() {
+        PackedGame game = new PackedGame(new BitGrid(10, 100));
+        assertEquals(0, game.getPopulation());
+        assertNull(game.getBounds());
+
+        // A blinker, then a lone cell which dies.
+        game.getGrid().set(4, 69, true);
+        game.getGrid().set(4, 70, true);
+        game.getGrid().set(4, 71, true);
+        game.restart();
+        assertEquals(3, game.getPopulation());
+        assertEquals(3, game.getRowPopulation(4));
+        assertEquals(new Bounds(4, 69, 4, 71), game.getBounds());
+
+        game.step();
+        assertEquals(3, game.getPopulation());
+        assertEquals(1, game.getRowPopulation(3));
+        assertEquals(new Bounds(3, 70, 5, 70), game.getBounds());
+
+        game.getGrid().set(3, 70, false);
+        game.getGrid().set(4, 70, false);
+        game.restart();
+        game.step();
+        assertEquals(0, game.getPopulation());
+        assertNull(game.getBounds());
+    }
+
+    /**
+     * Compare the counts and bounds of a game with a scan of its cells,
+     * over its board widened by a margin.
+     */
+    private static void check(Game game, int margin, boolean bounds, String name) {
+        int top = Integer.MAX_VALUE, bottom = Integer.MIN_VALUE;
+        int left = Integer.MAX_VALUE, right = Integer.MIN_VALUE;
+        long population = 0;
+
+        for (int i = -margin; i < game.getRows() + margin; i++)
+        {
+            long row = 0;
+            for (int j = -margin; j < game.getCols() + margin; j++)
+            {
+                if (game.isAlive(i, j))
+                {
+                    row++;
+                    top = Math.min(top, i);
+                    bottom = i;
+                    left = Math.min(left, j);
+                    right = Math.max(right, j);
+                }
+            }
+
+            assertEquals(row, game.getRowPopulation(i), name + " row " + i);
+            population += row;
+        }
+
+        assertEquals(population, game.getPopulation(), name);
+        if (bounds)
+        {
+            assertEquals(population == 0 ? null : new Bounds(top, left, bottom, right), game.getBounds(), name);
+        }
+    }
+}
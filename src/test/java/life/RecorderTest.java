@@ -0,0 +1,145 @@
+package life;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.Recorder;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests recording the history of games and seeking through it.
+ */
+class RecorderTest {
+    private static final int GENERATIONS = 150;
+
+    /**
+     * Test that every recorded generation can be restored, on every
+     * engine reporting changes.
+     */
+    @Test
+    void testSeek() {
+        Random random = new Random(16);
+
+        for (Topology topology : new Topology[] {Topology.BOUNDED, Topology.TORUS})
+        {
+            boolean[][] config = new boolean[1 + random.nextInt(90)][1 + random.nextInt(150)];
+            for (boolean[] row : config)
+            {
+                for (int j = 0; j < row.length; j++)
+                {
+                    row[j] = random.nextDouble() < 0.3;
+                }
+            }
+
+            // Every generation, stepped without recording.
+            List<BitGrid> expected = new ArrayList<>();
+            Game reference = Engine.PACKED.create(config, topology);
+            for (int g = 0; g <= GENERATIONS; g++)
+            {
+                expected.add(copy(reference));
+                reference.step();
+            }
+
+            for (Engine engine : Engine.values())
+            {
+                if (!engine.supports(topology))
+                {
+                    continue;
+                }
+
+                Game game = engine.create(config, topology);
+                Recorder recorder = new Recorder(game, 16);
+                game.step(GENERATIONS);
+                recorder.stop();
+                game.step();
+
+                assertEquals(GENERATIONS, recorder.getGenerations(), engine.toString());
+                assertEquals(GENERATIONS / 16 + 1, recorder.getKeyframeCount(), engine.toString());
+
+                // Seek backwards and forwards, into a reused grid.
+                BitGrid grid = new BitGrid(config.length, config[0].length);
+                for (int g = GENERATIONS; g >= 0; g -= 7)
+                {
+                    recorder.seek(g, grid);
+                    assertGrid(expected.get(g), grid, engine + " on " + topology + " generation " + g);
+                }
+
+                for (int g = 0; g <= GENERATIONS; g += 5)
+                {
+                    assertGrid(expected.get(g), recorder.seek(g), engine + " on " + topology + " generation " + g);
+                }
+
+                assertThrows(IllegalArgumentException.class, () -> recorder.seek(GENERATIONS + 1));
+            }
+        }
+    }
+
+    /**
+     * Test that an oscillator's history takes far less than a copy
+     * of the board per generation.
+     */
+    @Test
+    void testCompact() {
+        boolean[][] config = new boolean[1000][1000];
+        config[500][499] = config[500][500] = config[500][501] = true;
+
+        Game game = Engine.PACKED.create(config);
+        Recorder recorder = new Recorder(game, 1000);
+        game.step(999);
+
+        // A blinker flips four cells per generation, a byte or two each.
+        assertTrue(recorder.getDeltaSize() < 999 * 4 * 3, "Recorded " + recorder.getDeltaSize() + " bytes.");
+        assertEquals(1, recorder.getKeyframeCount());
+    }
+
+    /**
+     * Test that engines without bounded boards refuse to report changes.
+     */
+    @Test
+    void testUnsupported() {
+        for (Engine engine : Engine.values())
+        {
+            if (engine.supports(Topology.UNBOUNDED))
+            {
+                Game game = engine.create(new boolean[4][4], Topology.UNBOUNDED);
+                assertThrows(UnsupportedOperationException.class, () -> new Recorder(game), engine.toString());
+            }
+        }
+    }
+
+    /**
+     * @return a copy of a game's current generation.
+     */
+    private static BitGrid copy(Game game) {
+        BitGrid grid = new BitGrid(game.getRows(), game.getCols());
+        for (int i = 0; i < game.getRows(); i++)
+        {
+            for (int j = 0; j < game.getCols(); j++)
+            {
+                grid.set(i, j, game.isAlive(i, j));
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * Asserts that two grids hold the same states.
+     */
+    private static void assertGrid(BitGrid expected, BitGrid calculated, String message) {
+        for (int i = 0; i < expected.getRows(); i++)
+        {
+            for (int w = 0; w < expected.getWordsPerRow(); w++)
+            {
+                assertEquals(expected.getWord(i, w), calculated.getWord(i, w), message + " row " + i + ".");
+            }
+        }
+    }
+}
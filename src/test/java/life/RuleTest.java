@@ -0,0 +1,57 @@
+package life;
+
+import life.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests parsing rules and their lookup tables.
+ */
+class RuleTest {
+    /**
+     * Test the accepted notations.
+     */
+    @Test
+    void testParse() {
+        assertEquals(Rule.CONWAY, Rule.parse("B3/S23"));
+        assertEquals(Rule.CONWAY, Rule.parse(" b3/s32 "));
+        assertEquals(Rule.CONWAY, Rule.parse("S23/B3"));
+        assertEquals(Rule.CONWAY, Rule.parse("23/3"));
+        assertEquals("B2/S", Rule.SEEDS.toString());
+        assertEquals("B3678/S34678", Rule.parse("S87643/B8763").toString());
+    }
+
+    /**
+     * Test that malformed rules are rejected.
+     */
+    @Test
+    void testInvalid() {
+        for (String notation : new String[] {"", "B3", "B3/S23/S4", "B9/S23", "B3/X23", "Bx/S2"})
+        {
+            assertThrows(IllegalArgumentException.class, () -> Rule.parse(notation), notation);
+        }
+    }
+
+    /**
+     * Test that the table and the bit planes agree for every rule
+     * with the neighbour counts given.
+     */
+    @Test
+    void testTableMatchesPlanes() {
+        Rule[] rules = {Rule.CONWAY, Rule.HIGHLIFE, Rule.DAY_AND_NIGHT, Rule.SEEDS, Rule.parse("B0/S8")};
+        for (Rule rule : rules)
+        {
+            for (int n = 0; n <= 8; n++)
+            {
+                long ones = (n & 1) != 0 ? -1L : 0;
+                long twos = (n & 2) != 0 ? -1L : 0;
+                long fours = (n & 4) != 0 ? -1L : 0;
+                long eights = (n & 8) != 0 ? -1L : 0;
+
+                assertEquals(rule.next(false, n), rule.next(0, ones, twos, fours, eights) != 0, rule + " dead, " + n);
+                assertEquals(rule.next(true, n), rule.next(-1L, ones, twos, fours, eights) != 0, rule + " alive, " + n);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package life;
+
+import life.model.BitGrid;
+import life.model.Engine;
+import life.model.Game;
+import life.model.GridView;
+import life.model.OffHeapGrid;
+import life.model.Rule;
+import life.model.Simulation;
+import life.model.Snapshot;
+import life.model.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Simulation class.
+ */
+class SimulationTest {
+    /**
+     * Test that a simulation runs until the board repeats and
+     * publishes the final generation.
+     */
+    @Test
+    void testRunsUntilFinished() throws InterruptedException {
+        boolean[][] blinker = new boolean[5][5];
+        blinker[2][1] = blinker[2][2] = blinker[2][3] = true;
+
+        Game game = Engine.PACKED.create(blinker);
+        game.setMaxPeriod(10);
+
+        Simulation simulation = new Simulation(game);
+        Snapshot first = simulation.poll();
+        assertEquals(0, first.getGeneration(), "First snapshot isn't the initial board.");
+        assertTrue(first.isAlive(2, 1) && !first.isAlive(1, 2), "First snapshot has wrong states.");
+
+        simulation.start();
+
+        Snapshot snapshot = null;
+        for (int i = 0; i < 500 && (snapshot == null || !snapshot.isFinished()); i++)
+        {
+            Snapshot polled = simulation.poll();
+            snapshot = polled == null ? snapshot : polled;
+            Thread.sleep(2);
+        }
+
+        simulation.stop();
+
+        assertNotNull(snapshot, "No snapshot published.");
+        assertTrue(snapshot.isFinished(), "Simulation didn't finish.");
+        assertEquals(4, snapshot.getGeneration(), "Blinker is proven periodic after 4 generations.");
+        assertEquals(game.isAlive(1, 2), snapshot.isAlive(1, 2), "Final snapshot has wrong states.");
+    }
+
+    /**
+     * Test that a simulation keeps to its target rate.
+     */
+    @Test
+    void testRate() throws InterruptedException {
+        boolean[][] glider = new boolean[16][16];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        Simulation simulation = new Simulation(Engine.PACKED.create(glider, Topology.TORUS));
+        simulation.setRate(20);
+        simulation.start();
+
+        long generation = 0;
+        for (int i = 0; i < 10; i++)
+        {
+            Thread.sleep(50);
+
+            Snapshot snapshot = simulation.poll();
+            if (snapshot != null)
+            {
+                generation = snapshot.getGeneration();
+            }
+        }
+
+        simulation.stop();
+
+        assertTrue(generation > 0, "Simulation didn't step.");
+        assertTrue(generation <= 12, "Stepped too fast: " + generation + " generations.");
+    }
+
+    /**
+     * Test that only every few generations are published with a multiplier.
+     */
+    @Test
+    void testMultiplier() throws InterruptedException {
+        Simulation simulation = new Simulation(Engine.PACKED.create(glider(), Topology.TORUS));
+        simulation.setMultiplier(4);
+        simulation.setRate(500);
+        simulation.start();
+
+        int frames = 0;
+        for (int i = 0; i < 100 && frames < 10; i++)
+        {
+            Snapshot snapshot = simulation.poll();
+            if (snapshot != null && snapshot.getGeneration() > 0)
+            {
+                assertEquals(0, snapshot.getGeneration() % 4, "Published a skipped generation.");
+                frames++;
+            }
+            Thread.sleep(5);
+        }
+
+        simulation.stop();
+
+        assertTrue(frames > 0, "Nothing published.");
+        assertThrows(IllegalArgumentException.class, () -> simulation.setMultiplier(0));
+    }
+
+    /**
+     * Test pausing, stepping a single generation and running to a generation.
+     */
+    @Test
+    void testPauseAndStep() throws InterruptedException {
+        Game reference = Engine.PACKED.create(glider(), Topology.TORUS);
+
+        Simulation simulation = new Simulation(Engine.PACKED.create(glider(), Topology.TORUS));
+        simulation.setRate(1000);
+        simulation.pause();
+        simulation.start();
+
+        assertEquals(0, simulation.poll().getGeneration());
+        Thread.sleep(20);
+        assertNull(simulation.poll(), "Stepped while paused.");
+
+        simulation.stepOnce();
+        assertEquals(1, await(simulation).getGeneration());
+        assertTrue(simulation.isPaused());
+
+        simulation.runTo(50);
+        Snapshot snapshot = await(simulation);
+        assertEquals(50, snapshot.getGeneration(), "Published a generation before the target.");
+        assertTrue(simulation.isPaused(), "Didn't pause at the target.");
+        reference.step(50);
+        for (int i = 0; i < 16; i++)
+        {
+            for (int j = 0; j < 16; j++)
+            {
+                assertEquals(reference.isAlive(i, j), snapshot.isAlive(i, j), "Cell " + i + ", " + j);
+            }
+        }
+
+        Thread.sleep(20);
+        assertNull(simulation.poll(), "Stepped past the target.");
+        assertThrows(IllegalArgumentException.class, () -> simulation.runTo(50));
+
+        // Pausing publishes the generation paused at.
+        simulation.resume();
+        Thread.sleep(20);
+        simulation.pause();
+        Thread.sleep(20);
+        long generation = simulation.getGeneration();
+        assertTrue(generation > 50, "Didn't resume.");
+        for (Snapshot polled = simulation.poll(); polled != null; polled = simulation.poll())
+        {
+            snapshot = polled;
+        }
+        assertEquals(generation, snapshot.getGeneration());
+
+        simulation.stop();
+    }
+
+    /**
+     * Test that views read while the game steps either show a single generation or are found invalid, and that
+     * snapshots are copied after an invalid one.
+     */
+    @Test
+    void testViewsAreConsistent() throws InterruptedException {
+        Random random = new Random(23);
+        BitGrid grid = new BitGrid(64, 200);
+        for (int i = 0; i < grid.getRows(); i++)
+        {
+            for (int j = 0; j < grid.getCols(); j++)
+            {
+                grid.set(i, j, random.nextDouble() < 0.35);
+            }
+        }
+
+        Game reference = Engine.PACKED.create(grid.copy(), Topology.TORUS, Rule.HIGHLIFE);
+        long referenceGeneration = 0;
+
+        // Fast enough for slowed reads to be written over, and not the others.
+        Simulation simulation = new Simulation(Engine.PACKED.create(grid, Topology.TORUS, Rule.HIGHLIFE));
+        simulation.setRate(2000);
+        simulation.start();
+
+        int valid = 0, torn = 0, copiesAfterTorn = 0;
+        long[] words = new long[64 * 4];
+        for (int frame = 0; frame < 400 && (valid < 20 || torn < 3); frame++)
+        {
+            Snapshot snapshot = simulation.poll();
+            if (snapshot == null)
+            {
+                Thread.yield();
+                continue;
+            }
+
+            if (torn > 0 && snapshot.isCopy())
+            {
+                copiesAfterTorn++;
+            }
+
+            for (int i = 0; i < 64; i++)
+            {
+                for (int w = 0; w < 4; w++)
+                {
+                    words[i * 4 + w] = snapshot.getWord(i, w);
+                }
+
+                // Slow down some reads, so steps write over them.
+                if (frame % 3 == 0 && i == 32)
+                {
+                    Thread.sleep(5);
+                }
+            }
+
+            if (!snapshot.isValid())
+            {
+                torn++;
+                continue;
+            }
+
+            valid++;
+            while (referenceGeneration < snapshot.getGeneration())
+            {
+                reference.step();
+                referenceGeneration++;
+            }
+            assertEquals(referenceGeneration, snapshot.getGeneration(), "Snapshots went back in time.");
+            for (int i = 0; i < 64; i++)
+            {
+                for (int j = 0; j < 200; j++)
+                {
+                    assertEquals(reference.isAlive(i, j), (words[i * 4 + (j >>> 6)] & (1L << j)) != 0,
+                            "Generation " + referenceGeneration + " cell " + i + ", " + j);
+                }
+            }
+        }
+
+        simulation.stop();
+
+        assertTrue(valid > 0, "No valid snapshot.");
+        assertTrue(torn > 0, "No view was written over.");
+        assertTrue(copiesAfterTorn > 0, "Snapshots weren't copied after a view was written over.");
+    }
+
+    /**
+     * Test how long views of each engine keep showing their generation.
+     */
+    @Test
+    void testViewLifetime() {
+        boolean[][] glider = new boolean[16][16];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        for (Engine engine : Engine.values())
+        {
+            Topology topology = engine.supports(Topology.TORUS) ? Topology.TORUS : Topology.UNBOUNDED;
+            Game game = engine.create(glider, topology);
+
+            GridView view = game.getView();
+            assertEquals(16, view.getRows());
+            assertEquals(16, view.getCols());
+            assertEquals(1, view.getWordsPerRow());
+            assertEquals(0b10L, view.getWord(0, 0), engine.toString());
+
+            assertFalse(view instanceof BitGrid || view instanceof OffHeapGrid, engine + " view can be written to.");
+
+            int lifetime = game.getViewLifetime();
+            game.step(Math.min(lifetime, 100));
+            if (lifetime > 0)
+            {
+                assertTrue(view.isAlive(0, 1) && !view.isAlive(1, 0), engine + " view was written over.");
+            }
+            if (lifetime == 1)
+            {
+                // Views are kept per buffer, not created per call.
+                game.step();
+                assertSame(view, game.getView(), engine + " view was created again.");
+            }
+            else
+            {
+                assertEquals(game.isAlive(1, 0), view.isAlive(1, 0), engine + " view doesn't follow the game.");
+            }
+        }
+    }
+
+    /**
+     * Wait for the next snapshot.
+     */
+    private static Snapshot await(Simulation simulation) throws InterruptedException {
+        for (int i = 0; i < 1000; i++)
+        {
+            Snapshot snapshot = simulation.poll();
+            if (snapshot != null)
+            {
+                return snapshot;
+            }
+            Thread.sleep(2);
+        }
+
+        fail("No snapshot published.");
+        return null;
+    }
+
+    private static boolean[][] glider() {
+        boolean[][] glider = new boolean[16][16];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        return glider;
+    }
+}
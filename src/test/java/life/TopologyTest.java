@@ -0,0 +1,150 @@
+package life;
+
+import life.model.Engine;
+import life.model.Game;
+import life.model.HashLife;
+import life.model.Topology;
+import life.model.UnboundedGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test board topologies.
+ */
+class TopologyTest {
+    /**
+     * Test that a glider on a torus comes back to where it started
+     * after crossing every edge.
+     */
+    @Test
+    void testTorusGlider() {
+        // 4 * lcm(12, 70) generations take the glider around both axes.
+        boolean[][] config = new boolean[12][70];
+        config[0][1] = config[1][2] = true;
+        config[2][0] = config[2][1] = config[2][2] = true;
+
+        for (Engine engine : Engine.values())
+        {
+            if (!engine.supports(Topology.TORUS))
+            {
+                continue;
+            }
+
+            Game game = engine.create(config, Topology.TORUS);
+            for (int i = 0; i < 4 * 420 - 1; i++)
+            {
+                game.step();
+                assertFalse(game.isStatic(), engine + " glider stopped at generation " + i + ".");
+            }
+
+            assertStates(config, game.nextConfig(), engine + " glider didn't wrap around.");
+        }
+    }
+
+    /**
+     * Test that engines agree on a random torus.
+     */
+    @Test
+    void testTorusEnginesAgree() {
+        Random random = new Random(17);
+
+        boolean[][] config = new boolean[75][130];
+        for (boolean[] row : config)
+        {
+            for (int j = 0; j < row.length; j++)
+            {
+                row[j] = random.nextInt(3) == 0;
+            }
+        }
+
+        for (Engine engine : Engine.values())
+        {
+            if (!engine.supports(Topology.TORUS))
+            {
+                continue;
+            }
+
+            Game expected = Engine.STANDARD.create(config, Topology.TORUS);
+            Game game = engine.create(config, Topology.TORUS);
+            for (int i = 0; i < 50; i++)
+            {
+                assertStates(expected.nextConfig(), game.nextConfig(), engine + " differs at generation " + i + ".");
+            }
+        }
+    }
+
+    /**
+     * Test that the unbounded engines agree, and that chunks
+     * follow a moving pattern.
+     */
+    @Test
+    void testUnbounded() {
+        Random random = new Random(23);
+
+        boolean[][] config = new boolean[100][100];
+        for (int i = 40; i < 60; i++)
+        {
+            for (int j = 40; j < 60; j++)
+            {
+                config[i][j] = random.nextBoolean();
+            }
+        }
+
+        UnboundedGame game = new UnboundedGame(config);
+        HashLife expected = new HashLife(config);
+        for (int i = 0; i < 300; i++)
+        {
+            game.step();
+            expected.step();
+        }
+
+        assertEquals(expected.getPopulation(), game.getPopulation(), "Population differs.");
+        for (int i = -300; i < 400; i++)
+        {
+            for (int j = -300; j < 400; j++)
+            {
+                assertEquals(expected.isAlive(i, j), game.isAlive(i, j), "Cell " + i + ", " + j + " differs.");
+            }
+        }
+
+        // A lone glider only keeps the chunks around it.
+        boolean[][] glider = new boolean[3][3];
+        glider[0][1] = glider[1][2] = true;
+        glider[2][0] = glider[2][1] = glider[2][2] = true;
+
+        game = new UnboundedGame(glider);
+        for (int i = 0; i < 4 * 1000; i++)
+        {
+            game.step();
+            assertTrue(game.getChunkCount() <= 4, "Too many chunks at generation " + i + ".");
+        }
+
+        assertEquals(5, game.getPopulation(), "Glider population changed.");
+        assertTrue(game.isAlive(1000, 1001) && game.isAlive(1002, 1000), "Glider is in the wrong place.");
+    }
+
+    /**
+     * Test that engines reject unsupported topologies.
+     */
+    @Test
+    void testUnsupportedTopology() {
+        boolean[][] config = new boolean[4][4];
+
+        assertThrows(IllegalArgumentException.class, () -> Engine.STANDARD.create(config, Topology.UNBOUNDED));
+        assertThrows(IllegalArgumentException.class, () -> Engine.HASHLIFE.create(config, Topology.TORUS));
+    }
+
+    /**
+     * Asserts that two state arrays are equal.
+     */
+    private void assertStates(boolean[][] expected, boolean[][] calculated, String message) {
+        assertEquals(expected.length, calculated.length, message);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertArrayEquals(expected[i], calculated[i], message + " Row " + i + ".");
+        }
+    }
+}
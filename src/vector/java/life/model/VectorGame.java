@@ -0,0 +1,328 @@
+package life.model;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * VectorGame is a PackedGame stepping bounded boards a whole SIMD
+ * register of words at a time, using the incubating Vector API.
+ *
+ * Each row is first summed horizontally, every cell with its west
+ * and east neighbours into a two bit number, once per step rather
+ * than once for each of the three rows reading it. The sums of three
+ * rows are then added into the count of live cells of each 3x3 block,
+ * the cell included, which gives the next state. Both passes run the
+ * bitwise adders of PackedGame.evolve on every lane, the words west
+ * and east of a vector being read as the vectors one word before and
+ * after it. The passes are kept in separate small methods, so the
+ * compiler keeps every vector in a register.
+ *
+ * TORUS boards are stepped as in PackedGame. Needs jdk.incubator.vector
+ * at run time, the VECTOR engine creates a PackedGame instead when
+ * the module isn't available.
+ */
+public class VectorGame extends PackedGame {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private final long[] zeros;     // Sums of the rows past the top and bottom edges.
+    private final long[][] sums;    // Low bits of the horizontal sums of three rows, row r at r % 3.
+    private final long[][] carries; // High bits of the horizontal sums.
+    private final long[][] counts;  // Bits of the 3x3 counts of a row, for rules other than B3/S23.
+
+    /**
+     * VectorGame constructor.
+     *
+     * @param grid A grid containing initial states, owned by the game afterwards.
+     * @param topology Topology of the board, BOUNDED or TORUS.
+     */
+    public VectorGame(BitGrid grid, Topology topology) {
+        super(grid, topology, BandExecutor.SEQUENTIAL, false);
+
+        final int n = grid.getWordsPerRow();
+        this.zeros = new long[n];
+        this.sums = new long[3][n];
+        this.carries = new long[3][n];
+        this.counts = new long[4][n];
+    }
+
+    /**
+     * Write next states of the given rows, a vector of words at a time.
+     *
+     * @param from first row, inclusive.
+     * @param to last row, exclusive.
+     * @return number of cells that changed.
+     */
+    @Override
+    long stepRows(int from, int to) {
+        final BitGrid current = this.getGrid();
+        final long[] src = current.words();
+        final long[] dst = this.getBuffer().words();
+        final int rows = current.getRows();
+        final int n = current.getWordsPerRow();
+        final long lastMask = current.lastWordMask();
+
+        final Rule rule = this.getRule();
+        final boolean hashing = this.isHashing();
+
+        // Rows above and at the first one, the rows below are summed as they're reached.
+        if (from > 0)
+        {
+            sumRow(src, (from - 1) * n, this.sums[(from - 1) % 3], this.carries[(from - 1) % 3], n);
+        }
+        sumRow(src, from * n, this.sums[from % 3], this.carries[from % 3], n);
+
+        long changed = 0;
+        long delta = 0;
+        long populationDelta = 0;
+        for (int r = from; r < to; r++)
+        {
+            final int base = r * n;
+            if (r + 1 < rows)
+            {
+                sumRow(src, base + n, this.sums[(r + 1) % 3], this.carries[(r + 1) % 3], n);
+            }
+
+            final long[] upSum = r > 0 ? this.sums[(r - 1) % 3] : this.zeros;
+            final long[] upCarry = r > 0 ? this.carries[(r - 1) % 3] : this.zeros;
+            final long[] downSum = r + 1 < rows ? this.sums[(r + 1) % 3] : this.zeros;
+            final long[] downCarry = r + 1 < rows ? this.carries[(r + 1) % 3] : this.zeros;
+
+            if (rule.isConway())
+            {
+                stepConway(upSum, upCarry, this.sums[r % 3], this.carries[r % 3], downSum, downCarry,
+                        src, base, dst, n);
+            }
+            else
+            {
+                count(upSum, upCarry, this.sums[r % 3], this.carries[r % 3], downSum, downCarry, this.counts, n);
+
+                // A dead cell with n neighbours counts n, a live one n + 1.
+                Arrays.fill(dst, base, base + n, 0);
+                for (int count : rule.getBirthCounts())
+                {
+                    select(this.counts, count, src, base, -1L, dst, n);
+                }
+                for (int count : rule.getSurvivalCounts())
+                {
+                    select(this.counts, count + 1, src, base, 0, dst, n);
+                }
+            }
+            dst[base + n - 1] &= lastMask;
+
+            long rowChanged = 0;
+            int rowDelta = 0;
+            for (int index = base, last = base + n; index < last; index++)
+            {
+                if (dst[index] != src[index])
+                {
+                    rowChanged += Long.bitCount(dst[index] ^ src[index]);
+                    rowDelta += Long.bitCount(dst[index]) - Long.bitCount(src[index]);
+                    if (hashing)
+                    {
+                        delta ^= CycleDetector.mix(index, src[index]) ^ CycleDetector.mix(index, dst[index]);
+                    }
+                }
+            }
+
+            if (rowChanged != 0)
+            {
+                this.rowChanged(r, rowDelta);
+                changed += rowChanged;
+                populationDelta += rowDelta;
+            }
+        }
+
+        this.hashChanged(delta);
+        this.populationChanged(populationDelta);
+
+        return changed;
+    }
+
+    /**
+     * Sum every cell of a row with its west and east neighbours.
+     *
+     * @param src words of the current generation.
+     * @param base offset of the row's first word.
+     * @param sum low bits of the sums.
+     * @param carry high bits of the sums.
+     * @param n number of words in a row.
+     */
+    private static void sumRow(long[] src, int base, long[] sum, long[] carry, int n) {
+        final int lanes = SPECIES.length();
+
+        // Words with a word on either side, a vector at a time.
+        int i = 1;
+        for (; i + lanes < n; i += lanes)
+        {
+            LongVector mid = LongVector.fromArray(SPECIES, src, base + i);
+            LongVector west = mid.lanewise(VectorOperators.LSHL, 1).or(
+                    LongVector.fromArray(SPECIES, src, base + i - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector east = mid.lanewise(VectorOperators.LSHR, 1).or(
+                    LongVector.fromArray(SPECIES, src, base + i + 1).lanewise(VectorOperators.LSHL, 63));
+
+            LongVector half = west.lanewise(VectorOperators.XOR, mid);
+            half.lanewise(VectorOperators.XOR, east).intoArray(sum, i);
+            west.and(mid).or(east.and(half)).intoArray(carry, i);
+        }
+
+        // The first word, and the words left after the last vector.
+        for (int w = 0; w < n; w = w == 0 ? i : w + 1)
+        {
+            long mid = src[base + w];
+            long west = (mid << 1) | (w > 0 ? src[base + w - 1] >>> 63 : 0);
+            long east = (mid >>> 1) | (w < n - 1 ? src[base + w + 1] << 63 : 0);
+
+            sum[w] = west ^ mid ^ east;
+            carry[w] = (west & mid) | (east & (west ^ mid));
+        }
+    }
+
+    /**
+     * Write the next states of a row under B3/S23, from the
+     * horizontal sums of it and the rows above and below.
+     */
+    private static void stepConway(long[] upSum, long[] upCarry, long[] midSum, long[] midCarry,
+                                   long[] downSum, long[] downCarry, long[] src, int base, long[] dst, int n) {
+        final int lanes = SPECIES.length();
+
+        int i = 0;
+        for (; i + lanes <= n; i += lanes)
+        {
+            LongVector us = LongVector.fromArray(SPECIES, upSum, i);
+            LongVector ms = LongVector.fromArray(SPECIES, midSum, i);
+            LongVector ds = LongVector.fromArray(SPECIES, downSum, i);
+            LongVector uc = LongVector.fromArray(SPECIES, upCarry, i);
+            LongVector mc = LongVector.fromArray(SPECIES, midCarry, i);
+            LongVector dc = LongVector.fromArray(SPECIES, downCarry, i);
+
+            // Add the low bits, then the twos, into the count of the 3x3 block.
+            LongVector halfOnes = us.lanewise(VectorOperators.XOR, ms);
+            LongVector ones = halfOnes.lanewise(VectorOperators.XOR, ds);
+            LongVector onesCarry = us.and(ms).or(ds.and(halfOnes));
+
+            LongVector halfTwos = uc.lanewise(VectorOperators.XOR, mc);
+            LongVector twosPartial = halfTwos.lanewise(VectorOperators.XOR, dc);
+            LongVector foursPartial = uc.and(mc).or(dc.and(halfTwos));
+
+            LongVector twos = twosPartial.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector fours = foursPartial.lanewise(VectorOperators.XOR, twosPartial.and(onesCarry));
+
+            // A count of 3 is born or survives, 4 only survives. Counts
+            // go up to 9, so the eights are never needed.
+            LongVector alive = LongVector.fromArray(SPECIES, src, base + i);
+            ones.and(twos).and(fours.not())
+                .or(alive.and(fours).and(ones.or(twos).not()))
+                .intoArray(dst, base + i);
+        }
+
+        for (; i < n; i++)
+        {
+            long halfOnes = upSum[i] ^ midSum[i];
+            long ones = halfOnes ^ downSum[i];
+            long onesCarry = (upSum[i] & midSum[i]) | (downSum[i] & halfOnes);
+
+            long halfTwos = upCarry[i] ^ midCarry[i];
+            long twosPartial = halfTwos ^ downCarry[i];
+            long foursPartial = (upCarry[i] & midCarry[i]) | (downCarry[i] & halfTwos);
+
+            long twos = twosPartial ^ onesCarry;
+            long fours = foursPartial ^ (twosPartial & onesCarry);
+
+            dst[base + i] = (ones & twos & ~fours) | (src[base + i] & fours & ~(ones | twos));
+        }
+    }
+
+    /**
+     * Add the horizontal sums of a row and the rows above and below
+     * into the four bits of the counts of its 3x3 blocks.
+     */
+    private static void count(long[] upSum, long[] upCarry, long[] midSum, long[] midCarry,
+                              long[] downSum, long[] downCarry, long[][] counts, int n) {
+        final int lanes = SPECIES.length();
+        final long[] ones = counts[0], twos = counts[1], fours = counts[2], eights = counts[3];
+
+        int i = 0;
+        for (; i + lanes <= n; i += lanes)
+        {
+            LongVector us = LongVector.fromArray(SPECIES, upSum, i);
+            LongVector ms = LongVector.fromArray(SPECIES, midSum, i);
+            LongVector ds = LongVector.fromArray(SPECIES, downSum, i);
+            LongVector uc = LongVector.fromArray(SPECIES, upCarry, i);
+            LongVector mc = LongVector.fromArray(SPECIES, midCarry, i);
+            LongVector dc = LongVector.fromArray(SPECIES, downCarry, i);
+
+            LongVector halfOnes = us.lanewise(VectorOperators.XOR, ms);
+            LongVector onesCarry = us.and(ms).or(ds.and(halfOnes));
+
+            LongVector halfTwos = uc.lanewise(VectorOperators.XOR, mc);
+            LongVector twosPartial = halfTwos.lanewise(VectorOperators.XOR, dc);
+            LongVector foursPartial = uc.and(mc).or(dc.and(halfTwos));
+            LongVector twosCarry = twosPartial.and(onesCarry);
+
+            halfOnes.lanewise(VectorOperators.XOR, ds).intoArray(ones, i);
+            twosPartial.lanewise(VectorOperators.XOR, onesCarry).intoArray(twos, i);
+            foursPartial.lanewise(VectorOperators.XOR, twosCarry).intoArray(fours, i);
+            foursPartial.and(twosCarry).intoArray(eights, i);
+        }
+
+        for (; i < n; i++)
+        {
+            long halfOnes = upSum[i] ^ midSum[i];
+            long onesCarry = (upSum[i] & midSum[i]) | (downSum[i] & halfOnes);
+
+            long halfTwos = upCarry[i] ^ midCarry[i];
+            long twosPartial = halfTwos ^ downCarry[i];
+            long foursPartial = (upCarry[i] & midCarry[i]) | (downCarry[i] & halfTwos);
+            long twosCarry = twosPartial & onesCarry;
+
+            ones[i] = halfOnes ^ downSum[i];
+            twos[i] = twosPartial ^ onesCarry;
+            fours[i] = foursPartial ^ twosCarry;
+            eights[i] = foursPartial & twosCarry;
+        }
+    }
+
+    /**
+     * Set the cells of a row whose 3x3 block counts a number, among
+     * the live cells or among the dead ones.
+     *
+     * @param counts bits of the counts, see count.
+     * @param count count to select.
+     * @param src words of the current generation.
+     * @param base offset of the row's first word.
+     * @param dead 0 to select live cells, -1 to select dead ones.
+     * @param dst words of the next generation.
+     * @param n number of words in a row.
+     */
+    private static void select(long[][] counts, int count, long[] src, int base, long dead, long[] dst, int n) {
+        final int lanes = SPECIES.length();
+
+        // Flip the bits of the count that are zero, so matching cells are ones on every plane.
+        final long flipOnes = (count & 1) != 0 ? 0 : -1L;
+        final long flipTwos = (count & 2) != 0 ? 0 : -1L;
+        final long flipFours = (count & 4) != 0 ? 0 : -1L;
+        final long flipEights = (count & 8) != 0 ? 0 : -1L;
+
+        int i = 0;
+        for (; i + lanes <= n; i += lanes)
+        {
+            LongVector.fromArray(SPECIES, counts[0], i).lanewise(VectorOperators.XOR, flipOnes)
+                .and(LongVector.fromArray(SPECIES, counts[1], i).lanewise(VectorOperators.XOR, flipTwos))
+                .and(LongVector.fromArray(SPECIES, counts[2], i).lanewise(VectorOperators.XOR, flipFours))
+                .and(LongVector.fromArray(SPECIES, counts[3], i).lanewise(VectorOperators.XOR, flipEights))
+                .and(LongVector.fromArray(SPECIES, src, base + i).lanewise(VectorOperators.XOR, dead))
+                .or(LongVector.fromArray(SPECIES, dst, base + i))
+                .intoArray(dst, base + i);
+        }
+
+        for (; i < n; i++)
+        {
+            dst[base + i] |= (counts[0][i] ^ flipOnes) & (counts[1][i] ^ flipTwos)
+                           & (counts[2][i] ^ flipFours) & (counts[3][i] ^ flipEights)
+                           & (src[base + i] ^ dead);
+        }
+    }
+}